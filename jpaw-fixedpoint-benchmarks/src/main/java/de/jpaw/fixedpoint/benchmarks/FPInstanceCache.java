@@ -0,0 +1,68 @@
+package de.jpaw.fixedpoint.benchmarks;
+
+import java.math.RoundingMode;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+
+// Benchmarks to evaluate the instance cache for small integral values, on quantity times price workloads.
+// Run with the GC profiler to see the allocation rate (gc.alloc.rate.norm), and compare against a run with a disabled cache
+// (-Dde.jpaw.fixedpoint.cache.high=1 limits the cache to the values in range [-128, 1]):
+
+//java -jar target/jpaw-fixedpoint-benchmarks.jar -i 3 -f 3 -wf 1 -wi 3 -prof gc ".*FPInstanceCache.*"
+
+@State(value = Scope.Thread)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@OperationsPerInvocation(FPInstanceCache.LINES)
+
+public class FPInstanceCache {
+    static final int LINES = 100;
+
+    long[] quantities = new long[LINES];        // small integral quantities, as typically found in order lines
+    String[] quantityTexts = new String[LINES];
+    MicroUnits[] prices = new MicroUnits[LINES];
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < LINES; ++i) {
+            quantities[i] = 1 + (i * 7) % 24;
+            quantityTexts[i] = Long.toString(quantities[i]);
+            prices[i] = MicroUnits.of(1_990_000L + 12_345L * i);
+        }
+    }
+
+    @Benchmark
+    public void createQuantities(Blackhole bh) {
+        for (int i = 0; i < LINES; ++i) {
+            bh.consume(Units.valueOf(quantities[i]));
+        }
+    }
+
+    @Benchmark
+    public void parseQuantities(Blackhole bh) {
+        for (int i = 0; i < LINES; ++i) {
+            bh.consume(MilliUnits.valueOf(quantityTexts[i]));
+        }
+    }
+
+    @Benchmark
+    public void lineTotals(Blackhole bh) {
+        for (int i = 0; i < LINES; ++i) {
+            final MilliUnits quantity = MilliUnits.valueOf(quantities[i]);
+            bh.consume(prices[i].multiply(quantity, RoundingMode.HALF_EVEN));
+        }
+    }
+}
@@ -9,12 +9,14 @@ import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Mode;
 import org.openjdk.jmh.annotations.OperationsPerInvocation;
 import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
 import org.openjdk.jmh.annotations.Setup;
 import org.openjdk.jmh.annotations.State;
 import org.openjdk.jmh.annotations.TearDown;
 import org.openjdk.jmh.infra.Blackhole;
 
+import de.jpaw.fixedpoint.FixedPointBase;
 import de.jpaw.fixedpoint.types.MicroUnits;
 import de.jpaw.fixedpoint.types.MilliUnits;
 
@@ -115,6 +117,14 @@ public class FPMult {
         }
     }
 
+    // operands which exceed 64 bits in the intermediate product: uses the native library or the pure Java 128 bit fallback
+    @Benchmark
+    public void multFPsubWithScale128(Blackhole bh) {
+        for (int i = 0; i < testNums.length; ++i) {
+            bh.consume(testMicros[i].mantissa_of_multiplication(testMicros[9 - i], 6, RoundingMode.HALF_EVEN));
+        }
+    }
+
     @Benchmark
     public void multFPsubWithScaleWithBD(Blackhole bh) {
         for (int i = 0; i < testNums.length; ++i) {
@@ -142,4 +152,33 @@ public class FPMult {
             bh.consume(MicroUnits.of(testMillis[i], RoundingMode.UNNECESSARY));
         }
     }
+
+    /** Separate state for the rounding mode, to parameterize the division benchmarks only. */
+    @State(value = Scope.Thread)
+    public static class Rounding {
+        @Param({"UP", "DOWN", "CEILING", "FLOOR", "HALF_UP", "HALF_DOWN", "HALF_EVEN"})
+        public RoundingMode mode;
+    }
+
+    // division by a power of ten, as used by rescaling: hardware division vs. multiplication by the reciprocal
+    @Benchmark
+    public void divPow10ByDivision(Blackhole bh, Rounding r) {
+        for (int i = 0; i < testNums.length; ++i) {
+            bh.consume(FixedPointBase.divide_longs(testNums[i], 1000L, r.mode));
+        }
+    }
+
+    @Benchmark
+    public void divPow10ByReciprocal(Blackhole bh, Rounding r) {
+        for (int i = 0; i < testNums.length; ++i) {
+            bh.consume(FixedPointBase.divideByPowerOfTen(testNums[i], 3, r.mode));
+        }
+    }
+
+    @Benchmark
+    public void roundWithMode(Blackhole bh, Rounding r) {
+        for (int i = 0; i < testNums.length; ++i) {
+            bh.consume(MilliUnits.of(testMicros[i], r.mode));
+        }
+    }
 }
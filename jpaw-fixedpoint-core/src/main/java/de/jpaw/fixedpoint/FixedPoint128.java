@@ -0,0 +1,370 @@
+package de.jpaw.fixedpoint;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+/**
+ * Mutable fixed point number with a 128 bit mantissa, intended for intermediate results such as grand totals,
+ * which may exceed the 18 digits of a <code>FixedPointBase</code>.
+ * The scale model is the same as for the 64 bit types: the value is mantissa * 10^(-scale), with scale in range [0,18].
+ * The scale of an instance is fixed at construction time.
+ *
+ * All arithmetic operations work in place and do not allocate objects. Values of a smaller or equal scale can be added exactly,
+ * values of a bigger scale would require rounding and are rejected, as in {@link FixedPointAccumulator}.
+ * The result is converted back to a 64 bit type via {@link #narrow(FixedPointBase, RoundingMode)}.
+ * All operations check for overflow of the 128 bit range and throw an ArithmeticException if it occurs.
+ *
+ * Instances of this class are not thread safe.
+ */
+public final class FixedPoint128 {
+    private final int scale;    // the number of decimals of the mantissa
+    private long high;          // upper 64 bits of the mantissa (two's complement)
+    private long low;           // lower 64 bits of the mantissa
+
+    /** Creates an instance of the given scale, with value 0. */
+    public FixedPoint128(final int scale) {
+        this.scale = VariableUnits.scaleCheck(scale);
+    }
+
+    /** Creates an instance with the scale and value of the provided fixed point number. */
+    public FixedPoint128(final FixedPointBase<?> value) {
+        final long mantissa = value.getMantissa();
+        this.scale = value.scale();
+        this.high  = mantissa >> 63;
+        this.low   = mantissa;
+    }
+
+    /** Creates a copy of another instance. */
+    public FixedPoint128(final FixedPoint128 that) {
+        this.scale = that.scale;
+        this.high  = that.high;
+        this.low   = that.low;
+    }
+
+    /** Returns the number of decimals. */
+    public int scale() {
+        return scale;
+    }
+
+    /** Returns the upper 64 bits of the mantissa. */
+    public long getHigh() {
+        return high;
+    }
+
+    /** Returns the lower 64 bits of the mantissa. */
+    public long getLow() {
+        return low;
+    }
+
+    /** Returns true if the value is 0. */
+    public boolean isZero() {
+        return (high | low) == 0L;
+    }
+
+    /** Returns the signum of the value (-1, 0 or 1). */
+    public int signum() {
+        return high < 0L ? -1 : (high | low) == 0L ? 0 : 1;
+    }
+
+    /** Returns true if the mantissa fits into a long. */
+    public boolean fitsLong() {
+        return high == (low >> 63);
+    }
+
+    /** Resets the value to 0, allowing to reuse the instance. */
+    public FixedPoint128 reset() {
+        high = 0L;
+        low  = 0L;
+        return this;
+    }
+
+    /** Sets the value to a mantissa, which must be provided in the scale of this instance. */
+    public FixedPoint128 setMantissa(final long mantissa) {
+        high = mantissa >> 63;
+        low  = mantissa;
+        return this;
+    }
+
+    /** Sets the value to the provided fixed point number. */
+    public FixedPoint128 set(final FixedPointBase<?> value) {
+        high = 0L;
+        low  = 0L;
+        return add(value);
+    }
+
+    /** Adds a 128 bit number (h, l) to the value. */
+    private void add128(final long h, final long l) {
+        final long newLow = low + l;
+        final long carry = Long.compareUnsigned(newLow, l) < 0 ? 1L : 0L;
+        final long newHigh = high + h + carry;
+        if (((high ^ newHigh) & (h ^ newHigh)) < 0L)
+            throw new ArithmeticException("Overflow");
+        high = newHigh;
+        low  = newLow;
+    }
+
+    /** Adds the product of a mantissa and 10^power to the value. */
+    private void addScaled(final long mantissa, final int power) {
+        if (power == 0) {
+            add128(mantissa >> 63, mantissa);
+        } else {
+            final long factor = FixedPointBase.POWERS_OF_TEN[power];
+            add128(Math.multiplyHigh(mantissa, factor), mantissa * factor);
+        }
+    }
+
+    /** Adds the product of a 128 bit number (h, l) and 10^power to the value. The value is unchanged in case of an overflow. */
+    private void addScaled(final long h, final long l, final int power) {
+        final long oldHigh = high;
+        final long oldLow  = low;
+        high = h;
+        low  = l;
+        try {
+            multiply(FixedPointBase.POWERS_OF_TEN[power]);
+            add128(oldHigh, oldLow);
+        } catch (final ArithmeticException e) {
+            high = oldHigh;
+            low  = oldLow;
+            throw e;
+        }
+    }
+
+    /** Computes the difference of the scale of this and a value to add, which must not be negative. */
+    private int scaleDiff(final int thatScale) {
+        final int scaleDiff = scale - thatScale;
+        if (scaleDiff < 0)
+            throw new ArithmeticException("Adding a value of scale " + thatScale + " to a FixedPoint128 of scale " + scale + " would require rounding");
+        return scaleDiff;
+    }
+
+    /** Adds a mantissa, which must be provided in the scale of this instance. */
+    public FixedPoint128 addMantissa(final long mantissa) {
+        add128(mantissa >> 63, mantissa);
+        return this;
+    }
+
+    /** Adds a fixed point number. */
+    public FixedPoint128 add(final FixedPointBase<?> that) {
+        addScaled(that.getMantissa(), scaleDiff(that.scale()));
+        return this;
+    }
+
+    /** Subtracts a fixed point number. */
+    public FixedPoint128 subtract(final FixedPointBase<?> that) {
+        final int scaleDiff = scaleDiff(that.scale());
+        final long m = that.getMantissa();
+        if (m == Long.MIN_VALUE) {
+            // cannot be negated within a long, subtract in two steps
+            addScaled(Long.MAX_VALUE, scaleDiff);
+            addScaled(1L, scaleDiff);
+        } else {
+            addScaled(-m, scaleDiff);
+        }
+        return this;
+    }
+
+    /** Adds another 128 bit value, which must not have a bigger scale than this. */
+    public FixedPoint128 add(final FixedPoint128 that) {
+        final int scaleDiff = scaleDiff(that.scale);
+        if (scaleDiff == 0) {
+            add128(that.high, that.low);
+        } else {
+            addScaled(that.high, that.low, scaleDiff);
+        }
+        return this;
+    }
+
+    /**
+     * Adds the exact product of two fixed point numbers, for example a quantity times a price.
+     * The sum of the scales of the factors must not exceed the scale of this instance.
+     */
+    public FixedPoint128 addProduct(final FixedPointBase<?> a, final FixedPointBase<?> b) {
+        final int scaleDiff = scaleDiff(a.scale() + b.scale());
+        final long ma = a.getMantissa();
+        final long mb = b.getMantissa();
+        if (scaleDiff == 0) {
+            add128(Math.multiplyHigh(ma, mb), ma * mb);
+        } else {
+            addScaled(Math.multiplyHigh(ma, mb), ma * mb, scaleDiff);
+        }
+        return this;
+    }
+
+    /** Negates the value. */
+    public FixedPoint128 negate() {
+        if (high == Long.MIN_VALUE && low == 0L)
+            throw new ArithmeticException("Overflow");
+        low  = -low;
+        high = low == 0L ? -high : ~high;
+        return this;
+    }
+
+    /** Multiplies the value by an integral factor. */
+    public FixedPoint128 multiply(final long factor) {
+        final boolean negative = (high ^ factor) < 0L && !isZero() && factor != 0L;
+        // unsigned magnitudes. Long.MIN_VALUE maps to 2^63, which is correct in unsigned interpretation
+        long magHigh = high;
+        long magLow  = low;
+        if (high < 0L) {
+            magLow  = -low;
+            magHigh = magLow == 0L ? -high : ~high;   // 128 bit MIN_VALUE maps to 2^127
+        }
+        final long f = factor < 0L ? -factor : factor;
+        if (unsignedMultiplyHigh(magHigh, f) != 0L)
+            throw new ArithmeticException("Overflow");
+        final long crossLow = magHigh * f;
+        final long resultLow = magLow * f;
+        final long resultHigh = crossLow + unsignedMultiplyHigh(magLow, f);
+        if (Long.compareUnsigned(resultHigh, crossLow) < 0)
+            throw new ArithmeticException("Overflow");
+        setMagnitude(resultHigh, resultLow, negative);
+        return this;
+    }
+
+    /** Multiplies the value by a fixed point number, keeping the scale of this instance, and rounds as specified. */
+    public FixedPoint128 multiply(final FixedPointBase<?> factor, final RoundingMode rounding) {
+        final int factorScale = factor.scale();
+        final long m = factor.getMantissa();
+        if (factorScale == 0)
+            return multiply(m);
+        final boolean negative = (high ^ m) < 0L && !isZero() && m != 0L;
+        long magHigh = high;
+        long magLow  = low;
+        if (high < 0L) {
+            magLow  = -low;
+            magHigh = magLow == 0L ? -high : ~high;
+        }
+        final long f = m < 0L ? -m : m;
+        // 128 * 64 bit => 192 bit product (p2, p1, p0)
+        final long p0 = magLow * f;
+        final long lowCarry = unsignedMultiplyHigh(magLow, f);
+        final long p1 = magHigh * f + lowCarry;
+        final long p2 = unsignedMultiplyHigh(magHigh, f) + (Long.compareUnsigned(p1, lowCarry) < 0 ? 1L : 0L);
+        // divide by 10^factorScale, digit by digit, the remainder is always less than the divisor
+        final long d = FixedPointBase.POWERS_OF_TEN[factorScale];
+        if (Long.compareUnsigned(p2, d) >= 0)
+            throw new ArithmeticException("Overflow");
+        final long q1 = FixedPointNative.divideUnsigned128(p2, p1, d);
+        final long r1 = p1 - q1 * d;
+        final long q0 = FixedPointNative.divideUnsigned128(r1, p0, d);
+        final long r0 = p0 - q0 * d;
+        if (r0 == 0L) {
+            setMagnitude(q1, q0, negative);
+        } else {
+            if (q1 < 0L)
+                throw new ArithmeticException("Overflow");
+            final long resultLow = q0 + FixedPointNative.roundingIncrement(q0, r0, d, negative, rounding);
+            setMagnitude(resultLow == 0L && q0 != 0L ? q1 + 1L : q1, resultLow, negative);
+        }
+        return this;
+    }
+
+    /** Divides the value by an integral divisor (which must not be Long.MIN_VALUE), keeping the scale of this instance, and rounds as specified. */
+    public FixedPoint128 divide(final long divisor, final RoundingMode rounding) {
+        if (divisor == 0L)
+            throw new ArithmeticException("Division by 0");
+        if (divisor == Long.MIN_VALUE)
+            throw new IllegalArgumentException("Divisor out of range");
+        final boolean negative = (high ^ divisor) < 0L && !isZero();
+        long magHigh = high;
+        long magLow  = low;
+        if (high < 0L) {
+            magLow  = -low;
+            magHigh = magLow == 0L ? -high : ~high;
+        }
+        final long d = divisor < 0L ? -divisor : divisor;
+        final long qHigh = Long.divideUnsigned(magHigh, d);
+        final long r = Long.remainderUnsigned(magHigh, d);
+        final long qLow = r == 0L ? Long.divideUnsigned(magLow, d) : FixedPointNative.divideUnsigned128(r, magLow, d);
+        final long remainder = magLow - qLow * d;
+        if (remainder == 0L) {
+            setMagnitude(qHigh, qLow, negative);
+        } else {
+            final long resultLow = qLow + FixedPointNative.roundingIncrement(qLow, remainder, d, negative, rounding);
+            setMagnitude(resultLow == 0L && qLow != 0L ? qHigh + 1L : qHigh, resultLow, negative);
+        }
+        return this;
+    }
+
+    /** Stores an unsigned magnitude with the provided sign, checking that it is within range. */
+    private void setMagnitude(final long magHigh, final long magLow, final boolean negative) {
+        if (magHigh < 0L && !(negative && magHigh == Long.MIN_VALUE && magLow == 0L))
+            throw new ArithmeticException("Overflow");
+        if (negative) {
+            low  = -magLow;
+            high = low == 0L ? -magHigh : ~magHigh;
+        } else {
+            high = magHigh;
+            low  = magLow;
+        }
+    }
+
+    /** Returns the upper 64 bits of the unsigned 128 bit product of x and y. */
+    private static long unsignedMultiplyHigh(final long x, final long y) {
+        return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+    }
+
+    /**
+     * Returns the mantissa of the value in the target scale, rounded as specified.
+     * An ArithmeticException is thrown if the result does not fit into a long, or if rounding is required but the rounding mode is UNNECESSARY.
+     */
+    public long toMantissa(final int targetScale, final RoundingMode rounding) {
+        final int scaleDiff = VariableUnits.scaleCheck(targetScale) - scale;
+        if (scaleDiff >= 0) {
+            if (!fitsLong())
+                throw new ArithmeticException("Overflow");
+            return scaleDiff == 0 ? low : Math.multiplyExact(low, FixedPointBase.POWERS_OF_TEN[scaleDiff]);
+        }
+        final boolean negative = high < 0L;
+        long magHigh = high;
+        long magLow  = low;
+        if (negative) {
+            magLow  = -low;
+            magHigh = magLow == 0L ? -high : ~high;
+        }
+        final long d = FixedPointBase.POWERS_OF_TEN[-scaleDiff];
+        if (Long.compareUnsigned(magHigh, d) >= 0)
+            throw new ArithmeticException("Overflow");
+        final long quot = magHigh == 0L ? Long.divideUnsigned(magLow, d) : FixedPointNative.divideUnsigned128(magHigh, magLow, d);
+        final long remainder = magLow - quot * d;
+        final long roundedQuot = remainder == 0L ? quot : quot + FixedPointNative.roundingIncrement(quot, remainder, d, negative, rounding);
+        if (roundedQuot == 0L && quot != 0L)
+            throw new ArithmeticException("Overflow");      // carry out of the 64 bit quotient
+        if (negative) {
+            if (Long.compareUnsigned(roundedQuot, Long.MIN_VALUE) > 0)
+                throw new ArithmeticException("Overflow");
+            return -roundedQuot;
+        }
+        if (roundedQuot < 0L)
+            throw new ArithmeticException("Overflow");
+        return roundedQuot;
+    }
+
+    /** Returns the value as a fixed point number of the type and scale of the reference instance, rounded as specified. */
+    public <CLASS extends FixedPointBase<CLASS>> CLASS narrow(final CLASS reference, final RoundingMode rounding) {
+        return reference.newInstanceOf(toMantissa(reference.scale(), rounding));
+    }
+
+    /** Returns the mantissa as a BigInteger. */
+    public BigInteger unscaledValue() {
+        return BigInteger.valueOf(high).shiftLeft(64).or(new BigInteger(Long.toUnsignedString(low)));
+    }
+
+    /** Returns the value as a BigDecimal. */
+    public BigDecimal toBigDecimal() {
+        return new BigDecimal(unscaledValue(), scale);
+    }
+
+    @Override
+    public String toString() {
+        if (fitsLong()) {
+            final StringBuilder sb = new StringBuilder(22);
+            FixedPointBase.append(sb, low, scale);
+            return sb.toString();
+        }
+        return toBigDecimal().toPlainString();
+    }
+}
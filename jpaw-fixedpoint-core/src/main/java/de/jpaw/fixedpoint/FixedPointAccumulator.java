@@ -0,0 +1,127 @@
+package de.jpaw.fixedpoint;
+
+/**
+ * Mutable accumulator for fixed point numbers of a given type.
+ * Sums are computed in place on the mantissa, an immutable fixed point instance is created only when the result is requested.
+ * All operations check for overflow and throw an ArithmeticException if the sum no longer fits into a long.
+ *
+ * For fixed scale types, the scale of the accumulator is that of the type. Values of a smaller scale can be added as well,
+ * values of a bigger scale would require rounding and are rejected.
+ * For <code>VariableUnits</code>, use the {@link VariableUnitsAccumulator}, which adapts its scale to the operands.
+ *
+ * Instances of this class are not thread safe.
+ */
+public class FixedPointAccumulator<CLASS extends FixedPointBase<CLASS>> {
+    private final CLASS zero;       // reference instance, used to create the result
+    protected int scale;            // the number of decimals of the mantissa
+    protected long mantissa;        // the current sum
+
+    /** Creates an accumulator for the type (and scale) of the provided instance, with an initial value of 0. */
+    public FixedPointAccumulator(final CLASS reference) {
+        this.zero     = reference.getZero();
+        this.scale    = reference.scale();
+        this.mantissa = 0L;
+    }
+
+    /** Returns the number of decimals of the accumulated value. */
+    public int scale() {
+        return scale;
+    }
+
+    /** Returns the current sum, as a mantissa in the scale of this accumulator. */
+    public long getMantissa() {
+        return mantissa;
+    }
+
+    /** Returns true if the current sum is 0. */
+    public boolean isZero() {
+        return mantissa == 0L;
+    }
+
+    /** Resets the sum to 0, allowing to reuse the instance. */
+    public FixedPointAccumulator<CLASS> reset() {
+        mantissa = 0L;
+        return this;
+    }
+
+    /** Computes the mantissa of a provided mantissa / scale pair in the scale of this accumulator. */
+    protected long scaledMantissaOf(final int thatScale, final long thatMantissa) {
+        final int scaleDiff = scale - thatScale;
+        if (scaleDiff == 0) {
+            return thatMantissa;
+        }
+        if (scaleDiff < 0) {
+            throw new ArithmeticException("Adding a value of scale " + thatScale + " to an accumulator of scale " + scale + " would require rounding");
+        }
+        return Math.multiplyExact(thatMantissa, FixedPointBase.POWERS_OF_TEN[scaleDiff]);
+    }
+
+    /** Computes the mantissa of that in the scale of this accumulator. */
+    protected final long scaledMantissaOf(final FixedPointBase<?> that) {
+        return scaledMantissaOf(that.scale(), that.getMantissa());
+    }
+
+    /** Adds a mantissa, which must be provided in the scale of this accumulator. */
+    public FixedPointAccumulator<CLASS> addMantissa(final long mantissaToAdd) {
+        mantissa = Math.addExact(mantissa, mantissaToAdd);
+        return this;
+    }
+
+    /** Subtracts a mantissa, which must be provided in the scale of this accumulator. */
+    public FixedPointAccumulator<CLASS> subtractMantissa(final long mantissaToSubtract) {
+        mantissa = Math.subtractExact(mantissa, mantissaToSubtract);
+        return this;
+    }
+
+    /** Adds a fixed point number. */
+    public FixedPointAccumulator<CLASS> add(final FixedPointBase<?> that) {
+        final long scaled = scaledMantissaOf(that);  // evaluate first, as it may rescale the current sum
+        mantissa = Math.addExact(mantissa, scaled);
+        return this;
+    }
+
+    /** Subtracts a fixed point number. */
+    public FixedPointAccumulator<CLASS> subtract(final FixedPointBase<?> that) {
+        final long scaled = scaledMantissaOf(that);
+        mantissa = Math.subtractExact(mantissa, scaled);
+        return this;
+    }
+
+    /** Adds the product of a fixed point number and an integral factor, for example a unit price times a quantity. */
+    public FixedPointAccumulator<CLASS> addProduct(final FixedPointBase<?> that, final long factor) {
+        final long scaled = scaledMantissaOf(that);
+        mantissa = Math.addExact(mantissa, Math.multiplyExact(scaled, factor));
+        return this;
+    }
+
+    /** Adds the current sum of another accumulator. */
+    public FixedPointAccumulator<CLASS> add(final FixedPointAccumulator<?> that) {
+        final long scaled = scaledMantissaOf(that.scale, that.mantissa);
+        mantissa = Math.addExact(mantissa, scaled);
+        return this;
+    }
+
+    /** Multiplies the current sum by an integral factor. */
+    public FixedPointAccumulator<CLASS> multiply(final int factor) {
+        mantissa = Math.multiplyExact(mantissa, factor);
+        return this;
+    }
+
+    /** Negates the current sum. */
+    public FixedPointAccumulator<CLASS> negate() {
+        mantissa = Math.negateExact(mantissa);
+        return this;
+    }
+
+    /** Returns the current sum as an immutable fixed point number. The accumulator can be used further. */
+    public CLASS result() {
+        return zero.newInstanceOf(mantissa);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(22);
+        FixedPointBase.append(sb, mantissa, scale);
+        return sb.toString();
+    }
+}
@@ -1,15 +1,19 @@
 package de.jpaw.fixedpoint;
 
+import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.util.EnumMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.jpaw.fixedpoint.types.VariableUnits;
+import de.jpaw.util.ByteArray;
+import de.jpaw.util.ByteBuilder;
 
 /**
  * Base class for fixed point arithmetic, using an implicitly scaled long value.
@@ -45,6 +49,14 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
     }
 
     private static final char[] DIGITS = { '0', '1', '2', '3', '4', '5', '6', '7', '8', '9' };
+    private static final byte[] DIGIT_TENS = new byte[100];
+    private static final byte[] DIGIT_ONES = new byte[100];
+    static {
+        for (int i = 0; i < 100; ++i) {
+            DIGIT_TENS[i] = (byte)('0' + i / 10);
+            DIGIT_ONES[i] = (byte)('0' + i % 10);
+        }
+    }
     private static final int[] INT_POWERS_OF_TEN = {
             1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000, 1_000_000_000
     };
@@ -65,6 +77,52 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         return POWERS_OF_TEN[scale];
     }
 
+    // Reciprocals of the powers of ten, for division by multiplication (Granlund / Montgomery).
+    // For d = 10^k with 2^(l-1) < d <= 2^l, m = ceil(2^(63+l) / d) fits into an unsigned 64 bit long,
+    // and floor(n / d) = (n * m) >>> (63 + l) holds for all 0 <= n <= 2^63.
+    private static final long[] RECIPROCALS_OF_TEN = new long[POWERS_OF_TEN.length];
+    private static final int[] RECIPROCAL_SHIFTS = new int[POWERS_OF_TEN.length];
+    static {
+        for (int k = 1; k < POWERS_OF_TEN.length; ++k) {
+            final long d = POWERS_OF_TEN[k];
+            final int l = 64 - Long.numberOfLeadingZeros(d - 1);  // ceil(log2(d))
+            final BigInteger[] qr = BigInteger.ONE.shiftLeft(63 + l).divideAndRemainder(BigInteger.valueOf(d));
+            final BigInteger m = qr[1].signum() == 0 ? qr[0] : qr[0].add(BigInteger.ONE);
+            if (m.bitLength() > 64)
+                throw new IllegalStateException("Reciprocal of 10^" + k + " does not fit into 64 bits");
+            RECIPROCALS_OF_TEN[k] = m.longValue();
+            RECIPROCAL_SHIFTS[k] = l - 1;  // 63 + l bits total, 64 of which are provided by the high word of the product
+        }
+    }
+
+    /**
+     * Divides a by 10 ^ power (0 &lt;= power &lt;= 18), truncating towards zero, with the same result as <code>a / getPowerOfTen(power)</code>.
+     * Uses a multiplication by a precomputed reciprocal instead of a hardware division.
+     */
+    public static long divideByPowerOfTen(final long a, final int power) {
+        if (power == 0)
+            return a;
+        final long sign = a >> 63;                  // 0 or -1
+        final long abs = (a ^ sign) - sign;         // Long.MIN_VALUE stays as is, which is 2^63 unsigned and still in range
+        final long m = RECIPROCALS_OF_TEN[power];
+        // unsigned high word of abs * m
+        final long high = Math.multiplyHigh(abs, m) + ((abs >> 63) & m) + ((m >> 63) & abs);
+        final long quotient = high >>> RECIPROCAL_SHIFTS[power];
+        return (quotient ^ sign) - sign;
+    }
+
+    /** Divides a by 10 ^ power (0 &lt;= power &lt;= 18) and rounds according to specification, with the same result as <code>divide_longs(a, getPowerOfTen(power), rounding)</code>. */
+    public static long divideByPowerOfTen(final long a, final int power, final RoundingMode rounding) {
+        if (power == 0)
+            return a;
+        final long b = POWERS_OF_TEN[power];
+        final long tmp = divideByPowerOfTen(a, power);
+        final long mod = a - tmp * b;
+        if (mod == 0)
+            return tmp;  // no rounding required: same for all modes...
+        return roundQuotient(a, b, tmp, mod, rounding);
+    }
+
     private transient String asString = null; // due to efforts to return this for arithmetic operations whereever possible, it is likely that the same number will be printed multiple times, and due to Java object alignments, it does not increase the size of the object
     protected final long mantissa;    // the significant digits
 
@@ -219,13 +277,13 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             }
             // separate the digits in a way that the fractional ones are not negative
             final long ten2scale = POWERS_OF_TEN[scale];
-            final long integralDigits = mantissa / ten2scale;
+            final long integralDigits = divideByPowerOfTen(mantissa, scale);
             final long decimalDigits = Math.abs(mantissa - integralDigits * ten2scale);
             sb.append(integralDigits);
             // conditional append of fractional part
             if (minDigits > 0 || decimalDigits != 0L) {
                 sb.append('.');
-                if (decimalDigits <= 999_999_999) {
+                if (decimalDigits <= 999_999_999 && scale <= 9) {
                     // max 9 digits: do it with integers, to avoid costly 6 bit divisions
                     appendFraction(sb, scale, (int)decimalDigits, minDigits);
                 } else {
@@ -290,9 +348,154 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         }
     }
 
+    /** Returns the value in a human readable form, written as ASCII bytes to the provided ByteBuilder, using the same format as toString(). */
+    public void appendTo(final ByteBuilder bb) {
+        append(bb, mantissa, scale(), outputToStringMinimized ? 0 : scale());
+    }
+
+    /** Returns the value in a human readable form, written to the provided Appendable, using the same format as toString(). */
+    public void appendTo(final Appendable a) throws IOException {
+        append(a, mantissa, scale(), outputToStringMinimized ? 0 : scale());
+    }
+
+    /**
+     * Appends a separately provided mantissa in a human readable form to the provided ByteBuilder, as ASCII bytes.
+     * The digits are written directly into the buffer of the ByteBuilder, no intermediate String is created.
+     */
+    public static void append(final ByteBuilder bb, final long mantissa, final int scale) {
+        append(bb, mantissa, scale, 0);
+    }
+    public static void append(final ByteBuilder bb, final long mantissa, final int scale, final int minDigits) {
+        final int len = formattedLength(mantissa, scale, minDigits);
+        bb.require(len);
+        final int pos = bb.length();
+        format(bb.getCurrentBuffer(), pos, pos + len, mantissa, scale, minDigits);
+        bb.advanceBy(len);
+    }
+
+    /** Appends a separately provided mantissa in a human readable form to the provided Appendable. */
+    public static void append(final Appendable a, final long mantissa, final int scale) throws IOException {
+        append(a, mantissa, scale, 0);
+    }
+    public static void append(final Appendable a, final long mantissa, final int scale, final int minDigits) throws IOException {
+        // same logic as format(), but the digits are produced from the most significant one, therefore no buffer is needed
+        final long negativeMantissa = mantissa < 0L ? mantissa : -mantissa;
+        if (mantissa < 0L)
+            a.append('-');
+        final long integralDigits = divideByPowerOfTen(negativeMantissa, scale);
+        appendDigits(a, integralDigits, digitsOfNegative(integralDigits));
+        if (scale == 0)
+            return;
+        final long fraction = integralDigits * POWERS_OF_TEN[scale] - negativeMantissa;
+        if (fraction == 0L && minDigits <= 0)
+            return;
+        a.append('.');
+        final int fractionalDigits = fractionalDigitsToPrint(fraction, scale, minDigits);
+        appendDigits(a, -divideByPowerOfTen(fraction, scale - fractionalDigits), fractionalDigits);
+        for (int i = fractionalDigits; i < minDigits; ++i) {
+            a.append('0');
+        }
+    }
+
+    /** Returns the number of decimal digits of the absolute value of a number, which is provided as negative number (or 0). */
+    private static int digitsOfNegative(final long negativeValue) {
+        long p = -10L;
+        for (int i = 1; i < 19; ++i) {
+            if (negativeValue > p)
+                return i;
+            p *= 10L;
+        }
+        return 19;
+    }
+
+    /** Returns the number of fractional digits to print, for a given absolute fractional part. */
+    private static int fractionalDigitsToPrint(long fraction, final int scale, final int minDigits) {
+        int digits = scale;
+        while (digits > minDigits && fraction % 10L == 0L) {
+            fraction /= 10L;
+            --digits;
+        }
+        return digits;
+    }
+
+    /** Computes the number of characters of the human readable form. */
+    private static int formattedLength(final long mantissa, final int scale, final int minDigits) {
+        // negative numbers are processed as negative values, to cover Long.MIN_VALUE
+        final long negativeMantissa = mantissa < 0L ? mantissa : -mantissa;
+        final int signLength = mantissa < 0L ? 1 : 0;
+        if (scale == 0) {
+            return signLength + digitsOfNegative(negativeMantissa);  // integral types never print a decimal point
+        }
+        final long ten2scale = POWERS_OF_TEN[scale];
+        final long integralDigits = divideByPowerOfTen(negativeMantissa, scale);
+        final long fraction = integralDigits * ten2scale - negativeMantissa;
+        if (fraction == 0L && minDigits <= 0) {
+            return signLength + digitsOfNegative(integralDigits);
+        }
+        return signLength + digitsOfNegative(integralDigits) + 1 + Math.max(fractionalDigitsToPrint(fraction, scale, minDigits), minDigits);
+    }
+
+    /** Writes count digits of a number which is provided as negative value (or 0), ending before index end, using the digit pair table. */
+    private static void putDigits(final byte[] dst, int end, long negativeValue, int count) {
+        while (count >= 2) {
+            final long q = negativeValue / 100L;
+            final int r = (int)(q * 100L - negativeValue);
+            dst[--end] = DIGIT_ONES[r];
+            dst[--end] = DIGIT_TENS[r];
+            negativeValue = q;
+            count -= 2;
+        }
+        if (count > 0) {
+            final long q = negativeValue / 10L;
+            dst[--end] = (byte)('0' + (int)(q * 10L - negativeValue));
+        }
+    }
+
+    /** Appends count digits of a number which is provided as negative value (or 0), most significant digit first, using the digit pair table. */
+    private static void appendDigits(final Appendable a, long negativeValue, int count) throws IOException {
+        if ((count & 1) != 0) {
+            final long p = POWERS_OF_TEN[--count];
+            final long q = negativeValue / p;
+            a.append((char)('0' - (int)q));
+            negativeValue -= q * p;
+        }
+        while (count > 0) {
+            count -= 2;
+            final long p = POWERS_OF_TEN[count];
+            final long q = negativeValue / p;
+            final int r = (int)-q;
+            a.append((char)DIGIT_TENS[r]);
+            a.append((char)DIGIT_ONES[r]);
+            negativeValue -= q * p;
+        }
+    }
+
+    /** Formats the number into the range [start, end) of dst, which must match the length computed by formattedLength(). */
+    private static void format(final byte[] dst, final int start, final int end, final long mantissa, final int scale, final int minDigits) {
+        final long negativeMantissa = mantissa < 0L ? mantissa : -mantissa;
+        if (mantissa < 0L)
+            dst[start] = '-';
+        final long integralDigits = divideByPowerOfTen(negativeMantissa, scale);
+        final int intStart = mantissa < 0L ? start + 1 : start;
+        final int intLength = digitsOfNegative(integralDigits);
+        putDigits(dst, intStart + intLength, integralDigits, intLength);
+        int pos = intStart + intLength;
+        if (pos == end)
+            return;
+        dst[pos++] = '.';
+        // fractional part: significant digits first, then padding zeros up to the requested minimum number
+        final long fraction = scale == 0 ? 0L : integralDigits * POWERS_OF_TEN[scale] - negativeMantissa;
+        final int fractionalDigits = scale == 0 ? 0 : fractionalDigitsToPrint(fraction, scale, minDigits);
+        putDigits(dst, pos + fractionalDigits, -divideByPowerOfTen(fraction, scale - fractionalDigits), fractionalDigits);
+        pos += fractionalDigits;
+        while (pos < end) {
+            dst[pos++] = '0';
+        }
+    }
+
     /**
      * Parses a string for a maximum number of decimal digits. Extra digits will be ignored as long as they are 0,
-     * but an ArithmeticException will be raised if there are more significant digits than allowed, i.e. no rounding is allowed.
+     * but a NumberFormatException will be raised if there are more significant digits than allowed, i.e. no rounding is allowed.
      *
      * The method should be final, because it is also used as a constructor subrountine.
      *
@@ -301,44 +504,122 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
      * @return the mantissa in the specified scale
      */
     protected static final long parseMantissa(final String src, final int targetScale) {
-        final int indexOfDecimalPoint = src.indexOf('.');
-        if (indexOfDecimalPoint < 0) {
-            // no point included, easy case, integral number
-            return Long.parseLong(src) * POWERS_OF_TEN[targetScale];
-        } else {
-            // parse the integral part, then the fractional part. Support special case to capture -.4 or +.4 (Long.parse("-") won't work!)
-            final long integralPart = (
-                    indexOfDecimalPoint == 1 && (src.charAt(0) == '-' || src.charAt(0) == '+'))
-                    ? 0
-                    : Long.parseLong(src.substring(0, indexOfDecimalPoint)) * POWERS_OF_TEN[targetScale];
-            final int decimalDigitsFound = src.length() - indexOfDecimalPoint - 1;
-            if (decimalDigitsFound == 0) {   // the "1." case => same as integral case
-                return integralPart;
+        return parseMantissa(src, null, null, 0, src.length(), targetScale);
+    }
+
+    /** Parses a section of a character sequence for a maximum number of decimal digits, without creating intermediate objects. */
+    protected static final long parseMantissa(final CharSequence src, final int offset, final int length, final int targetScale) {
+        return parseMantissa(src, null, null, offset, length, targetScale);
+    }
+
+    /** Parses a section of a byte array of ASCII characters for a maximum number of decimal digits, without creating intermediate objects. */
+    protected static final long parseMantissa(final byte[] src, final int offset, final int length, final int targetScale) {
+        return parseMantissa(null, src, null, offset, length, targetScale);
+    }
+
+    /** Parses the contents of a ByteArray of ASCII characters for a maximum number of decimal digits, without creating intermediate objects. */
+    protected static final long parseMantissa(final ByteArray src, final int targetScale) {
+        return parseMantissa(null, null, src, 0, src.length(), targetScale);
+    }
+
+    // retrieves a character from whichever of the sources has been provided. The choice is loop invariant for the JIT.
+    private static int charAt(final CharSequence chars, final byte[] bytes, final ByteArray byteArray, final int index) {
+        if (chars != null)
+            return chars.charAt(index);
+        if (bytes != null)
+            return bytes[index];
+        return byteArray.byteAt(index);
+    }
+
+    // constructs the exception. Only here, the input is converted to a String.
+    private static NumberFormatException parseError(final String reason, final CharSequence chars, final byte[] bytes, final ByteArray byteArray,
+      final int offset, final int length) {
+        final String src;
+        if (chars != null)
+            src = chars.subSequence(offset, offset + length).toString();
+        else if (bytes != null)
+            src = new String(bytes, offset, length, StandardCharsets.ISO_8859_1);
+        else
+            src = byteArray.asString(StandardCharsets.ISO_8859_1);
+        return new NumberFormatException(reason + ": \"" + src + "\"");
+    }
+
+    /**
+     * Single pass parser for the mantissa, which accepts an optional sign, integral digits, and an optional decimal point followed by fractional digits.
+     * At least one digit must be present. Fractional digits exceeding the target scale are accepted if they are 0.
+     * Overflows are detected. The mantissa is accumulated as a negative number (as done by Long.parseLong), to cover the full range of a long.
+     * Exactly one of the sources chars, bytes or byteArray must be not null.
+     */
+    private static long parseMantissa(final CharSequence chars, final byte[] bytes, final ByteArray byteArray,
+      final int offset, final int length, final int targetScale) {
+        if (length <= 0)
+            throw new NumberFormatException("Empty input for a fixed point number");
+        int i = 0;
+        final int first = charAt(chars, bytes, byteArray, offset);
+        final boolean negative = first == '-';
+        if (negative || first == '+')
+            ++i;
+        final long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+        final long multmin = limit / 10;
+        long result = 0L;
+        boolean anyDigits = false;
+        int fractionalDigits = -1;  // -1 indicates that no decimal point has been seen yet
+        for (; i < length; ++i) {
+            final int c = charAt(chars, bytes, byteArray, offset + i);
+            if (c == '.') {
+                if (fractionalDigits >= 0)
+                    throw parseError("Multiple decimal points", chars, bytes, byteArray, offset, length);
+                fractionalDigits = 0;
+                continue;
             }
-            final String fraction = src.substring(indexOfDecimalPoint + 1);
-            if (fraction.charAt(0) == '-' || fraction.charAt(0) == '+')
-                throw new NumberFormatException("Extra sign found at start of fractional digits");
-            long fractionalPart = Long.parseLong(fraction);  // parseUnsignedLong still allows a leading plus sign
-            // apply the sign to the fractional part. checking integralPart won't work here, because that may be "-0"
-            if (src.charAt(0) == '-')
-                fractionalPart = -fractionalPart;
-            final int fractionalDigitsDiff = targetScale - fraction.length();
-            if (fractionalDigitsDiff >= 0) {
-                // no rounding required
-                return integralPart + fractionalPart * POWERS_OF_TEN[fractionalDigitsDiff];
-            } else {
-                // if we have too may significant digits, throw an Exception
-                if (fractionalPart % POWERS_OF_TEN[-fractionalDigitsDiff] != 0)
-                    throw new NumberFormatException("Too many significant fractional digits specified: " + src + ", allowed: " + targetScale);
-                return integralPart + fractionalPart / POWERS_OF_TEN[-fractionalDigitsDiff];
+            final int digit = c - '0';
+            if (digit < 0 || digit > 9)
+                throw parseError("Invalid character in fixed point number", chars, bytes, byteArray, offset, length);
+            anyDigits = true;
+            if (fractionalDigits >= 0) {
+                if (fractionalDigits >= targetScale) {
+                    // extra digits are accepted as long as they are 0
+                    if (digit != 0)
+                        throw parseError("Too many significant fractional digits specified, allowed: " + targetScale, chars, bytes, byteArray, offset, length);
+                    continue;
+                }
+                ++fractionalDigits;
             }
+            if (result < multmin)
+                throw parseError("Numeric overflow", chars, bytes, byteArray, offset, length);
+            result *= 10;
+            if (result < limit + digit)
+                throw parseError("Numeric overflow", chars, bytes, byteArray, offset, length);
+            result -= digit;
+        }
+        if (!anyDigits)
+            throw parseError("No digits found", chars, bytes, byteArray, offset, length);
+        final int missingDigits = targetScale - (fractionalDigits < 0 ? 0 : fractionalDigits);
+        if (missingDigits > 0 && result != 0L) {
+            final long factor = POWERS_OF_TEN[missingDigits];
+            if (result < limit / factor)
+                throw parseError("Numeric overflow", chars, bytes, byteArray, offset, length);
+            result *= factor;
         }
+        return negative ? result : -result;
     }
 
     public static final long mantissaFor(final String src, final int targetScale) {
         return parseMantissa(src, targetScale);
     }
 
+    public static final long mantissaFor(final CharSequence src, final int offset, final int length, final int targetScale) {
+        return parseMantissa(src, offset, length, targetScale);
+    }
+
+    public static final long mantissaFor(final byte[] src, final int offset, final int length, final int targetScale) {
+        return parseMantissa(src, offset, length, targetScale);
+    }
+
+    public static final long mantissaFor(final ByteArray src, final int targetScale) {
+        return parseMantissa(src, targetScale);
+    }
+
     /**
      * Computes the target mantissa of an existing with currentScale, for a given desired target scale.
      * In case of precision loss, a flag indicates whether that is acceptable.
@@ -362,7 +643,7 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             if (toMultiplyWithExponent < -18) {
                 return 0L; // underflow
             }
-            return currentMantissa / POWERS_OF_TEN[-toMultiplyWithExponent];
+            return divideByPowerOfTen(currentMantissa, -toMultiplyWithExponent);
         }
     }
 
@@ -466,7 +747,7 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         // medium difficulty: they have the same scale
         // both operands have the same sign, but differ in scaling. Scale down first, and only if the numbers then are the same, scale up
         if (scaleDiff < 0) {
-            long diff = mantissa - that.mantissa / POWERS_OF_TEN[-scaleDiff];
+            long diff = mantissa - divideByPowerOfTen(that.mantissa, -scaleDiff);
             if (diff != 0)
                 return diff < 0 ? -1 : 1;
             // scaled difference is 0. In this case, scaling up cannot result in an overflow.
@@ -475,7 +756,7 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
                 return diff < 0 ? -1 : 1;
             return 0;
         } else {
-            long diff = mantissa  / POWERS_OF_TEN[scaleDiff] - that.mantissa;
+            long diff = divideByPowerOfTen(mantissa, scaleDiff) - that.mantissa;
             if (diff != 0)
                 return diff < 0 ? -1 : 1;
             // scaled difference is 0. In this case, scaling up cannot result in an overflow.
@@ -849,13 +1130,7 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             // already by design
             return getMyself();
         }
-        final long div = POWERS_OF_TEN[power];
-        final long newMantissa;
-        if (mantissa < 0L) {
-            newMantissa = -roundMantissa(-mantissa, div, ROUNDING_MODE_MAPPING.get(rounding)) * div;
-        } else {
-            newMantissa = roundMantissa(mantissa, div, rounding) * div;
-        }
+        final long newMantissa = divideByPowerOfTen(mantissa, power, rounding) * POWERS_OF_TEN[power];
         if (newMantissa == mantissa) {
             return getMyself();
         }
@@ -868,7 +1143,11 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         final long mod = a % b;
         if (mod == 0)
             return tmp;  // no rounding required: same for all modes...
+        return roundQuotient(a, b, tmp, mod, rounding);
+    }
 
+    /** Applies the rounding to a truncated quotient tmp = a / b with nonzero remainder mod = a % b. */
+    private static long roundQuotient(final long a, final long b, final long tmp, final long mod, final RoundingMode rounding) {
         switch (rounding) {
         case UP:              // round towards bigger absolute value
             return tmp + (a >= 0 ? 1 : -1);
@@ -1182,10 +1461,30 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
         final int scaleDiff = scale() - sourceScale;
         if (scaleDiff == 0)
             return unscaledAmounts;
+        final long[] scaledAmounts = new long[unscaledAmounts.length];
+        roundWithErrorDistribution(unscaledAmounts, sourceScale, scaledAmounts);
+        return scaledAmounts;
+    }
+
+    /**
+     * Same as roundWithErrorDistribution(long[], int), but writes the result into a caller provided array,
+     * which must have at least the size of the input array.
+     * The elements to adjust are selected in place, by one scan per unit of the rounding difference d of the sum, which results in O(n * d) complexity.
+     * No temporary arrays are allocated.
+     *
+     * @param unscaledAmounts the input values, with element 0 being the sum of the others
+     * @param sourceScale the scale of the input values
+     * @param scaledAmounts the array to store the results into
+     */
+    public void roundWithErrorDistribution(final long[] unscaledAmounts, final int sourceScale, final long[] scaledAmounts) {
+        final int scaleDiff = scale() - sourceScale;
         final int n = unscaledAmounts.length;
-        final long scaledAmounts[] = new long[n];
+        if (scaledAmounts.length < n)
+            throw new IllegalArgumentException("Output array too small: " + scaledAmounts.length + " < " + n);
 
-        if (scaleDiff > 0) {
+        if (scaleDiff == 0) {
+            System.arraycopy(unscaledAmounts, 0, scaledAmounts, 0, n);
+        } else if (scaleDiff > 0) {
             final long factor = FixedPointBase.POWERS_OF_TEN[scaleDiff];
             for (int i = 0; i < n; ++i) {
                 scaledAmounts[i] = factor * unscaledAmounts[i];
@@ -1194,52 +1493,50 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             final long factor = FixedPointBase.POWERS_OF_TEN[-scaleDiff];
             long sum = 0;
             for (int i = 0; i < n; ++i) {
-                scaledAmounts[i] = divide_longs(unscaledAmounts[i], factor, RoundingMode.HALF_EVEN);
+                scaledAmounts[i] = divideByPowerOfTen(unscaledAmounts[i], -scaleDiff, RoundingMode.HALF_EVEN);
                 if (i > 0)
                     sum += scaledAmounts[i];
             }
-            long diff = scaledAmounts[0] - sum; // > 0 : increment scaled amounts
+            final long diff = scaledAmounts[0] - sum; // > 0 : increment scaled amounts
             if (diff != 0) {  // > 0: rounded sum is bigger than sum of elements => increment elements
-                // error distribution is required.
-                final long adjustment = diff > 0 ? 1 : -1;
-                // System.out.println("compareSign=" + compareSign + ", difference="+difference.toPlainString());
-                assert (Math.abs(diff) < n);  // can have an error of 1 per item, at most
-                final double[] relativeError = new double[n];
-                for (int i = 0; i < n; ++i) {
-                    // only items are eligible, which have been rounded in the "wrong" way. Namely, only items which have been rounded at all!
-                    final long thisDiff = unscaledAmounts[i] - scaledAmounts[i] * factor;
-                    // take into account: sign of adjustment, sign of thisDiff, i > 0
-                    relativeError[i] = (thisDiff * adjustment * (i > 0 ? 1 : -1) > 0)
-                            ? Math.abs(
-                                    scaledAmounts[i] == 0
-                                        ? (double)unscaledAmounts[i] / (double)factor
-                                        : (double)thisDiff / (double)unscaledAmounts[i])
-                            : 0.0;
+                distributeRoundingError(unscaledAmounts, scaledAmounts, n, factor, diff);
+            }
+        }
+    }
+
+    /**
+     * Adjusts the elements of scaledAmounts by a total of diff units, picking the entries in order of decreasing relative error (and increasing index
+     * for identical errors). Only items are eligible which have been rounded in the "wrong" way, namely only items which have been rounded at all.
+     * Every pick scans the elements again, an adjusted element is rounded in the other direction afterwards and therefore no longer eligible.
+     */
+    private static void distributeRoundingError(final long[] unscaledAmounts, final long[] scaledAmounts, final int n, final long factor, final long diff) {
+        final long adjustment = diff > 0 ? 1 : -1;
+        assert (Math.abs(diff) < n);  // can have an error of 1 per item, at most
+        for (long remaining = diff; remaining != 0; remaining -= adjustment) {
+            int pickedIndex = -1;
+            double maxError = 0.0;
+            for (int i = 0; i < n; ++i) {
+                final long thisDiff = unscaledAmounts[i] - scaledAmounts[i] * factor;
+                // take into account: sign of adjustment, sign of thisDiff, i > 0
+                if (thisDiff * adjustment * (i > 0 ? 1 : -1) > 0) {
                     // relative error is <= 1 by definition: if unscaled <= 0.5: diff = unscaled, else unscaled > 0.5 and therefore > diff
-                    // System.out.println("relative error[" + i + "] = " + relativeError[i]);
-                }
-                while (diff != 0) {
-                    // pick the entry which has the worst error in the current conversion
-                    double maxError = 0.0;
-                    int pickedIndex = -1;
-                    for (int i = 0; i < n; ++i) {
-                        if (relativeError[i] > maxError) {
-                            maxError = relativeError[i];
-                            pickedIndex = i;
-                        }
+                    final double error = Math.abs(
+                      scaledAmounts[i] == 0
+                        ? (double)unscaledAmounts[i] / (double)factor
+                        : (double)thisDiff / (double)unscaledAmounts[i]);
+                    if (error > maxError) {  // strict comparison: for identical errors, the smaller index wins
+                        pickedIndex = i;
+                        maxError = error;
                     }
-                    assert (pickedIndex >= 0);             // did actually find one
-                    // System.out.println("adjusting index " + pickedIndex);
-                    relativeError[pickedIndex] = 0.0;     // mark it "used"
-                    if (pickedIndex > 0)
-                        scaledAmounts[pickedIndex] += adjustment;
-                    else
-                        scaledAmounts[pickedIndex] -= adjustment;
-                    diff -= adjustment;
                 }
             }
+            if (pickedIndex < 0)
+                throw new ArithmeticException("Cannot distribute rounding difference of " + diff + ": not enough eligible elements");
+            if (pickedIndex > 0)
+                scaledAmounts[pickedIndex] += adjustment;
+            else
+                scaledAmounts[pickedIndex] -= adjustment;
         }
-        return scaledAmounts;
     }
 
     @Override
@@ -1280,7 +1577,7 @@ public abstract class FixedPointBase<CLASS extends FixedPointBase<CLASS>> extend
             if (power < -18) {
                 return getZero();
             } else {
-                return newInstanceOf(mantissa / POWERS_OF_TEN[-power]);
+                return newInstanceOf(divideByPowerOfTen(mantissa, -power));
             }
         } else {
             if (power > 18) {
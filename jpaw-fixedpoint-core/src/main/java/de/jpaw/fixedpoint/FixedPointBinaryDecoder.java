@@ -0,0 +1,142 @@
+package de.jpaw.fixedpoint;
+
+import de.jpaw.fixedpoint.types.VariableUnits;
+import de.jpaw.util.ByteArray;
+
+/**
+ * Reads fixed point numbers which have been written by {@link FixedPointBinaryEncoder}.
+ * The decoder keeps the current read position. Truncated or malformed input results in an IllegalArgumentException.
+ *
+ * Instances of this class are not thread safe.
+ */
+public class FixedPointBinaryDecoder {
+    private final ByteArray data;       // the input, read in place
+    private final int base;             // offset of data in the array provided by the caller, for position()
+    private final int end;
+    private int position;               // relative to data
+
+    /** Creates a decoder for the whole provided array. */
+    public FixedPointBinaryDecoder(final byte[] buffer) {
+        this(buffer, 0, buffer.length);
+    }
+
+    /** Creates a decoder for a range of the provided array. */
+    public FixedPointBinaryDecoder(final byte[] buffer, final int offset, final int length) {
+        if (offset < 0 || length < 0 || offset + length > buffer.length)
+            throw new IndexOutOfBoundsException("offset " + offset + ", length " + length + " for array of length " + buffer.length);
+        this.data     = ByteArray.wrap(buffer).subArray(offset, length);   // shares the array, no copy
+        this.base     = offset;
+        this.position = 0;
+        this.end      = length;
+    }
+
+    /** Creates a decoder for the contents of a ByteArray. The contents is not copied. */
+    public FixedPointBinaryDecoder(final ByteArray data) {
+        this.data     = data;
+        this.base     = 0;
+        this.position = 0;
+        this.end      = data.length();
+    }
+
+    /** Returns the current read position. */
+    public int position() {
+        return base + position;
+    }
+
+    /** Returns the number of bytes not yet read. */
+    public int remaining() {
+        return end - position;
+    }
+
+    /** Returns true if there is input left. */
+    public boolean hasMore() {
+        return position < end;
+    }
+
+    /** Reads an unsigned variable length integer. */
+    private long readUnsigned() {
+        final int start = position;
+        int pos = start;
+        long result = 0L;
+        for (int shift = 0;; shift += 7) {
+            if (pos >= end)
+                throw new IllegalArgumentException("Truncated input at position " + (base + start));
+            if (shift > 63)
+                throw new IllegalArgumentException("Malformed variable length integer at position " + (base + start));
+            final byte b = data.byteAt(pos++);
+            if (shift == 63 && (b & 0xff) > 1)
+                throw new IllegalArgumentException("Variable length integer exceeds 64 bits at position " + (base + start));  // only 1 bit left for the 10th byte
+            result |= (long)(b & 0x7f) << shift;
+            if (b >= 0)
+                break;
+        }
+        position = pos;
+        return result;
+    }
+
+    /** Reads the element count of a column, which cannot exceed the number of remaining bytes. */
+    private int readCount() {
+        final int start = position;
+        final long count = readUnsigned();
+        if (count < 0L || count > remaining())
+            throw new IllegalArgumentException("Bad column size " + count + " at position " + (base + start));
+        return (int)count;
+    }
+
+    /** Reads a single byte scale. */
+    private int readScale() {
+        if (position >= end)
+            throw new IllegalArgumentException("Truncated input at position " + position());
+        final int scale = data.byteAt(position);
+        if (scale < 0 || scale > 18)
+            throw new IllegalArgumentException("Bad scale " + scale + " at position " + position());
+        ++position;
+        return scale;
+    }
+
+    /** Reads a mantissa. */
+    public long readMantissa() {
+        final long v = readUnsigned();
+        return (v >>> 1) ^ -(v & 1L);
+    }
+
+    /** Reads a fixed point number of the type (and scale) of the reference instance. */
+    public <CLASS extends FixedPointBase<CLASS>> CLASS read(final CLASS reference) {
+        return reference.newInstanceOf(readMantissa());
+    }
+
+    /** Reads a number which has been written with its scale. */
+    public VariableUnits readWithScale() {
+        final int scale = readScale();
+        return VariableUnits.valueOf(readMantissa(), scale);
+    }
+
+    /** Reads a column of mantissas into a new array. */
+    public long[] readColumn() {
+        final long[] result = new long[readCount()];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = readMantissa();
+        }
+        return result;
+    }
+
+    /** Reads a column of mantissas into the provided array, starting at offset, and returns the number of elements read. */
+    public int readColumn(final long[] dst, final int offset) {
+        final int start = position;
+        final int count = readCount();
+        if (offset < 0 || offset + count > dst.length) {
+            position = start;
+            throw new IndexOutOfBoundsException("Cannot store " + count + " elements at offset " + offset + " into an array of length " + dst.length);
+        }
+        for (int i = offset; i < offset + count; ++i) {
+            dst[i] = readMantissa();
+        }
+        return count;
+    }
+
+    /** Reads a vector, which has been written with its scale. */
+    public FixedPointVector readVector() {
+        final int scale = readScale();
+        return new FixedPointVector(readColumn(), scale);
+    }
+}
@@ -0,0 +1,85 @@
+package de.jpaw.fixedpoint;
+
+import de.jpaw.util.ByteBuilder;
+
+/**
+ * Compact binary encoding of fixed point numbers, intended for cache snapshots and transfers between processes.
+ * The mantissa is written as zigzag encoded variable length integer (7 bits per byte, least significant group first),
+ * which needs 1 byte for values in range [-64, 63] and at most 10 bytes.
+ * The scale is not written for single values, it is implied by the type. For <code>VariableUnits</code>,
+ * {@link #appendWithScale(ByteBuilder, FixedPointBase)} writes it in front of the mantissa, and columns store it once for all elements.
+ *
+ * The data is read back by {@link FixedPointBinaryDecoder}.
+ */
+public final class FixedPointBinaryEncoder {
+    /** The maximum number of bytes of an encoded mantissa. */
+    public static final int MAX_ENCODED_LENGTH = 10;
+
+    private FixedPointBinaryEncoder() { }
+
+    /** Returns the number of bytes required to encode an unsigned variable length integer. */
+    private static int unsignedLength(final long v) {
+        return (64 - Long.numberOfLeadingZeros(v | 1L) + 6) / 7;
+    }
+
+    /** Returns the number of bytes required to encode a mantissa. */
+    public static int encodedLength(final long mantissa) {
+        return unsignedLength((mantissa << 1) ^ (mantissa >> 63));
+    }
+
+    /** Writes an unsigned variable length integer to dst at pos and returns the position after it. */
+    private static int putUnsigned(final byte[] dst, int pos, long v) {
+        while ((v & ~0x7fL) != 0L) {
+            dst[pos++] = (byte)(v | 0x80L);
+            v >>>= 7;
+        }
+        dst[pos++] = (byte)v;
+        return pos;
+    }
+
+    /** Writes a zigzag encoded mantissa to dst at pos and returns the position after it. */
+    private static int putMantissa(final byte[] dst, final int pos, final long mantissa) {
+        return putUnsigned(dst, pos, (mantissa << 1) ^ (mantissa >> 63));
+    }
+
+    /** Appends a mantissa. */
+    public static void appendMantissa(final ByteBuilder bb, final long mantissa) {
+        bb.require(MAX_ENCODED_LENGTH);
+        final int pos = bb.length();
+        bb.advanceBy(putMantissa(bb.getCurrentBuffer(), pos, mantissa) - pos);
+    }
+
+    /** Appends the mantissa of a fixed point number. The scale is implied by the type. */
+    public static void append(final ByteBuilder bb, final FixedPointBase<?> value) {
+        appendMantissa(bb, value.getMantissa());
+    }
+
+    /** Appends the scale (as a single byte) and the mantissa of a fixed point number, for types of variable scale. */
+    public static void appendWithScale(final ByteBuilder bb, final FixedPointBase<?> value) {
+        bb.require(1 + MAX_ENCODED_LENGTH);
+        final int pos = bb.length();
+        final byte[] dst = bb.getCurrentBuffer();
+        dst[pos] = (byte)value.scale();
+        bb.advanceBy(putMantissa(dst, pos + 1, value.getMantissa()) - pos);
+    }
+
+    /** Appends a column of mantissas, as element count followed by the mantissas. */
+    public static void appendColumn(final ByteBuilder bb, final long[] mantissas, final int offset, final int count) {
+        if (offset < 0 || count < 0 || offset + count > mantissas.length)
+            throw new IndexOutOfBoundsException("offset " + offset + ", count " + count + " for array of length " + mantissas.length);
+        bb.require(Math.addExact(5, Math.multiplyExact(count, MAX_ENCODED_LENGTH)));  // one capacity check for the whole column
+        final byte[] dst = bb.getCurrentBuffer();
+        final int start = bb.length();
+        int pos = putUnsigned(dst, start, count);
+        for (int i = offset; i < offset + count; ++i) {
+            pos = putMantissa(dst, pos, mantissas[i]);
+        }
+        bb.advanceBy(pos - start);
+    }
+
+    /** Appends a vector, as scale (single byte), element count and the mantissas. */
+    public static void appendColumn(final ByteBuilder bb, final FixedPointVector vector) {
+        bb.append((byte)vector.scale());
+        appendColumn(bb, vector.getMantissas(), 0, vector.size());
+    }
+}
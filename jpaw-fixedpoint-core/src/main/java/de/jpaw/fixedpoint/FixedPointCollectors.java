@@ -0,0 +1,81 @@
+package de.jpaw.fixedpoint;
+
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+/**
+ * Collectors to aggregate streams of fixed point numbers.
+ * All collectors use mutable containers per thread, which are combined at the end, and therefore work efficiently with parallel streams.
+ * No objects are allocated per element.
+ *
+ * The collectors which take a reference instance produce results of the type and scale of that instance.
+ * Elements of a smaller scale are accepted as well, elements of a bigger scale would require rounding and are rejected with an ArithmeticException.
+ */
+public final class FixedPointCollectors {
+    private FixedPointCollectors() { }
+
+    /** Returns a collector which computes the sum. Intermediate sums are computed with 128 bits, only the final result must fit into the type. */
+    public static <CLASS extends FixedPointBase<CLASS>> Collector<FixedPointBase<?>, ?, CLASS> summing(final CLASS reference) {
+        final int scale = reference.scale();
+        return Collector.of(
+            () -> new FixedPoint128(scale),
+            FixedPoint128::add,
+            FixedPoint128::add,
+            sum -> sum.narrow(reference, RoundingMode.UNNECESSARY),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /** Returns a collector which computes the sum as <code>VariableUnits</code>, with the biggest scale of all elements. */
+    public static Collector<FixedPointBase<?>, ?, VariableUnits> summingVariableUnits() {
+        return Collector.of(
+            VariableUnitsAccumulator::new,
+            VariableUnitsAccumulator::add,
+            (a, b) -> {
+                a.add(b);
+                return a;
+            },
+            VariableUnitsAccumulator::result,
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /** Returns a collector which computes the average, rounded to the scale of the reference instance. The average of no elements is 0. */
+    public static <CLASS extends FixedPointBase<CLASS>> Collector<FixedPointBase<?>, ?, CLASS> averaging(final CLASS reference, final RoundingMode rounding) {
+        return Collector.of(
+            () -> new FixedPointSummaryStatistics<>(reference),
+            FixedPointSummaryStatistics::accept,
+            (a, b) -> {
+                a.combine(b);
+                return a;
+            },
+            stats -> stats.getAverage(rounding),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /** Returns a collector which computes count, sum, min, max and average. */
+    public static <CLASS extends FixedPointBase<CLASS>> Collector<FixedPointBase<?>, ?, FixedPointSummaryStatistics<CLASS>> summarizing(final CLASS reference) {
+        return Collector.of(
+            () -> new FixedPointSummaryStatistics<>(reference),
+            FixedPointSummaryStatistics::accept,
+            (a, b) -> {
+                a.combine(b);
+                return a;
+            },
+            Collector.Characteristics.IDENTITY_FINISH,
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /** Returns a collector which determines the numerically smallest element. */
+    public static <CLASS extends FixedPointBase<CLASS>> Collector<CLASS, ?, Optional<CLASS>> minimum() {
+        return Collectors.minBy(Comparator.naturalOrder());
+    }
+
+    /** Returns a collector which determines the numerically biggest element. */
+    public static <CLASS extends FixedPointBase<CLASS>> Collector<CLASS, ?, Optional<CLASS>> maximum() {
+        return Collectors.maxBy(Comparator.naturalOrder());
+    }
+}
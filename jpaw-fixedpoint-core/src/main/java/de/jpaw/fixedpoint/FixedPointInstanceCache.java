@@ -0,0 +1,56 @@
+package de.jpaw.fixedpoint;
+
+import java.util.function.LongFunction;
+
+/**
+ * Cache of instances for small integral values of a fixed point type and scale, similar to the one used by <code>Long.valueOf()</code>.
+ * Values in range [-128, high] are cached, where high defaults to 127 and can be set via the system property
+ * <code>de.jpaw.fixedpoint.cache.high</code>. For big scales, the range is limited such that the mantissa fits into a long.
+ * The instances for 0 and 1 are provided at construction time, all other ones are created upon first use.
+ * Concurrent first uses may create more than one instance for the same value, which is harmless because the instances are immutable.
+ */
+public final class FixedPointInstanceCache<CLASS extends FixedPointBase<CLASS>> {
+    /** The smallest integral value which is cached. */
+    public static final int LOW = -128;
+    /** The biggest integral value which is cached. */
+    public static final int HIGH = Math.max(1, Integer.getInteger("de.jpaw.fixedpoint.cache.high", 127));
+
+    private final int scale;
+    private final long lowValue;
+    private final long minMantissa;
+    private final long maxMantissa;
+    private final LongFunction<CLASS> constructor;
+    private final FixedPointBase<?>[] instances;
+
+    /** Creates a cache for the given scale. The constructor is invoked with the mantissa of instances to create. */
+    public FixedPointInstanceCache(final int scale, final LongFunction<CLASS> constructor, final CLASS zero, final CLASS one) {
+        final long unit = FixedPointBase.POWERS_OF_TEN[scale];
+        final long low  = Math.max(LOW, -(Long.MAX_VALUE / unit));
+        final long high = Math.min(HIGH, Long.MAX_VALUE / unit);
+        this.scale       = scale;
+        this.lowValue    = low;
+        this.minMantissa = low * unit;
+        this.maxMantissa = high * unit;
+        this.constructor = constructor;
+        this.instances   = new FixedPointBase<?>[(int)(high - low + 1)];
+        instances[(int)-low] = zero;
+        instances[(int)(1 - low)] = one;
+    }
+
+    /** Returns the instance for the given mantissa, which is a cached one if the mantissa represents a small integral value. */
+    @SuppressWarnings("unchecked")
+    public CLASS of(final long mantissa) {
+        if (mantissa < minMantissa || mantissa > maxMantissa)
+            return constructor.apply(mantissa);
+        final long value = FixedPointBase.divideByPowerOfTen(mantissa, scale);
+        if (value * FixedPointBase.POWERS_OF_TEN[scale] != mantissa)
+            return constructor.apply(mantissa);   // not integral
+        final int index = (int)(value - lowValue);
+        CLASS result = (CLASS)instances[index];
+        if (result == null) {
+            result = constructor.apply(mantissa);
+            instances[index] = result;
+        }
+        return result;
+    }
+}
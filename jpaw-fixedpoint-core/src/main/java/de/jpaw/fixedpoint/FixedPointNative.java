@@ -1,9 +1,13 @@
 package de.jpaw.fixedpoint;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
 
-/** Support class which performs 64 * 64 bit to 128 bit multiplication, and subsequent scaling. */
+/**
+ * Support class which performs 64 * 64 bit to 128 bit multiplication, and subsequent scaling.
+ * If the native library is present, it is used, otherwise an allocation free pure Java implementation of the 128 bit arithmetic is used.
+ */
 public final class FixedPointNative {
     private static final String LIBRARY_NAME = "jpawFP128";
     private static volatile boolean nativeAvailable = false;
@@ -13,25 +17,46 @@ public final class FixedPointNative {
             System.out.println("Successfully loaded native library " + LIBRARY_NAME);
             nativeAvailable = true;
         } catch (final Exception e) {
-            System.out.println("Failed to load native library " + LIBRARY_NAME + ": " + e);
+            System.out.println("Failed to load native library " + LIBRARY_NAME + ", using Java implementation: " + e);
         } catch (final UnsatisfiedLinkError e) {
-            System.out.println("Failed to call native library " + LIBRARY_NAME + ": " + e);
+            System.out.println("Failed to call native library " + LIBRARY_NAME + ", using Java implementation: " + e);
         }
     }
 
     private FixedPointNative() { }
 
+    /** Returns true if the native library has been loaded and is used for the 128 bit computations. */
+    public static boolean isNativeAvailable() {
+        return nativeAvailable;
+    }
+
     /** Computes a * b / c, with a 128 bit intermediate result. c is known to be a strictly positive number. */
     private static native long multdiv128(long a, long b, long c, int roundingMode);
 
     /** multiply and divide - generic entry. Computes a * p / q. */
     public static long mult_div(final long a, final long p, final long q, final RoundingMode rounding) {
+        if (q < 0) {
+            return mult_div_negativeDivisor(a, p, q, rounding);
+        }
         if (nativeAvailable) {
             return multdiv128(a, p, q, rounding.ordinal());
         }
-        // fallback implementation.
-        final BigDecimal product = BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(p)).divide(BigDecimal.valueOf(q), rounding);
-        return product.longValue();
+        return multdiv128Java(a, p, q, rounding);
+    }
+
+    /** Computes a * p / q for negative q. The sign is moved to one of the factors if that can be negated, otherwise to the result. */
+    private static long mult_div_negativeDivisor(final long a, final long p, final long q, final RoundingMode rounding) {
+        if (q == Long.MIN_VALUE) {
+            // -q cannot be represented, this is a rare case
+            return new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(p))).divide(BigDecimal.valueOf(q), 0, rounding).longValueExact();
+        }
+        if (nativeAvailable) {
+            if (a != Long.MIN_VALUE)
+                return multdiv128(-a, p, -q, rounding.ordinal());
+            if (p != Long.MIN_VALUE)
+                return multdiv128(a, -p, -q, rounding.ordinal());
+        }
+        return multdiv128Java(a, p, -q, true, rounding);
     }
 
 
@@ -40,25 +65,134 @@ public final class FixedPointNative {
         if (nativeAvailable) {
             return multdiv128(mantissaA, mantissaB, FixedPointBase.POWERS_OF_TEN[decimalsScale], rounding.ordinal());
         }
-        // fallback implementation. Is there a better one with just BigInteger?
-        final BigDecimal product = BigDecimal.valueOf(mantissaA).multiply(BigDecimal.valueOf(mantissaB, decimalsScale));
-        final BigDecimal scaledProduct = product.setScale(0, rounding);
-        return scaledProduct.longValue();
+        return multdiv128Java(mantissaA, mantissaB, FixedPointBase.POWERS_OF_TEN[decimalsScale], rounding);
     }
 
     /** decimalsScale is in range 0..18 */
-    public static long scale_and_divide(long mantissa, final int decimalsScale, long divisor, final RoundingMode rounding) {
-        if (divisor < 0) {
-            // move the sign to the dividend
-            divisor  = -divisor;
-            mantissa = -mantissa;
+    public static long scale_and_divide(final long mantissa, final int decimalsScale, final long divisor, final RoundingMode rounding) {
+        return mult_div(mantissa, FixedPointBase.POWERS_OF_TEN[decimalsScale], divisor, rounding);
+    }
+
+    /**
+     * Computes a * b / c, with a 128 bit intermediate result, in pure Java, and without allocating any objects.
+     * c must be a strictly positive number.
+     * An ArithmeticException is thrown if the result does not fit into a long,
+     * or if rounding is required but the rounding mode is UNNECESSARY.
+     */
+    public static long multdiv128Java(final long a, final long b, final long c, final RoundingMode rounding) {
+        if (c <= 0L) {
+            throw new ArithmeticException(c == 0L ? "Division by 0" : "Divisor must be positive");
         }
-        if (nativeAvailable) {
-            return multdiv128(mantissa, FixedPointBase.POWERS_OF_TEN[decimalsScale], divisor, rounding.ordinal());
+        return multdiv128Java(a, b, c, false, rounding);
+    }
+
+    /** Computes a * b / c, or -(a * b / c) if negateResult is set. c must be a strictly positive number. */
+    private static long multdiv128Java(final long a, final long b, final long c, final boolean negateResult, final RoundingMode rounding) {
+        // reduce to an unsigned operation. Long.MIN_VALUE maps to 2^63, which is correct in unsigned interpretation
+        final boolean negative = ((a ^ b) < 0L) != negateResult;
+        final long absA = a < 0L ? -a : a;
+        final long absB = b < 0L ? -b : b;
+        // unsigned 64 * 64 bit => 128 bit product
+        final long productLow  = absA * absB;
+        final long productHigh = Math.multiplyHigh(absA, absB) + ((absA >> 63) & absB) + ((absB >> 63) & absA);
+
+        final long quot;
+        if (productHigh == 0L) {
+            quot = Long.divideUnsigned(productLow, c);
+        } else {
+            if (Long.compareUnsigned(productHigh, c) >= 0) {
+                throw new ArithmeticException("Overflow");
+            }
+            quot = divideUnsigned128(productHigh, productLow, c);
+        }
+        // the remainder is less than c and therefore fits into 64 bits, so the lower 64 bits of the product suffice to compute it
+        final long remainder = productLow - quot * c;
+        final long increment = (remainder == 0L) ? 0L : roundingIncrement(quot, remainder, c, negative, rounding);
+        if (quot == -1L && increment != 0L) {
+            throw new ArithmeticException("Overflow");   // carry out of the 64 bit quotient
+        }
+        final long roundedQuot = quot + increment;
+        if (negative) {
+            if (Long.compareUnsigned(roundedQuot, Long.MIN_VALUE) > 0) {
+                throw new ArithmeticException("Overflow");
+            }
+            return -roundedQuot;
+        }
+        if (roundedQuot < 0L) {
+            throw new ArithmeticException("Overflow");
+        }
+        return roundedQuot;
+    }
+
+    /** Returns 1 if the absolute value of the (nonzero) remainder requires an increment of the absolute value of the quotient, else 0. */
+    static long roundingIncrement(final long quot, final long remainder, final long divisor, final boolean negative, final RoundingMode rounding) {
+        // remainder < divisor, and divisor is positive, therefore divisor - remainder cannot overflow
+        final long otherHalf = divisor - remainder;
+        switch (rounding) {
+        case UP:              // round towards bigger absolute value
+            return 1L;
+        case DOWN:            // round towards smaller absolute value
+            return 0L;
+        case CEILING:         // round towards bigger numerical value
+            return negative ? 0L : 1L;
+        case FLOOR:           // round towards smaller numerical value
+            return negative ? 1L : 0L;
+        case HALF_UP:
+            return remainder >= otherHalf ? 1L : 0L;
+        case HALF_DOWN:
+            return remainder > otherHalf ? 1L : 0L;
+        case HALF_EVEN:
+            if (remainder == otherHalf) {
+                // exactly in the middle: round towards the nearest even number
+                return quot & 1L;
+            }
+            return remainder > otherHalf ? 1L : 0L;
+        case UNNECESSARY:
+            throw new ArithmeticException("Rounding required but forbidden by roundingMode parameter");
+        default:
+            return 0L;
         }
-        // fallback implementation. Is there a better one with just BigInteger?
-        final BigDecimal quotient = BigDecimal.valueOf(mantissa).divide(BigDecimal.valueOf(divisor, decimalsScale), 0, rounding);
-        return quotient.longValue();
     }
 
+    /**
+     * Unsigned division of the 128 bit number (high, low) by divisor, for the case that the quotient fits into 64 bits,
+     * which is the case if high is less than divisor (unsigned comparison).
+     * Implementation follows Hacker's Delight, 2nd edition, Figure 9-3 (divlu), using 32 bit digits.
+     */
+    static long divideUnsigned128(final long high, final long low, long divisor) {
+        final long base = 1L << 32;
+        final int shift = Long.numberOfLeadingZeros(divisor);
+        divisor <<= shift;                  // normalize the divisor
+        final long divisorHigh = divisor >>> 32;
+        final long divisorLow  = divisor & 0xffffffffL;
+
+        final long num32 = shift == 0 ? high : (high << shift) | (low >>> (64 - shift));
+        final long num10 = low << shift;
+        final long num1 = num10 >>> 32;
+        final long num0 = num10 & 0xffffffffL;
+
+        // first quotient digit
+        long q1 = Long.divideUnsigned(num32, divisorHigh);
+        long rhat = num32 - q1 * divisorHigh;
+        while (q1 >= base || Long.compareUnsigned(q1 * divisorLow, (rhat << 32) | num1) > 0) {
+            --q1;
+            rhat += divisorHigh;
+            if (rhat >= base) {
+                break;
+            }
+        }
+        final long num21 = (num32 << 32) + num1 - q1 * divisor;
+
+        // second quotient digit
+        long q0 = Long.divideUnsigned(num21, divisorHigh);
+        rhat = num21 - q0 * divisorHigh;
+        while (q0 >= base || Long.compareUnsigned(q0 * divisorLow, (rhat << 32) | num0) > 0) {
+            --q0;
+            rhat += divisorHigh;
+            if (rhat >= base) {
+                break;
+            }
+        }
+        return (q1 << 32) + q0;
+    }
 }
@@ -0,0 +1,102 @@
+package de.jpaw.fixedpoint;
+
+import java.math.RoundingMode;
+import java.util.function.Consumer;
+
+/**
+ * Mutable container for statistics such as count, sum, min, max and average of fixed point numbers,
+ * similar to <code>java.util.LongSummaryStatistics</code>.
+ * The scale is that of the reference instance passed to the constructor. Values of a smaller scale are accepted as well,
+ * values of a bigger scale would require rounding and are rejected.
+ * The sum is kept with 128 bits, therefore intermediate sums do not overflow, and the average is computed exactly before rounding.
+ *
+ * Instances of this class are not thread safe, but can be used as mutable containers in parallel streams,
+ * see {@link FixedPointCollectors#summarizing(FixedPointBase)}.
+ */
+public class FixedPointSummaryStatistics<CLASS extends FixedPointBase<CLASS>> implements Consumer<FixedPointBase<?>> {
+    private final CLASS zero;               // reference instance, used to create the results
+    private final FixedPoint128 sum;
+    private long count = 0L;
+    private long min = Long.MAX_VALUE;      // mantissa of the smallest value, in the scale of zero
+    private long max = Long.MIN_VALUE;      // mantissa of the biggest value, in the scale of zero
+
+    /** Creates an empty instance for the type (and scale) of the provided reference. */
+    public FixedPointSummaryStatistics(final CLASS reference) {
+        this.zero = reference.getZero();
+        this.sum  = new FixedPoint128(zero.scale());
+    }
+
+    /** Converts a mantissa of the given scale to the scale of this instance. */
+    private long toScale(final long mantissa, final int scale) {
+        final int scaleDiff = zero.scale() - scale;
+        if (scaleDiff == 0)
+            return mantissa;
+        if (scaleDiff < 0)
+            throw new ArithmeticException("Recording a value of scale " + scale + " in statistics of scale " + zero.scale() + " would require rounding");
+        return Math.multiplyExact(mantissa, FixedPointBase.POWERS_OF_TEN[scaleDiff]);
+    }
+
+    /** Records another value. In case of an exception, the statistics are unchanged. */
+    @Override
+    public void accept(final FixedPointBase<?> value) {
+        final long m = toScale(value.getMantissa(), value.scale());
+        sum.add(value);   // unchanged if it throws
+        if (m < min)
+            min = m;
+        if (m > max)
+            max = m;
+        ++count;
+    }
+
+    /** Combines the state of another instance into this one. In case of an exception, the state of this instance is unchanged. */
+    public void combine(final FixedPointSummaryStatistics<?> other) {
+        if (other.count == 0L)
+            return;
+        final long otherMin = toScale(other.min, other.zero.scale());
+        final long otherMax = toScale(other.max, other.zero.scale());
+        sum.add(other.sum);   // unchanged if it throws
+        count += other.count;
+        if (otherMin < min)
+            min = otherMin;
+        if (otherMax > max)
+            max = otherMax;
+    }
+
+    /** Returns the number of values recorded. */
+    public long getCount() {
+        return count;
+    }
+
+    /** Returns the sum of the values recorded, or 0 if none have been recorded. Throws an ArithmeticException if the sum exceeds the range of the type. */
+    public CLASS getSum() {
+        return sum.narrow(zero, RoundingMode.UNNECESSARY);
+    }
+
+    /** Returns a copy of the exact sum of the values recorded. */
+    public FixedPoint128 getSum128() {
+        return new FixedPoint128(sum);
+    }
+
+    /** Returns the smallest value recorded, or 0 if none have been recorded. */
+    public CLASS getMin() {
+        return zero.newInstanceOf(count == 0L ? 0L : min);
+    }
+
+    /** Returns the biggest value recorded, or 0 if none have been recorded. */
+    public CLASS getMax() {
+        return zero.newInstanceOf(count == 0L ? 0L : max);
+    }
+
+    /** Returns the average of the values recorded, rounded to the scale of the reference instance, or 0 if none have been recorded. */
+    public CLASS getAverage(final RoundingMode rounding) {
+        if (count == 0L)
+            return zero;
+        return new FixedPoint128(sum).divide(count, rounding).narrow(zero, rounding);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "{count=" + count + ", sum=" + sum + ", min=" + getMin() + ", average=" + getAverage(RoundingMode.HALF_EVEN)
+          + ", max=" + getMax() + "}";
+    }
+}
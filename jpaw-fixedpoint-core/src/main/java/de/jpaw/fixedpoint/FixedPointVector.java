@@ -0,0 +1,429 @@
+package de.jpaw.fixedpoint;
+
+import java.io.Serializable;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.List;
+
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+/**
+ * Columnar representation of a sequence of fixed point numbers, which all share the same scale.
+ * The values are stored as an array of mantissas, which avoids the per object overhead of arrays of <code>FixedPointBase</code> instances.
+ *
+ * The bulk operations are implemented as simple loops over the primitive array, without method calls or
+ * branches on the element values in the common paths, which allows the JIT compiler to auto-vectorize them.
+ * Overflow is detected for the whole column (branch free within the loop), and reported by an ArithmeticException after the loop.
+ * In that case, the contents of the vector are undefined.
+ *
+ * Instances of this class are mutable and not thread safe. Operations which modify the vector return this, to allow chaining.
+ */
+public final class FixedPointVector implements Serializable {
+    private static final long serialVersionUID = -2094851284003361742L;
+
+    private final long[] mantissas;
+    private final int scale;
+
+    /** Creates a vector of the given size and scale, with all values 0. */
+    public FixedPointVector(final int size, final int scale) {
+        this(new long[size], scale);
+    }
+
+    /** Creates a vector of the given scale, which is backed by the provided array (no copy is made). */
+    public FixedPointVector(final long[] mantissas, final int scale) {
+        this.mantissas = mantissas;
+        this.scale = VariableUnits.scaleCheck(scale);
+    }
+
+    /** Creates a vector from a list of fixed point numbers. The scale of the vector is the biggest scale of the elements. */
+    public static FixedPointVector of(final List<? extends FixedPointBase<?>> values) {
+        int maxScale = 0;
+        for (final FixedPointBase<?> e : values) {
+            if (e.scale() > maxScale)
+                maxScale = e.scale();
+        }
+        final FixedPointVector v = new FixedPointVector(values.size(), maxScale);
+        for (int i = 0; i < v.mantissas.length; ++i) {
+            v.set(i, values.get(i));
+        }
+        return v;
+    }
+
+    /** Returns the number of elements. */
+    public int size() {
+        return mantissas.length;
+    }
+
+    /** Returns the number of decimals, which is the same for all elements. */
+    public int scale() {
+        return scale;
+    }
+
+    /** Returns the backing array of mantissas. Modifications of it are visible to this vector. */
+    public long[] getMantissas() {
+        return mantissas;
+    }
+
+    /** Returns the mantissa of the element at the given index. */
+    public long getMantissa(final int index) {
+        return mantissas[index];
+    }
+
+    /** Sets the mantissa of the element at the given index. */
+    public void setMantissa(final int index, final long mantissa) {
+        mantissas[index] = mantissa;
+    }
+
+    /** Returns the element at the given index as a fixed point number of the type associated with the scale of this vector. */
+    public FixedPointBase<?> get(final int index) {
+        return FixedPointSelector.getZeroForScale(scale).newInstanceOf(mantissas[index]);
+    }
+
+    /** Sets the element at the given index. The scale of the value must not exceed the scale of this vector. */
+    public void set(final int index, final FixedPointBase<?> value) {
+        mantissas[index] = FixedPointBase.mantissaFor(value.getMantissa(), value.scale(), scale, false);
+    }
+
+    /** Returns a copy of this vector, with a separate backing array. */
+    public FixedPointVector copy() {
+        return new FixedPointVector(mantissas.clone(), scale);
+    }
+
+    private void checkCompatible(final FixedPointVector that) {
+        if (that.scale != scale) {
+            throw new ArithmeticException("Scale mismatch: " + scale + " vs. " + that.scale);
+        }
+        if (that.mantissas.length != mantissas.length) {
+            throw new IllegalArgumentException("Size mismatch: " + mantissas.length + " vs. " + that.mantissas.length);
+        }
+    }
+
+    /** Adds the elements of another vector of the same scale and size to this one. */
+    public FixedPointVector add(final FixedPointVector that) {
+        checkCompatible(that);
+        final long[] a = mantissas;
+        final long[] b = that.mantissas;
+        long overflow = 0L;
+        for (int i = 0; i < a.length; ++i) {
+            final long x = a[i];
+            final long y = b[i];
+            final long r = x + y;
+            overflow |= (x ^ r) & (y ^ r);  // Hacker's Delight 2-13: sign bit set if the addition overflowed
+            a[i] = r;
+        }
+        if (overflow < 0L) {
+            throw new ArithmeticException("Overflow");
+        }
+        return this;
+    }
+
+    /** Subtracts the elements of another vector of the same scale and size from this one. */
+    public FixedPointVector subtract(final FixedPointVector that) {
+        checkCompatible(that);
+        final long[] a = mantissas;
+        final long[] b = that.mantissas;
+        long overflow = 0L;
+        for (int i = 0; i < a.length; ++i) {
+            final long x = a[i];
+            final long y = b[i];
+            final long r = x - y;
+            overflow |= (x ^ y) & (x ^ r);  // Hacker's Delight 2-13: sign bit set if the subtraction overflowed
+            a[i] = r;
+        }
+        if (overflow < 0L) {
+            throw new ArithmeticException("Overflow");
+        }
+        return this;
+    }
+
+    /** Adds a fixed point value to every element. The scale of the value must not exceed the scale of this vector. */
+    public FixedPointVector add(final FixedPointBase<?> value) {
+        final long y = FixedPointBase.mantissaFor(value.getMantissa(), value.scale(), scale, false);
+        if (y == 0L) {
+            return this;
+        }
+        final long[] a = mantissas;
+        long overflow = 0L;
+        for (int i = 0; i < a.length; ++i) {
+            final long x = a[i];
+            final long r = x + y;
+            overflow |= (x ^ r) & (y ^ r);
+            a[i] = r;
+        }
+        if (overflow < 0L) {
+            throw new ArithmeticException("Overflow");
+        }
+        return this;
+    }
+
+    /** Multiplies every element by an integral factor. */
+    public FixedPointVector multiply(final long factor) {
+        final long[] a = mantissas;
+        if (fitsProduct(magnitudeBits(), magnitudeBits(factor))) {
+            for (int i = 0; i < a.length; ++i) {
+                a[i] *= factor;
+            }
+        } else {
+            for (int i = 0; i < a.length; ++i) {
+                a[i] = Math.multiplyExact(a[i], factor);
+            }
+        }
+        return this;
+    }
+
+    /** Negates all elements. */
+    public FixedPointVector negate() {
+        final long[] a = mantissas;
+        long overflow = 0L;
+        for (int i = 0; i < a.length; ++i) {
+            final long x = a[i];
+            final long r = -x;
+            overflow |= x & r;  // sign bit set if both are negative, which only happens for Long.MIN_VALUE
+            a[i] = r;
+        }
+        if (overflow < 0L) {
+            throw new ArithmeticException("Overflow");
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies every element by a fixed point factor, rounding the products to the scale of this vector with the specified rounding mode.
+     * Products which exceed the range of a long in the intermediate result are computed with 128 bit precision.
+     */
+    public FixedPointVector multiply(final FixedPointBase<?> factor, final RoundingMode rounding) {
+        final long f = factor.getMantissa();
+        final int factorScale = factor.scale();
+        final long[] a = mantissas;
+        if (f == 0L) {
+            Arrays.fill(a, 0L);
+            return this;
+        }
+        if (f == FixedPointBase.POWERS_OF_TEN[factorScale]) {
+            return this;  // x * 1 = x
+        }
+        if (fitsProduct(magnitudeBits(), magnitudeBits(f))) {
+            // fast path: all products fit into a long
+            if (factorScale == 0) {
+                for (int i = 0; i < a.length; ++i) {
+                    a[i] *= f;
+                }
+            } else {
+                for (int i = 0; i < a.length; ++i) {
+                    a[i] = FixedPointBase.divideByPowerOfTen(a[i] * f, factorScale, rounding);
+                }
+            }
+        } else {
+            for (int i = 0; i < a.length; ++i) {
+                a[i] = FixedPointNative.multiply_and_scale(a[i], f, factorScale, rounding);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Multiplies every element by the corresponding element of another vector (for example quantities times prices),
+     * rounding the products to the scale of this vector.
+     */
+    public FixedPointVector multiply(final FixedPointVector that, final RoundingMode rounding) {
+        if (that.mantissas.length != mantissas.length) {
+            throw new IllegalArgumentException("Size mismatch: " + mantissas.length + " vs. " + that.mantissas.length);
+        }
+        final long[] a = mantissas;
+        final long[] b = that.mantissas;
+        final int factorScale = that.scale;
+        if (fitsProduct(magnitudeBits(), that.magnitudeBits())) {
+            if (factorScale == 0) {
+                for (int i = 0; i < a.length; ++i) {
+                    a[i] *= b[i];
+                }
+            } else {
+                for (int i = 0; i < a.length; ++i) {
+                    a[i] = FixedPointBase.divideByPowerOfTen(a[i] * b[i], factorScale, rounding);
+                }
+            }
+        } else {
+            for (int i = 0; i < a.length; ++i) {
+                a[i] = FixedPointNative.multiply_and_scale(a[i], b[i], factorScale, rounding);
+            }
+        }
+        return this;
+    }
+
+    /** Returns a new vector with the values of this one, converted to a different scale. Rounding is applied if the scale is reduced. */
+    public FixedPointVector rescale(final int newScale, final RoundingMode rounding) {
+        final int scaleDiff = VariableUnits.scaleCheck(newScale) - scale;
+        final long[] a = mantissas;
+        final long[] r = new long[a.length];
+        if (scaleDiff == 0) {
+            System.arraycopy(a, 0, r, 0, a.length);
+        } else if (scaleDiff > 0) {
+            final long factor = FixedPointBase.POWERS_OF_TEN[scaleDiff];
+            if (fitsProduct(magnitudeBits(), magnitudeBits(factor))) {
+                for (int i = 0; i < a.length; ++i) {
+                    r[i] = a[i] * factor;
+                }
+            } else {
+                for (int i = 0; i < a.length; ++i) {
+                    r[i] = Math.multiplyExact(a[i], factor);
+                }
+            }
+        } else {
+            for (int i = 0; i < a.length; ++i) {
+                r[i] = FixedPointBase.divideByPowerOfTen(a[i], -scaleDiff, rounding);
+            }
+        }
+        return new FixedPointVector(r, newScale);
+    }
+
+    /** Returns the sum of all mantissas. */
+    public long sumMantissa() {
+        final long[] a = mantissas;
+        long sum = 0L;
+        long overflow = 0L;
+        for (int i = 0; i < a.length; ++i) {
+            final long x = a[i];
+            final long r = sum + x;
+            overflow |= (sum ^ r) & (x ^ r);
+            sum = r;
+        }
+        if (overflow < 0L) {
+            throw new ArithmeticException("Overflow");
+        }
+        return sum;
+    }
+
+    /** Returns the sum of all elements, as a fixed point number of the type associated with the scale of this vector. */
+    public FixedPointBase<?> sum() {
+        return FixedPointSelector.getZeroForScale(scale).newInstanceOf(sumMantissa());
+    }
+
+    /** Returns the smallest mantissa, or Long.MAX_VALUE for an empty vector. */
+    public long minMantissa() {
+        final long[] a = mantissas;
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < a.length; ++i) {
+            min = Math.min(min, a[i]);
+        }
+        return min;
+    }
+
+    /** Returns the biggest mantissa, or Long.MIN_VALUE for an empty vector. */
+    public long maxMantissa() {
+        final long[] a = mantissas;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < a.length; ++i) {
+            max = Math.max(max, a[i]);
+        }
+        return max;
+    }
+
+    /** Returns the smallest element, or null for an empty vector. */
+    public FixedPointBase<?> min() {
+        return mantissas.length == 0 ? null : FixedPointSelector.getZeroForScale(scale).newInstanceOf(minMantissa());
+    }
+
+    /** Returns the biggest element, or null for an empty vector. */
+    public FixedPointBase<?> max() {
+        return mantissas.length == 0 ? null : FixedPointSelector.getZeroForScale(scale).newInstanceOf(maxMantissa());
+    }
+
+    /** Returns the number of bits required to represent the biggest absolute value of any mantissa. Branch free, to allow vectorization. */
+    private int magnitudeBits() {
+        final long[] a = mantissas;
+        long bits = 0L;
+        for (int i = 0; i < a.length; ++i) {
+            bits |= a[i] ^ (a[i] >> 63);    // |x| for positive x, |x| - 1 for negative x
+        }
+        return 64 - Long.numberOfLeadingZeros(bits);
+    }
+
+    /** Returns the number of bits required to represent the absolute value of x. */
+    private static int magnitudeBits(final long x) {
+        return 64 - Long.numberOfLeadingZeros(x ^ (x >> 63));
+    }
+
+    /** Conservative check that products of numbers of the given magnitudes cannot overflow. */
+    private static boolean fitsProduct(final int bitsA, final int bitsB) {
+        return bitsA + bitsB <= 62;
+    }
+
+    /**
+     * Compares this vector element by element with another one of the same scale and size,
+     * storing -1, 0 or 1 into the corresponding element of the result array.
+     */
+    public void compare(final FixedPointVector that, final int[] result) {
+        checkCompatible(that);
+        final long[] a = mantissas;
+        final long[] b = that.mantissas;
+        for (int i = 0; i < a.length; ++i) {
+            result[i] = Long.compare(a[i], b[i]);
+        }
+    }
+
+    /** Compares every element with a threshold, storing -1, 0 or 1 into the corresponding element of the result array. */
+    public void compare(final FixedPointBase<?> threshold, final int[] result) {
+        final long t = FixedPointBase.mantissaFor(threshold.getMantissa(), threshold.scale(), scale, false);
+        final long[] a = mantissas;
+        for (int i = 0; i < a.length; ++i) {
+            result[i] = Long.compare(a[i], t);
+        }
+    }
+
+    /** Returns the number of elements which are numerically bigger than the threshold. */
+    public int countGreaterThan(final FixedPointBase<?> threshold) {
+        final long[] a = mantissas;
+        final int scaleDiff = threshold.scale() - scale;
+        final long t;
+        if (scaleDiff <= 0) {
+            t = FixedPointBase.mantissaFor(threshold.getMantissa(), threshold.scale(), scale, false);
+        } else {
+            // value x > threshold  <=>  x > floor(threshold) for integral x (in units of this scale)
+            t = FixedPointBase.divideByPowerOfTen(threshold.getMantissa(), scaleDiff, RoundingMode.FLOOR);
+        }
+        int count = 0;
+        for (int i = 0; i < a.length; ++i) {
+            count += a[i] > t ? 1 : 0;
+        }
+        return count;
+    }
+
+    /** Returns the index of the first element which differs between this vector and another one of the same scale, or -1 if all are the same. */
+    public int mismatch(final FixedPointVector that) {
+        if (that.scale != scale) {
+            throw new ArithmeticException("Scale mismatch: " + scale + " vs. " + that.scale);
+        }
+        return Arrays.mismatch(mantissas, that.mantissas);
+    }
+
+    @Override
+    public int hashCode() {
+        return scale + 19 * Arrays.hashCode(mantissas);
+    }
+
+    /** Returns true if the other object is a vector with the same scale and the same mantissas. */
+    @Override
+    public boolean equals(final Object that) {
+        if (this == that) {
+            return true;
+        }
+        if (that instanceof FixedPointVector _that) {
+            return scale == _that.scale && Arrays.equals(mantissas, _that.mantissas);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder(2 + 12 * mantissas.length);
+        sb.append('[');
+        for (int i = 0; i < mantissas.length; ++i) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            FixedPointBase.append(sb, mantissas[i], scale);
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+}
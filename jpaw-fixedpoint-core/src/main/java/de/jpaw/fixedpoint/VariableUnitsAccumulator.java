@@ -0,0 +1,51 @@
+package de.jpaw.fixedpoint;
+
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+/**
+ * Mutable accumulator which produces <code>VariableUnits</code>.
+ * Similar to <code>VariableUnits.add()</code>, the scale of the sum is the biggest scale of all operands added so far.
+ * Upscaling of the current sum is checked for overflow, as are all other operations.
+ *
+ * Instances of this class are not thread safe.
+ */
+public final class VariableUnitsAccumulator extends FixedPointAccumulator<VariableUnits> {
+
+    /** Creates an accumulator with an initial value of 0 and scale 0. */
+    public VariableUnitsAccumulator() {
+        this(0);
+    }
+
+    /** Creates an accumulator with an initial value of 0 and the given initial scale. */
+    public VariableUnitsAccumulator(final int initialScale) {
+        super(VariableUnits.valueOf(0L, initialScale));
+    }
+
+    /** Ensures that the scale of the accumulator is at least the requested scale. */
+    public VariableUnitsAccumulator ensureScale(final int minScale) {
+        final int scaleDiff = VariableUnits.scaleCheck(minScale) - scale;
+        if (scaleDiff > 0) {
+            mantissa = Math.multiplyExact(mantissa, FixedPointBase.POWERS_OF_TEN[scaleDiff]);
+            scale = minScale;
+        }
+        return this;
+    }
+
+    /** Resets the sum to 0, and the scale to the provided one. */
+    public VariableUnitsAccumulator reset(final int newScale) {
+        scale = VariableUnits.scaleCheck(newScale);
+        mantissa = 0L;
+        return this;
+    }
+
+    @Override
+    protected long scaledMantissaOf(final int thatScale, final long thatMantissa) {
+        ensureScale(thatScale);
+        return super.scaledMantissaOf(thatScale, thatMantissa);
+    }
+
+    @Override
+    public VariableUnits result() {
+        return VariableUnits.valueOf(mantissa, scale);
+    }
+}
@@ -4,6 +4,8 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointInstanceCache;
+import de.jpaw.util.ByteArray;
 
 /** Instances of this class represent numbers with a fixed precision of 2 decimals, and up to 18 total digits precision. */
 public final class Hundreds extends FixedPointBase<Hundreds> {
@@ -19,19 +21,18 @@ public final class Hundreds extends FixedPointBase<Hundreds> {
     /** The representation of the number 1 in this class. This implementation attempts to maintain a single instance of 0 only. */
     public static final Hundreds ONE = new Hundreds(UNIT_MANTISSA);
 
-    // external callers use valueOf factory method, which returns existing objects for 0 and 1. This constructor is used by the factory methods
+    /** Cached instances for small integral values. */
+    private static final FixedPointInstanceCache<Hundreds> CACHE = new FixedPointInstanceCache<>(DECIMALS, Hundreds::new, ZERO, ONE);
+
+    // external callers use valueOf factory method, which returns existing objects for small integral values. This constructor is used by the factory methods
     private Hundreds(final long mantissa) {
         super(mantissa);
     }
 
-    /** Constructs an instance with a specified mantissa. See also valueOf(long value), which constructs an integral instance. */
+    /** Constructs an instance with a specified mantissa. See also valueOf(long value), which constructs an integral instance.
+     * Returns cached instances for small integral values. */
     public static Hundreds of(final long mantissa) {
-        // caching checks...
-        if (mantissa == 0L)
-            return ZERO;
-        if (mantissa == UNIT_MANTISSA)
-            return ONE;
-        return new Hundreds(mantissa);
+        return CACHE.of(mantissa);
     }
 
     /** Constructs an instance with a specified integral value. See also of(long mantissa), which constructs an instance with a specified mantissa. */
@@ -49,6 +50,21 @@ public final class Hundreds extends FixedPointBase<Hundreds> {
         return of(parseMantissa(value, DECIMALS));
     }
 
+    /** Constructs an instance with a value specified via a section of a character sequence. No intermediate objects are created. */
+    public static Hundreds valueOf(final CharSequence src, final int offset, final int length) {
+        return of(parseMantissa(src, offset, length, DECIMALS));
+    }
+
+    /** Constructs an instance with a value specified via a section of a byte array of ASCII characters. No intermediate objects are created. */
+    public static Hundreds valueOf(final byte[] src, final int offset, final int length) {
+        return of(parseMantissa(src, offset, length, DECIMALS));
+    }
+
+    /** Constructs an instance with a value specified via a ByteArray of ASCII characters. No intermediate objects are created. */
+    public static Hundreds valueOf(final ByteArray src) {
+        return of(parseMantissa(src, DECIMALS));
+    }
+
     /** Returns a re-typed instance of another fixed point type. Loosing precision is not supported. */
     public static Hundreds of(final FixedPointBase<?> that) {
         final int scaleDiff = DECIMALS - that.scale();
@@ -63,7 +79,7 @@ public final class Hundreds extends FixedPointBase<Hundreds> {
         if (scaleDiff >= 0)
             return Hundreds.of(that.getMantissa() * POWERS_OF_TEN[scaleDiff]);
         // rescale
-        return  Hundreds.of(divide_longs(that.getMantissa(), POWERS_OF_TEN[-scaleDiff], rounding));
+        return  Hundreds.of(divideByPowerOfTen(that.getMantissa(), -scaleDiff, rounding));
     }
 
     /** Constructs an instance with a value specified via a parameter of type <code>BigDecimal</code>.
@@ -4,6 +4,8 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 
 import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointInstanceCache;
+import de.jpaw.util.ByteArray;
 
 /** Instances of this class represent numbers with a fixed precision of 3 decimals, and up to 18 total digits precision. */
 public final class MilliUnits extends FixedPointBase<MilliUnits> {
@@ -19,19 +21,18 @@ public final class MilliUnits extends FixedPointBase<MilliUnits> {
     /** The representation of the number 1 in this class. This implementation attempts to maintain a single instance of 0 only. */
     public static final MilliUnits ONE = new MilliUnits(UNIT_MANTISSA);
 
-    // external callers use valueOf factory method, which returns existing objects for 0 and 1. This constructor is used by the factory methods
+    /** Cached instances for small integral values. */
+    private static final FixedPointInstanceCache<MilliUnits> CACHE = new FixedPointInstanceCache<>(DECIMALS, MilliUnits::new, ZERO, ONE);
+
+    // external callers use valueOf factory method, which returns existing objects for small integral values. This constructor is used by the factory methods
     private MilliUnits(final long mantissa) {
         super(mantissa);
     }
 
-    /** Constructs an instance with a specified mantissa. See also valueOf(long value), which constructs an integral instance. */
+    /** Constructs an instance with a specified mantissa. See also valueOf(long value), which constructs an integral instance.
+     * Returns cached instances for small integral values. */
     public static MilliUnits of(final long mantissa) {
-        // caching checks...
-        if (mantissa == 0L)
-            return ZERO;
-        if (mantissa == UNIT_MANTISSA)
-            return ONE;
-        return new MilliUnits(mantissa);
+        return CACHE.of(mantissa);
     }
 
     /** Constructs an instance with a specified integral value. See also of(long mantissa), which constructs an instance with a specified mantissa. */
@@ -49,6 +50,21 @@ public final class MilliUnits extends FixedPointBase<MilliUnits> {
         return of(parseMantissa(value, DECIMALS));
     }
 
+    /** Constructs an instance with a value specified via a section of a character sequence. No intermediate objects are created. */
+    public static MilliUnits valueOf(final CharSequence src, final int offset, final int length) {
+        return of(parseMantissa(src, offset, length, DECIMALS));
+    }
+
+    /** Constructs an instance with a value specified via a section of a byte array of ASCII characters. No intermediate objects are created. */
+    public static MilliUnits valueOf(final byte[] src, final int offset, final int length) {
+        return of(parseMantissa(src, offset, length, DECIMALS));
+    }
+
+    /** Constructs an instance with a value specified via a ByteArray of ASCII characters. No intermediate objects are created. */
+    public static MilliUnits valueOf(final ByteArray src) {
+        return of(parseMantissa(src, DECIMALS));
+    }
+
     /** Returns a re-typed instance of another fixed point type. Loosing precision is not supported. */
     public static MilliUnits of(final FixedPointBase<?> that) {
         final int scaleDiff = DECIMALS - that.scale();
@@ -63,7 +79,7 @@ public final class MilliUnits extends FixedPointBase<MilliUnits> {
         if (scaleDiff >= 0)
             return MilliUnits.of(that.getMantissa() * POWERS_OF_TEN[scaleDiff]);
         // rescale
-        return  MilliUnits.of(divide_longs(that.getMantissa(), POWERS_OF_TEN[-scaleDiff], rounding));
+        return  MilliUnits.of(divideByPowerOfTen(that.getMantissa(), -scaleDiff, rounding));
     }
 
     /** Constructs an instance with a value specified via a parameter of type <code>BigDecimal</code>.
@@ -5,6 +5,8 @@ import java.math.RoundingMode;
 import java.util.List;
 
 import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointInstanceCache;
+import de.jpaw.util.ByteArray;
 
 public final class VariableUnits extends FixedPointBase<VariableUnits> {
     private static final long serialVersionUID = 8621674182590849295L;
@@ -51,6 +53,15 @@ public final class VariableUnits extends FixedPointBase<VariableUnits> {
             new VariableUnits(POWERS_OF_TEN[17], 17),
             new VariableUnits(POWERS_OF_TEN[18], 18)
     };
+    /** Cached instances for small integral values, per scale. */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static final FixedPointInstanceCache<VariableUnits>[] CACHES = new FixedPointInstanceCache[ZEROs.length];
+    static {
+        for (int i = 0; i < CACHES.length; ++i) {
+            final int scale = i;
+            CACHES[i] = new FixedPointInstanceCache<>(scale, mantissa -> new VariableUnits(mantissa, scale), ZEROs[i], ONEs[i]);
+        }
+    }
 
     public static int scaleCheck(final int scale) {
         if (scale < 0 || scale > 18)
@@ -90,14 +101,33 @@ public final class VariableUnits extends FixedPointBase<VariableUnits> {
         return indexOfDecimalPoint < 0 ? 0 : src.length() - indexOfDecimalPoint - 1;
     }
 
-    /** Factory method. Similar to the constructor, but returns cached instances for 0 and 1. */
+    /** Subroutine for valueOf(CharSequence, int, int), to define the desired number of digits. */
+    private static int parseTargetScale(final CharSequence src, final int offset, final int length) {
+        for (int i = 0; i < length; ++i) {
+            if (src.charAt(offset + i) == '.')
+                return length - i - 1;
+        }
+        return 0;
+    }
+
+    /** Subroutine for valueOf(byte[], int, int), to define the desired number of digits. */
+    private static int parseTargetScale(final byte[] src, final int offset, final int length) {
+        for (int i = 0; i < length; ++i) {
+            if (src[offset + i] == '.')
+                return length - i - 1;
+        }
+        return 0;
+    }
+
+    /** Subroutine for valueOf(ByteArray), to define the desired number of digits. */
+    private static int parseTargetScale(final ByteArray src) {
+        final int indexOfDecimalPoint = src.indexOf((byte)'.');
+        return indexOfDecimalPoint < 0 ? 0 : src.length() - indexOfDecimalPoint - 1;
+    }
+
+    /** Factory method. Similar to the constructor, but returns cached instances for small integral values. */
     public static VariableUnits valueOf(final long mantissa, final int scale) {
-        scaleCheck(scale);
-        if (mantissa == 0)
-            return ZEROs[scale];
-        if (mantissa == POWERS_OF_TEN[scale])
-            return ONEs[scale];
-        return new VariableUnits(mantissa, scale);
+        return CACHES[scaleCheck(scale)].of(mantissa);
     }
 
     /** Constructs an instance with a specified value specified via string representation. */
@@ -106,6 +136,24 @@ public final class VariableUnits extends FixedPointBase<VariableUnits> {
         return ZEROs[newScale].newInstanceOf(parseMantissa(value, newScale));
     }
 
+    /** Constructs an instance with a value specified via a section of a character sequence. No intermediate objects are created. */
+    public static VariableUnits valueOf(final CharSequence src, final int offset, final int length) {
+        final int newScale = scaleCheck(parseTargetScale(src, offset, length));
+        return ZEROs[newScale].newInstanceOf(parseMantissa(src, offset, length, newScale));
+    }
+
+    /** Constructs an instance with a value specified via a section of a byte array of ASCII characters. No intermediate objects are created. */
+    public static VariableUnits valueOf(final byte[] src, final int offset, final int length) {
+        final int newScale = scaleCheck(parseTargetScale(src, offset, length));
+        return ZEROs[newScale].newInstanceOf(parseMantissa(src, offset, length, newScale));
+    }
+
+    /** Constructs an instance with a value specified via a ByteArray of ASCII characters. No intermediate objects are created. */
+    public static VariableUnits valueOf(final ByteArray src) {
+        final int newScale = scaleCheck(parseTargetScale(src));
+        return ZEROs[newScale].newInstanceOf(parseMantissa(src, newScale));
+    }
+
     private VariableUnits(final long mantissa, final int scale) {
         super(mantissa);
         this.scale = scaleCheck(scale);
@@ -119,14 +167,9 @@ public final class VariableUnits extends FixedPointBase<VariableUnits> {
 
     @Override
     public VariableUnits newInstanceOf(final long mantissa) {
-        // caching checks...
-        if (mantissa == 0)
-            return ZEROs[scale];
-        if (mantissa == POWERS_OF_TEN[scale])
-            return ONEs[scale];
         if (mantissa == this.mantissa)
             return this;
-        return new VariableUnits(mantissa, scale);
+        return CACHES[scale].of(mantissa);
     }
 
     @Override
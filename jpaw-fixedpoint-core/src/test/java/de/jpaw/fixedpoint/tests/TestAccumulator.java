@@ -0,0 +1,59 @@
+package de.jpaw.fixedpoint.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointAccumulator;
+import de.jpaw.fixedpoint.VariableUnitsAccumulator;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+public class TestAccumulator {
+
+    @Test
+    public void testFixedScaleSum() throws Exception {
+        final FixedPointAccumulator<MicroUnits> acc = new FixedPointAccumulator<>(MicroUnits.ZERO);
+        MicroUnits expected = MicroUnits.ZERO;
+        for (int i = 1; i <= 1000; ++i) {
+            final MicroUnits value = MicroUnits.of(i * 1234567L);
+            acc.add(value);
+            expected = expected.add(value);
+        }
+        acc.add(MilliUnits.of(1500L));     // smaller scale is fine
+        acc.subtract(Units.ONE);
+        acc.addProduct(MicroUnits.valueOf("0.25"), 4);
+        expected = expected.add(MicroUnits.valueOf("1.5"));
+        Assertions.assertEquals(expected, acc.result());
+        Assertions.assertEquals("-" + expected.toString(), acc.negate().toString());
+        Assertions.assertSame(MicroUnits.ZERO, acc.reset().result());
+    }
+
+    @Test
+    public void testOverflowDetection() throws Exception {
+        final FixedPointAccumulator<MicroUnits> acc = new FixedPointAccumulator<>(MicroUnits.ZERO);
+        acc.addMantissa(Long.MAX_VALUE - 5L);
+        Assertions.assertThrows(ArithmeticException.class, () -> acc.addMantissa(6L));
+        Assertions.assertThrows(ArithmeticException.class, () -> acc.multiply(2));
+        Assertions.assertEquals(Long.MAX_VALUE - 5L, acc.getMantissa());   // unchanged after failed operations
+    }
+
+    @Test
+    public void testRejectsBiggerScale() throws Exception {
+        final FixedPointAccumulator<MilliUnits> acc = new FixedPointAccumulator<>(MilliUnits.ZERO);
+        Assertions.assertThrows(ArithmeticException.class, () -> acc.add(MicroUnits.of(1L)));
+    }
+
+    @Test
+    public void testVariableUnitsSum() throws Exception {
+        final VariableUnitsAccumulator acc = new VariableUnitsAccumulator();
+        acc.add(Units.valueOf(3));
+        acc.add(VariableUnits.valueOf("0.25"));
+        acc.subtract(MilliUnits.of(125L));
+        acc.multiply(2);
+        final VariableUnits result = acc.result();
+        Assertions.assertEquals(3, result.scale());
+        Assertions.assertEquals(VariableUnits.valueOf("6.250"), result);
+    }
+}
@@ -0,0 +1,112 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointBinaryDecoder;
+import de.jpaw.fixedpoint.FixedPointBinaryEncoder;
+import de.jpaw.fixedpoint.FixedPointVector;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.VariableUnits;
+import de.jpaw.util.ByteArray;
+import de.jpaw.util.ByteBuilder;
+
+public class TestBinaryCodec {
+    private static final long[] EDGE_VALUES = { 0L, 1L, -1L, 63L, -64L, 64L, -65L, 8191L, -8192L, 8192L,
+            Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1 };
+
+    @Test
+    public void testSingleValues() throws Exception {
+        final ByteBuilder bb = new ByteBuilder(4, null);
+        for (final long m : EDGE_VALUES) {
+            final int before = bb.length();
+            FixedPointBinaryEncoder.append(bb, MilliUnits.of(m));
+            Assertions.assertEquals(FixedPointBinaryEncoder.encodedLength(m), bb.length() - before, "length of " + m);
+        }
+        FixedPointBinaryEncoder.appendWithScale(bb, VariableUnits.valueOf(-12345L, 4));
+        Assertions.assertEquals(1, FixedPointBinaryEncoder.encodedLength(-64L));
+        Assertions.assertEquals(2, FixedPointBinaryEncoder.encodedLength(64L));
+        Assertions.assertEquals(10, FixedPointBinaryEncoder.encodedLength(Long.MIN_VALUE));
+
+        final FixedPointBinaryDecoder decoder = new FixedPointBinaryDecoder(ByteArray.fromByteBuilder(bb));
+        for (final long m : EDGE_VALUES) {
+            Assertions.assertEquals(MilliUnits.of(m), decoder.read(MilliUnits.ZERO));
+        }
+        final VariableUnits v = decoder.readWithScale();
+        Assertions.assertEquals(4, v.scale());
+        Assertions.assertEquals(-12345L, v.getMantissa());
+        Assertions.assertFalse(decoder.hasMore());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> decoder.readMantissa());
+    }
+
+    @Test
+    public void testColumns() throws Exception {
+        final Random rnd = new Random(20201018L);
+        final long[] data = new long[10_000];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = rnd.nextLong() >> rnd.nextInt(64);
+        }
+        System.arraycopy(EDGE_VALUES, 0, data, 0, EDGE_VALUES.length);
+        final ByteBuilder bb = new ByteBuilder();
+        FixedPointBinaryEncoder.appendColumn(bb, data, 0, data.length);
+        FixedPointBinaryEncoder.appendColumn(bb, data, 5, 3);
+        FixedPointBinaryEncoder.appendColumn(bb, new FixedPointVector(data, 6));
+
+        final FixedPointBinaryDecoder decoder = new FixedPointBinaryDecoder(bb.getCurrentBuffer(), 0, bb.length());
+        Assertions.assertArrayEquals(data, decoder.readColumn());
+        final long[] dst = new long[4];
+        Assertions.assertEquals(3, decoder.readColumn(dst, 1));
+        Assertions.assertArrayEquals(new long[] { 0L, data[5], data[6], data[7] }, dst);
+        final FixedPointVector vector = decoder.readVector();
+        Assertions.assertEquals(6, vector.scale());
+        Assertions.assertArrayEquals(data, vector.getMantissas());
+        Assertions.assertEquals(MicroUnits.of(data[17]), vector.get(17));
+        Assertions.assertFalse(decoder.hasMore());
+    }
+
+    @Test
+    public void testSlices() throws Exception {
+        final ByteBuilder bb = new ByteBuilder();
+        bb.writeByte(99);   // garbage before the encoded data
+        FixedPointBinaryEncoder.append(bb, MilliUnits.of(-5L));
+        FixedPointBinaryEncoder.append(bb, MilliUnits.of(300L));
+        bb.writeByte(0x80); // truncated garbage after the encoded data
+
+        // a slice of a ByteArray is decoded in place
+        final FixedPointBinaryDecoder decoder = new FixedPointBinaryDecoder(ByteArray.fromByteBuilder(bb).subArray(1, bb.length() - 2));
+        Assertions.assertEquals(-5L, decoder.readMantissa());
+        Assertions.assertEquals(300L, decoder.readMantissa());
+        Assertions.assertFalse(decoder.hasMore());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> decoder.readMantissa());
+
+        // positions refer to the array provided
+        final FixedPointBinaryDecoder arrayDecoder = new FixedPointBinaryDecoder(bb.getCurrentBuffer(), 1, bb.length() - 2);
+        Assertions.assertEquals(1, arrayDecoder.position());
+        Assertions.assertEquals(-5L, arrayDecoder.readMantissa());
+        Assertions.assertEquals(2, arrayDecoder.position());
+        Assertions.assertEquals(2, arrayDecoder.remaining());
+    }
+
+    @Test
+    public void testMalformedInput() throws Exception {
+        // truncated varint
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FixedPointBinaryDecoder(new byte[] { (byte)0x80 }).readMantissa());
+        // more than 10 bytes
+        final byte[] tooLong = new byte[11];
+        Arrays.fill(tooLong, (byte)0x80);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FixedPointBinaryDecoder(tooLong).readMantissa());
+        // the 10th byte carries more than the remaining bit
+        final byte[] tooBig = { -1, -1, -1, -1, -1, -1, -1, -1, -1, 2 };
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FixedPointBinaryDecoder(tooBig).readMantissa());
+        final byte[] maxValue = { -1, -1, -1, -1, -1, -1, -1, -1, -1, 1 };
+        Assertions.assertEquals(Long.MIN_VALUE, new FixedPointBinaryDecoder(maxValue).readMantissa());
+        // column size exceeds the input
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FixedPointBinaryDecoder(new byte[] { 5, 0, 0 }).readColumn());
+        // bad scale
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FixedPointBinaryDecoder(new byte[] { 19, 0 }).readWithScale());
+    }
+}
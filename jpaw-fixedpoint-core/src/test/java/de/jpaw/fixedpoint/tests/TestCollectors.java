@@ -0,0 +1,89 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointCollectors;
+import de.jpaw.fixedpoint.FixedPointSummaryStatistics;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+public class TestCollectors {
+    private static final int N = 100_000;
+
+    private static List<MilliUnits> values() {
+        return LongStream.range(0, N).mapToObj(i -> MilliUnits.of((i * 7919L) % 100_003L - 50_000L)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testSumAndAverageParallel() throws Exception {
+        final List<MilliUnits> values = values();
+        BigDecimal expectedSum = BigDecimal.ZERO;
+        for (final MilliUnits v : values) {
+            expectedSum = expectedSum.add(v.toBigDecimal());
+        }
+        final MilliUnits sequentialSum = values.stream().collect(FixedPointCollectors.summing(MilliUnits.ZERO));
+        final MilliUnits parallelSum = values.parallelStream().collect(FixedPointCollectors.summing(MilliUnits.ZERO));
+        Assertions.assertEquals(0, expectedSum.compareTo(sequentialSum.toBigDecimal()));
+        Assertions.assertEquals(sequentialSum, parallelSum);
+
+        final MicroUnits average = values.parallelStream().collect(FixedPointCollectors.averaging(MicroUnits.ZERO, RoundingMode.HALF_EVEN));
+        Assertions.assertEquals(0, expectedSum.divide(BigDecimal.valueOf(N), 6, RoundingMode.HALF_EVEN).compareTo(average.toBigDecimal()));
+
+        final VariableUnits variableSum = values.parallelStream().collect(FixedPointCollectors.summingVariableUnits());
+        Assertions.assertEquals(3, variableSum.scale());
+        Assertions.assertEquals(sequentialSum.getMantissa(), variableSum.getMantissa());
+    }
+
+    @Test
+    public void testIntermediateOverflow() throws Exception {
+        // the intermediate sum exceeds the range of a long, the final result does not
+        final List<Units> values = List.of(Units.of(Long.MAX_VALUE), Units.of(Long.MAX_VALUE), Units.of(-Long.MAX_VALUE), Units.of(-Long.MAX_VALUE), Units.of(5));
+        Assertions.assertEquals(Units.of(5), values.stream().collect(FixedPointCollectors.summing(Units.ZERO)));
+        Assertions.assertThrows(ArithmeticException.class, () -> values.subList(0, 2).stream().collect(FixedPointCollectors.summing(Units.ZERO)));
+    }
+
+    @Test
+    public void testStatistics() throws Exception {
+        final List<MilliUnits> values = values();
+        final FixedPointSummaryStatistics<MilliUnits> stats = values.parallelStream().collect(FixedPointCollectors.summarizing(MilliUnits.ZERO));
+        Assertions.assertEquals(N, stats.getCount());
+        Assertions.assertEquals(values.stream().collect(FixedPointCollectors.summing(MilliUnits.ZERO)), stats.getSum());
+        Assertions.assertEquals(values.stream().min(MilliUnits::compareTo).get(), stats.getMin());
+        Assertions.assertEquals(values.stream().max(MilliUnits::compareTo).get(), stats.getMax());
+        Assertions.assertEquals(Optional.of(stats.getMin()), values.parallelStream().collect(FixedPointCollectors.minimum()));
+        Assertions.assertEquals(Optional.of(stats.getMax()), values.parallelStream().collect(FixedPointCollectors.maximum()));
+
+        // values of a smaller scale are accepted, bigger ones are rejected
+        final FixedPointSummaryStatistics<MilliUnits> mixed = new FixedPointSummaryStatistics<>(MilliUnits.ZERO);
+        Assertions.assertEquals(MilliUnits.ZERO, mixed.getAverage(RoundingMode.UP));
+        mixed.accept(Units.of(2));
+        mixed.accept(MilliUnits.of(1));
+        Assertions.assertEquals(MilliUnits.of(1), mixed.getMin());
+        Assertions.assertEquals(MilliUnits.of(2000), mixed.getMax());
+        Assertions.assertEquals(MilliUnits.of(1001), mixed.getAverage(RoundingMode.HALF_UP));
+        Assertions.assertEquals(MilliUnits.of(1000), mixed.getAverage(RoundingMode.DOWN));
+        Assertions.assertThrows(ArithmeticException.class, () -> mixed.accept(MicroUnits.of(1)));
+
+        // a value which cannot be scaled leaves the statistics unchanged
+        Assertions.assertThrows(ArithmeticException.class, () -> mixed.accept(Units.of(Long.MAX_VALUE / 100L)));
+        Assertions.assertEquals(2L, mixed.getCount());
+        Assertions.assertEquals(MilliUnits.of(2001), mixed.getSum());
+        Assertions.assertEquals(MilliUnits.of(2000), mixed.getMax());
+        final FixedPointSummaryStatistics<Units> big = new FixedPointSummaryStatistics<>(Units.ZERO);
+        big.accept(Units.of(Long.MAX_VALUE / 100L));
+        Assertions.assertThrows(ArithmeticException.class, () -> mixed.combine(big));
+        Assertions.assertEquals(2L, mixed.getCount());
+        Assertions.assertEquals(MilliUnits.of(2001), mixed.getSum());
+        Assertions.assertEquals(MilliUnits.of(2000), mixed.getMax());
+    }
+}
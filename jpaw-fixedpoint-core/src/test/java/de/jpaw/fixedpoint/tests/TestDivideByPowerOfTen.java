@@ -0,0 +1,51 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointBase;
+
+// compare the division by reciprocals against the hardware division
+public class TestDivideByPowerOfTen {
+    private static final RoundingMode[] MODES = {
+        RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+        RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+    };
+
+    private void compare(final long a, final int power) {
+        final long d = FixedPointBase.getPowerOfTen(power);
+        Assertions.assertEquals(a / d, FixedPointBase.divideByPowerOfTen(a, power), a + " / 10^" + power);
+        for (final RoundingMode rounding : MODES) {
+            Assertions.assertEquals(FixedPointBase.divide_longs(a, d, rounding), FixedPointBase.divideByPowerOfTen(a, power, rounding),
+              a + " / 10^" + power + " with mode " + rounding);
+        }
+        if (a % d == 0L) {
+            Assertions.assertEquals(a / d, FixedPointBase.divideByPowerOfTen(a, power, RoundingMode.UNNECESSARY));
+        } else {
+            Assertions.assertThrows(ArithmeticException.class, () -> FixedPointBase.divideByPowerOfTen(a, power, RoundingMode.UNNECESSARY));
+        }
+    }
+
+    @Test
+    public void testEdgeCases() throws Exception {
+        for (int power = 0; power <= 18; ++power) {
+            final long d = FixedPointBase.getPowerOfTen(power);
+            for (final long a : new long[] { 0L, 1L, -1L, d, -d, d - 1, 1 - d, d + 1, -d - 1, d / 2, -d / 2, d / 2 + 1, -d / 2 - 1, 3 * d / 2, -3 * d / 2,
+              Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1, Long.MAX_VALUE / d * d, Long.MIN_VALUE / d * d }) {
+                compare(a, power);
+            }
+        }
+    }
+
+    @Test
+    public void testRandomValues() throws Exception {
+        final Random rnd = new Random(20201018L);
+        for (int i = 0; i < 200_000; ++i) {
+            final long a = rnd.nextLong() >> rnd.nextInt(64);
+            compare(a, rnd.nextInt(19));
+        }
+    }
+}
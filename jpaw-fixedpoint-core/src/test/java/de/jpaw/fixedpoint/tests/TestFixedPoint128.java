@@ -0,0 +1,140 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPoint128;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+public class TestFixedPoint128 {
+    private static final BigInteger MAX_128 = BigInteger.ONE.shiftLeft(127).subtract(BigInteger.ONE);
+    private static final BigInteger MIN_128 = BigInteger.ONE.shiftLeft(127).negate();
+
+    @Test
+    public void testSumBeyondLongRange() throws Exception {
+        final FixedPoint128 sum = new FixedPoint128(6);
+        final MicroUnits big = MicroUnits.of(Long.MAX_VALUE);
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int i = 0; i < 1000; ++i) {
+            sum.add(big);
+            expected = expected.add(big.toBigDecimal());
+        }
+        Assertions.assertFalse(sum.fitsLong());
+        Assertions.assertEquals(expected, sum.toBigDecimal());
+        for (int i = 0; i < 1000; ++i) {
+            sum.subtract(big);
+        }
+        sum.add(MilliUnits.valueOf("3.25"));
+        Assertions.assertTrue(sum.fitsLong());
+        Assertions.assertEquals("3.25", sum.toString());
+        Assertions.assertEquals(MilliUnits.valueOf("3.25"), sum.narrow(MilliUnits.ZERO, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(Units.valueOf(3), sum.narrow(Units.ZERO, RoundingMode.HALF_EVEN));
+        Assertions.assertEquals(Units.valueOf(4), sum.narrow(Units.ZERO, RoundingMode.UP));
+        Assertions.assertThrows(ArithmeticException.class, () -> sum.narrow(Units.ZERO, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    public void testProducts() throws Exception {
+        // quantity times price, accumulated exactly and rounded only once
+        final FixedPoint128 total = new FixedPoint128(9);
+        total.addProduct(MilliUnits.valueOf("1.5"), MicroUnits.valueOf("0.333333"));
+        total.addProduct(MilliUnits.valueOf("1.5"), MicroUnits.valueOf("0.333333"));
+        Assertions.assertEquals(new BigDecimal("0.999999000"), total.toBigDecimal());
+        Assertions.assertEquals(VariableUnits.of(100L, 2), total.narrow(VariableUnits.of(0L, 2), RoundingMode.HALF_UP));
+        Assertions.assertThrows(ArithmeticException.class, () -> new FixedPoint128(6).addProduct(MilliUnits.ONE, MicroUnits.ONE));
+
+        total.multiply(MilliUnits.valueOf("-0.5"), RoundingMode.HALF_EVEN);
+        Assertions.assertEquals(new BigDecimal("-0.499999500"), total.toBigDecimal());
+        total.multiply(MicroUnits.valueOf("0.000003"), RoundingMode.HALF_EVEN);
+        Assertions.assertEquals(new BigDecimal("-0.000001500"), total.toBigDecimal());  // -0.0000014999985 rounded to 9 decimals
+    }
+
+    @Test
+    public void testOverflow() throws Exception {
+        final FixedPoint128 x = new FixedPoint128(0);
+        x.setMantissa(Long.MAX_VALUE).multiply(Long.MAX_VALUE);
+        Assertions.assertThrows(ArithmeticException.class, () -> x.multiply(4L));
+        Assertions.assertEquals(BigInteger.valueOf(Long.MAX_VALUE).pow(2), x.unscaledValue());  // unchanged after the failed operation
+        Assertions.assertThrows(ArithmeticException.class, () -> x.toMantissa(0, RoundingMode.DOWN));
+        Assertions.assertThrows(ArithmeticException.class, () -> new FixedPoint128(18).add(new FixedPoint128(0).setMantissa(Long.MAX_VALUE).multiply(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void testNarrowingCarryOverflow() throws Exception {
+        // 18446744073709551615.000001: the quotient by 10^6 is 0xFFFFFFFFFFFFFFFF, rounding UP must not wrap to 0
+        final FixedPoint128 x = new FixedPoint128(6).setMantissa(Long.MAX_VALUE).multiply(2L).addMantissa(1L).multiply(1_000_000L).addMantissa(1L);
+        Assertions.assertEquals(new BigInteger("18446744073709551615000001"), x.unscaledValue());
+        Assertions.assertThrows(ArithmeticException.class, () -> x.toMantissa(0, RoundingMode.UP));
+        x.negate();
+        Assertions.assertThrows(ArithmeticException.class, () -> x.toMantissa(0, RoundingMode.FLOOR));
+    }
+
+    private static BigInteger checkRange(final BigInteger x) {
+        return x.compareTo(MIN_128) < 0 || x.compareTo(MAX_128) > 0 ? null : x;
+    }
+
+    @Test
+    public void testRandomOperations() throws Exception {
+        final Random rnd = new Random(20201018L);
+        final RoundingMode[] modes = RoundingMode.values();
+        for (int i = 0; i < 50_000; ++i) {
+            final int scale = rnd.nextInt(19);
+            final FixedPoint128 x = new FixedPoint128(scale);
+            x.setMantissa(rnd.nextLong()).multiply(rnd.nextLong() >> rnd.nextInt(64));
+            final BigInteger before = x.unscaledValue();
+            final long factor = rnd.nextLong() >> rnd.nextInt(64);
+            final int factorScale = rnd.nextInt(19);
+            final RoundingMode rounding = modes[rnd.nextInt(modes.length)];
+
+            // multiplication by a fixed point number
+            BigInteger expected;
+            try {
+                expected = checkRange(new BigDecimal(before.multiply(BigInteger.valueOf(factor))).divide(BigDecimal.ONE.scaleByPowerOfTen(factorScale), 0, rounding).toBigIntegerExact());
+            } catch (final ArithmeticException e) {
+                expected = null;
+            }
+            if (expected == null) {
+                Assertions.assertThrows(ArithmeticException.class, () -> x.multiply(VariableUnits.of(factor, factorScale), rounding));
+                Assertions.assertEquals(before, x.unscaledValue());
+            } else {
+                x.multiply(VariableUnits.of(factor, factorScale), rounding);
+                Assertions.assertEquals(expected, x.unscaledValue(), before + " * " + factor + " / 10^" + factorScale + " with " + rounding);
+            }
+
+            // addition of a value of smaller scale
+            final BigInteger current = x.unscaledValue();
+            final int addScale = rnd.nextInt(scale + 1);
+            final long addend = rnd.nextLong();
+            expected = checkRange(current.add(BigInteger.valueOf(addend).multiply(BigInteger.TEN.pow(scale - addScale))));
+            if (expected == null) {
+                Assertions.assertThrows(ArithmeticException.class, () -> x.add(VariableUnits.of(addend, addScale)));
+            } else {
+                x.add(VariableUnits.of(addend, addScale));
+                Assertions.assertEquals(expected, x.unscaledValue());
+            }
+
+            // narrowing
+            final int targetScale = rnd.nextInt(19);
+            final BigDecimal value = x.toBigDecimal();
+            Long expectedMantissa;
+            try {
+                expectedMantissa = value.setScale(targetScale, rounding).unscaledValue().longValueExact();
+            } catch (final ArithmeticException e) {
+                expectedMantissa = null;
+            }
+            if (expectedMantissa == null) {
+                Assertions.assertThrows(ArithmeticException.class, () -> x.toMantissa(targetScale, rounding));
+            } else {
+                Assertions.assertEquals(expectedMantissa.longValue(), x.toMantissa(targetScale, rounding), value + " to scale " + targetScale + " with " + rounding);
+            }
+        }
+    }
+}
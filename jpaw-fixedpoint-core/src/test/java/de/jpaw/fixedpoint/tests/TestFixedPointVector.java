@@ -0,0 +1,91 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointVector;
+import de.jpaw.fixedpoint.types.Hundreds;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+
+public class TestFixedPointVector {
+
+    @Test
+    public void testAddAndSum() throws Exception {
+        final FixedPointVector prices = FixedPointVector.of(List.of(Hundreds.valueOf("1.99"), Units.valueOf(5), Hundreds.valueOf("-0.5")));
+        Assertions.assertEquals(2, prices.scale());
+        final FixedPointVector fees = new FixedPointVector(new long[] { 1, 2, 3 }, 2);
+        prices.add(fees).add(Hundreds.valueOf("0.10"));
+        Assertions.assertEquals("[2.1, 5.12, -0.37]", prices.toString());
+        Assertions.assertEquals(Hundreds.valueOf("6.85"), prices.sum());
+        Assertions.assertEquals(Hundreds.valueOf("-0.37"), prices.min());
+        Assertions.assertEquals(Hundreds.valueOf("5.12"), prices.max());
+        Assertions.assertEquals(1, prices.mismatch(prices.copy().add(new FixedPointVector(new long[] { 0, 1, 0 }, 2))));
+        Assertions.assertEquals(-1, prices.mismatch(prices.copy()));
+    }
+
+    @Test
+    public void testOverflowDetection() throws Exception {
+        final FixedPointVector a = new FixedPointVector(new long[] { 1L, Long.MAX_VALUE - 1L, 3L }, 0);
+        final FixedPointVector b = new FixedPointVector(new long[] { 1L, 2L, 3L }, 0);
+        Assertions.assertThrows(ArithmeticException.class, () -> a.copy().add(b));
+        Assertions.assertThrows(ArithmeticException.class, () -> a.sumMantissa());
+        Assertions.assertThrows(ArithmeticException.class, () -> a.copy().multiply(2L));
+        Assertions.assertThrows(ArithmeticException.class, () -> new FixedPointVector(new long[] { Long.MIN_VALUE }, 0).subtract(new FixedPointVector(new long[] { 1L }, 0)));
+        Assertions.assertThrows(ArithmeticException.class, () -> new FixedPointVector(new long[] { 5L, Long.MIN_VALUE, -7L }, 0).negate());
+        Assertions.assertArrayEquals(new long[] { -5L, -Long.MAX_VALUE, 0L, 7L },
+          new FixedPointVector(new long[] { 5L, Long.MAX_VALUE, 0L, -7L }, 0).negate().getMantissas());
+    }
+
+    @Test
+    public void testMultiplyMatchesScalarArithmetic() throws Exception {
+        final long[] values = { 0L, 1L, -1L, 123_456_789L, -987_654_321L, 5_000_000L, -15_000_000L, 999_999_999_999_999L, -123_456_789_012_345L };
+        final MicroUnits[] factors = { MicroUnits.valueOf("0.19"), MicroUnits.valueOf("-1.234567"), MicroUnits.valueOf("1234.5"), MicroUnits.of(999_999_999_999L) };
+        for (final MicroUnits factor : factors) {
+            for (final RoundingMode rm : RoundingMode.values()) {
+                if (rm == RoundingMode.UNNECESSARY)
+                    continue;
+                final FixedPointVector v = new FixedPointVector(values.clone(), 3);
+                try {
+                    v.multiply(factor, rm);
+                } catch (final ArithmeticException e) {
+                    continue;  // overflow of the result, fine
+                }
+                for (int i = 0; i < values.length; ++i) {
+                    final MilliUnits expected = MilliUnits.of(values[i]).multiply(factor, rm);
+                    Assertions.assertEquals(expected.getMantissa(), v.getMantissa(i), "Value " + values[i] + " * " + factor + " with mode " + rm);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRescale() throws Exception {
+        final FixedPointVector v = new FixedPointVector(new long[] { 12_345L, -12_355L, 5L, -5L }, 3);
+        for (final RoundingMode rm : RoundingMode.values()) {
+            if (rm == RoundingMode.UNNECESSARY)
+                continue;
+            final FixedPointVector r = v.rescale(1, rm);
+            for (int i = 0; i < v.size(); ++i) {
+                final BigDecimal expected = BigDecimal.valueOf(v.getMantissa(i), 3).setScale(1, rm);
+                Assertions.assertEquals(expected.unscaledValue().longValue(), r.getMantissa(i), "Rounding mode " + rm);
+            }
+        }
+        Assertions.assertEquals(new FixedPointVector(new long[] { 12_345_000L, -12_355_000L, 5_000L, -5_000L }, 6), v.rescale(6, RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    public void testCompare() throws Exception {
+        final FixedPointVector v = new FixedPointVector(new long[] { 100L, 250L, -3L, 99L }, 2);
+        final int[] result = new int[4];
+        v.compare(Units.ONE, result);
+        Assertions.assertArrayEquals(new int[] { 0, 1, -1, -1 }, result);
+        Assertions.assertEquals(2, v.countGreaterThan(MilliUnits.valueOf("0.995")));
+        Assertions.assertEquals(1, v.countGreaterThan(Units.ONE));
+    }
+}
@@ -0,0 +1,48 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.RoundingMode;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointInstanceCache;
+import de.jpaw.fixedpoint.types.FemtoUnits;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+public class TestInstanceCache {
+
+    @Test
+    public void testFixedScaleTypes() throws Exception {
+        Assertions.assertSame(MilliUnits.ZERO, MilliUnits.of(0L));
+        Assertions.assertSame(MilliUnits.ONE, MilliUnits.valueOf(1L));
+        Assertions.assertSame(MilliUnits.valueOf(100L), MilliUnits.valueOf("100"));
+        Assertions.assertSame(MilliUnits.valueOf(-5L), MilliUnits.valueOf(2L).multiply(MilliUnits.valueOf("-2.5"), RoundingMode.UNNECESSARY));
+        Assertions.assertSame(Units.of(FixedPointInstanceCache.LOW), Units.of(FixedPointInstanceCache.LOW));
+        Assertions.assertSame(Units.of(FixedPointInstanceCache.HIGH), Units.valueOf(FixedPointInstanceCache.HIGH));
+        Assertions.assertSame(MicroUnits.valueOf(7L), MicroUnits.ONE.multiply(7));
+
+        // non integral and out of range values are not cached, but equal
+        Assertions.assertNotSame(MilliUnits.of(1500L), MilliUnits.of(1500L));
+        Assertions.assertEquals(MilliUnits.of(1500L), MilliUnits.of(1500L));
+        Assertions.assertNotSame(Units.of(FixedPointInstanceCache.HIGH + 1), Units.of(FixedPointInstanceCache.HIGH + 1));
+        Assertions.assertNotSame(Units.of(FixedPointInstanceCache.LOW - 1), Units.of(FixedPointInstanceCache.LOW - 1));
+
+        // for scale 18, only values up to 9 fit into a long
+        Assertions.assertSame(FemtoUnits.valueOf(9L), FemtoUnits.valueOf(9L));
+        Assertions.assertSame(FemtoUnits.valueOf(-9L), FemtoUnits.valueOf(-9L));
+        Assertions.assertEquals(Long.MAX_VALUE, FemtoUnits.of(Long.MAX_VALUE).getMantissa());
+    }
+
+    @Test
+    public void testVariableUnits() throws Exception {
+        Assertions.assertSame(VariableUnits.valueOf(300L, 2), VariableUnits.valueOf("3.00"));
+        Assertions.assertSame(VariableUnits.valueOf(0L, 5).getZero(), VariableUnits.of(0L, 5));
+        Assertions.assertNotSame(VariableUnits.valueOf(350L, 2), VariableUnits.valueOf(350L, 2));
+        Assertions.assertNotSame(VariableUnits.valueOf(300L, 2), VariableUnits.valueOf(3000L, 3));
+        Assertions.assertEquals(2, VariableUnits.valueOf(300L, 2).scale());
+        Assertions.assertEquals(3, VariableUnits.valueOf(3000L, 3).scale());
+    }
+}
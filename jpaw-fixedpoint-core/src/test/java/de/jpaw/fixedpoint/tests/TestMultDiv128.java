@@ -0,0 +1,104 @@
+package de.jpaw.fixedpoint.tests;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.fixedpoint.FixedPointNative;
+
+// compare the pure Java 128 bit implementation against BigDecimal results
+public class TestMultDiv128 {
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private void compare(final long a, final long b, final long c, final RoundingMode rounding) {
+        final String what = a + " * " + b + " / " + c + " with mode " + rounding;
+        BigDecimal expected;
+        try {
+            expected = new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(b))).divide(BigDecimal.valueOf(c), 0, rounding);
+        } catch (final ArithmeticException e) {
+            expected = null;  // rounding required but UNNECESSARY
+        }
+        if (expected == null || expected.compareTo(LONG_MIN) < 0 || expected.compareTo(LONG_MAX) > 0) {
+            Assertions.assertThrows(ArithmeticException.class, () -> FixedPointNative.multdiv128Java(a, b, c, rounding), what);
+        } else {
+            Assertions.assertEquals(expected.longValueExact(), FixedPointNative.multdiv128Java(a, b, c, rounding), what);
+        }
+    }
+
+    @Test
+    public void testRandomOperands() throws Exception {
+        final Random rnd = new Random(271828L);
+        for (int i = 0; i < 20000; ++i) {
+            final long a = rnd.nextLong() >> rnd.nextInt(64);
+            final long b = rnd.nextLong() >> rnd.nextInt(64);
+            final long c = (rnd.nextLong() >>> (1 + rnd.nextInt(63))) | 1L;
+            for (final RoundingMode rm : RoundingMode.values()) {
+                compare(a, b, c, rm);
+            }
+        }
+    }
+
+    @Test
+    public void testMidpointsAndPowersOfTen() throws Exception {
+        final long[] operands = { 0L, 1L, -1L, 5L, -5L, 15L, -25L, 999_999_999_999_999_999L, -999_999_999_999_999_999L,
+            Long.MAX_VALUE, Long.MIN_VALUE, 123_456_789_012_345_678L, -500_000_000_000_000_000L };
+        for (final long a : operands) {
+            for (final long b : operands) {
+                for (int scale = 0; scale <= 18; ++scale) {
+                    for (final RoundingMode rm : RoundingMode.values()) {
+                        compare(a, b, BigInteger.TEN.pow(scale).longValueExact(), rm);
+                        compare(a, b, 2L * BigInteger.TEN.pow(scale).longValueExact() + 1L, rm);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDivisionByZero() throws Exception {
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointNative.multdiv128Java(5L, 7L, 0L, RoundingMode.HALF_EVEN));
+    }
+
+    @Test
+    public void testNegativeDivisorWithMinValue() throws Exception {
+        Assertions.assertEquals(4611686018427387904L, FixedPointNative.mult_div(Long.MIN_VALUE, 1L, -2L, RoundingMode.UNNECESSARY));
+        Assertions.assertEquals(4611686018427387904L, FixedPointNative.mult_div(1L, Long.MIN_VALUE, -2L, RoundingMode.UNNECESSARY));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointNative.mult_div(Long.MIN_VALUE, 1L, -1L, RoundingMode.UNNECESSARY));
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointNative.mult_div(Long.MIN_VALUE, Long.MIN_VALUE, -1L, RoundingMode.DOWN));
+        Assertions.assertEquals(-1L, FixedPointNative.mult_div(Long.MIN_VALUE, -1L, Long.MIN_VALUE, RoundingMode.UNNECESSARY));
+        final long[] operands = { 1L, -1L, 3L, -7L, Long.MAX_VALUE, Long.MIN_VALUE, Long.MIN_VALUE + 1L };
+        for (final long a : operands) {
+            for (final long p : operands) {
+                for (final long q : new long[] { -1L, -2L, -3L, -1000L, Long.MIN_VALUE }) {
+                    for (final RoundingMode rm : RoundingMode.values()) {
+                        final String what = a + " * " + p + " / " + q + " with mode " + rm;
+                        BigDecimal expected;
+                        try {
+                            expected = new BigDecimal(BigInteger.valueOf(a).multiply(BigInteger.valueOf(p))).divide(BigDecimal.valueOf(q), 0, rm);
+                        } catch (final ArithmeticException e) {
+                            expected = null;
+                        }
+                        if (expected == null || expected.compareTo(LONG_MIN) < 0 || expected.compareTo(LONG_MAX) > 0) {
+                            Assertions.assertThrows(ArithmeticException.class, () -> FixedPointNative.mult_div(a, p, q, rm), what);
+                        } else {
+                            Assertions.assertEquals(expected.longValueExact(), FixedPointNative.mult_div(a, p, q, rm), what);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testRoundingCarryOverflow() throws Exception {
+        // (2^33 - 1) * (2^33 + 1) / 4 = 2^64 / 4 - 1 / 4 has the quotient 0xFFFFFFFFFFFFFFFF, rounding UP would wrap to 0
+        Assertions.assertThrows(ArithmeticException.class, () -> FixedPointNative.multdiv128Java((1L << 33) - 1L, (1L << 33) + 1L, 4L, RoundingMode.UP));
+        compare((1L << 33) - 1L, (1L << 33) + 1L, 4L, RoundingMode.UP);
+        compare((1L << 33) - 1L, -(1L << 33) - 1L, 4L, RoundingMode.FLOOR);
+    }
+}
@@ -1,8 +1,12 @@
 package de.jpaw.fixedpoint.tests;
 
+import java.math.RoundingMode;
+import java.util.Random;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import de.jpaw.fixedpoint.FixedPointBase;
 import de.jpaw.fixedpoint.types.Units;
 
 
@@ -40,4 +44,61 @@ public class TestRoundingDistribution {
         final long[] i = {   3,  1,  0,  1,  0,  0,  1,  0 };
         runTestScaleDown(h, i, 2);
     }
+
+    // the original O(n^2) selection of the elements to adjust, as a reference for the heap based implementation
+    private long[] referenceDistribution(long[] unscaledAmounts, long factor) {
+        final int n = unscaledAmounts.length;
+        final long[] scaledAmounts = new long[n];
+        long sum = 0;
+        for (int i = 0; i < n; ++i) {
+            scaledAmounts[i] = FixedPointBase.divide_longs(unscaledAmounts[i], factor, RoundingMode.HALF_EVEN);
+            if (i > 0)
+                sum += scaledAmounts[i];
+        }
+        long diff = scaledAmounts[0] - sum;
+        if (diff != 0) {
+            final long adjustment = diff > 0 ? 1 : -1;
+            final double[] relativeError = new double[n];
+            for (int i = 0; i < n; ++i) {
+                final long thisDiff = unscaledAmounts[i] - scaledAmounts[i] * factor;
+                relativeError[i] = (thisDiff * adjustment * (i > 0 ? 1 : -1) > 0)
+                  ? Math.abs(scaledAmounts[i] == 0 ? (double)unscaledAmounts[i] / (double)factor : (double)thisDiff / (double)unscaledAmounts[i])
+                  : 0.0;
+            }
+            while (diff != 0) {
+                double maxError = 0.0;
+                int pickedIndex = -1;
+                for (int i = 0; i < n; ++i) {
+                    if (relativeError[i] > maxError) {
+                        maxError = relativeError[i];
+                        pickedIndex = i;
+                    }
+                }
+                relativeError[pickedIndex] = 0.0;
+                scaledAmounts[pickedIndex] += pickedIndex > 0 ? adjustment : -adjustment;
+                diff -= adjustment;
+            }
+        }
+        return scaledAmounts;
+    }
+
+    @Test
+    public void testRandomVectorsAgainstReference() throws Exception {
+        final Random rnd = new Random(4711L);
+        for (int test = 0; test < 500; ++test) {
+            final int n = 2 + rnd.nextInt(200);
+            final long[] unscaled = new long[n];
+            long sum = 0;
+            for (int i = 1; i < n; ++i) {
+                unscaled[i] = rnd.nextInt(test % 2 == 0 ? 1000 : 100) - (test % 3 == 0 ? 30 : 0);  // small amounts produce many ties
+                sum += unscaled[i];
+            }
+            unscaled[0] = sum;
+            final long[] expected = referenceDistribution(unscaled, 100L);
+            Assertions.assertArrayEquals(expected, Units.ZERO.roundWithErrorDistribution(unscaled, 2), "Test " + test);
+            final long[] output = new long[n];
+            Units.ZERO.roundWithErrorDistribution(unscaled, 2, output);
+            Assertions.assertArrayEquals(expected, output, "Test " + test + " (provided output)");
+        }
+    }
 }
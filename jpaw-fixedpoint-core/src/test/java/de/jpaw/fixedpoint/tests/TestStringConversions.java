@@ -1,5 +1,8 @@
 package de.jpaw.fixedpoint.tests;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -8,6 +11,8 @@ import de.jpaw.fixedpoint.types.Hundreds;
 import de.jpaw.fixedpoint.types.MilliUnits;
 import de.jpaw.fixedpoint.types.Units;
 import de.jpaw.fixedpoint.types.VariableUnits;
+import de.jpaw.util.ByteArray;
+import de.jpaw.util.ByteBuilder;
 
 
 public class TestStringConversions {
@@ -80,6 +85,78 @@ public class TestStringConversions {
     }
 
 
+    // parse the same cases, but from sections of a CharSequence, a byte array, and a ByteArray
+    @Test
+    public void testParseFromRanges() throws Exception {
+        for (int i = 0; i < testCasesParse.length; ++i) {
+            final TestCase t = testCasesParse[i];
+            final StringBuilder sb = new StringBuilder("x;").append(t.stringRep).append(";1");
+            final byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+            final ByteArray ba = ByteArray.fromString(t.stringRep);
+            final int len = t.stringRep.length();
+            if (t.data != null) {
+                Assertions.assertEquals(t.data, MilliUnits.valueOf(sb, 2, len), "CharSequence, case " + i);
+                Assertions.assertEquals(t.data, MilliUnits.valueOf(bytes, 2, len), "byte[], case " + i);
+                Assertions.assertEquals(t.data, MilliUnits.valueOf(ba), "ByteArray, case " + i);
+            } else {
+                Assertions.assertThrows(NumberFormatException.class, () -> MilliUnits.valueOf(sb, 2, len), "CharSequence, case " + i);
+                Assertions.assertThrows(NumberFormatException.class, () -> MilliUnits.valueOf(bytes, 2, len), "byte[], case " + i);
+                Assertions.assertThrows(NumberFormatException.class, () -> MilliUnits.valueOf(ba), "ByteArray, case " + i);
+            }
+        }
+        final byte[] bytes = "19.80;-0.5;12".getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertEquals(VariableUnits.valueOf("19.80"), VariableUnits.valueOf(bytes, 0, 5));
+        Assertions.assertEquals(VariableUnits.valueOf("-0.5"), VariableUnits.valueOf("19.80;-0.5;12", 6, 4));
+        Assertions.assertEquals(VariableUnits.valueOf("12"), VariableUnits.valueOf(ByteArray.wrap(bytes).subArray(11, 2)));
+    }
+
+    @Test
+    public void testParseLimits() throws Exception {
+        Assertions.assertEquals(Long.MAX_VALUE, Units.valueOf("9223372036854775807").getMantissa());
+        Assertions.assertEquals(Long.MIN_VALUE, Units.valueOf("-9223372036854775808").getMantissa());
+        Assertions.assertEquals(-999_999_999_999_999_999L, MilliUnits.valueOf("-999999999999999.999").getMantissa());
+        Assertions.assertThrows(NumberFormatException.class, () -> Units.valueOf("9223372036854775808"));
+        Assertions.assertThrows(NumberFormatException.class, () -> MilliUnits.valueOf("9223372036854776"));
+        Assertions.assertThrows(NumberFormatException.class, () -> MilliUnits.valueOf("."));
+        Assertions.assertThrows(NumberFormatException.class, () -> MilliUnits.valueOf("1.2.3"));
+        Assertions.assertThrows(NumberFormatException.class, () -> MilliUnits.valueOf(""));
+    }
+
+    // output to ByteBuilder and Appendable must be identical to the StringBuilder based output
+    @Test
+    public void testAppendToByteBuilder() throws Exception {
+        final long[] mantissas = { 0L, 1L, -1L, 7L, 10L, -100L, 123_456L, -5_000_000L, 999_999_999_999_999_999L, 1_000_000_000_000_000_000L,
+            Long.MAX_VALUE, Long.MIN_VALUE + 1L, -12_000_000_000L, 50_000_000_001L };
+        final ByteBuilder bb = new ByteBuilder(4, null);
+        final StringBuilder sb = new StringBuilder();
+        for (final long m : mantissas) {
+            for (int scale = 0; scale <= 18; ++scale) {
+                for (int minDigits = 0; minDigits <= 20; ++minDigits) {
+                    final StringBuilder expected = new StringBuilder();
+                    FixedPointBase.append(expected, m, scale, minDigits);
+                    bb.setLength(0);
+                    FixedPointBase.append(bb, m, scale, minDigits);
+                    sb.setLength(0);
+                    FixedPointBase.append((Appendable)sb, m, scale, minDigits);
+                    final String what = "mantissa " + m + ", scale " + scale + ", minDigits " + minDigits;
+                    Assertions.assertEquals(expected.toString(), bb.toString(), what);
+                    Assertions.assertEquals(expected.toString(), sb.toString(), what);
+                }
+            }
+        }
+        bb.setLength(0);
+        Hundreds.of(-1980).appendTo(bb);
+        Assertions.assertEquals("-19.8", bb.toString());
+        bb.setLength(0);
+        FixedPointBase.append(bb, Long.MIN_VALUE, 4, 0);
+        Assertions.assertEquals(BigDecimal.valueOf(Long.MIN_VALUE, 4).toPlainString(), bb.toString());
+        for (int scale = 0; scale <= 18; ++scale) {
+            sb.setLength(0);
+            FixedPointBase.append((Appendable)sb, Long.MIN_VALUE, scale, 0);
+            Assertions.assertEquals(BigDecimal.valueOf(Long.MIN_VALUE, scale).toPlainString(), sb.toString(), "scale " + scale);
+        }
+    }
+
     @Test
     public void testVariableConversions() throws Exception {
         Assertions.assertEquals(2, VariableUnits.valueOf("19.80").scale());
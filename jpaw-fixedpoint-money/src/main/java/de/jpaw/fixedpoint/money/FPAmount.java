@@ -43,6 +43,19 @@ public final class FPAmount implements Serializable {
         return result;
     }
 
+    /** Returns the number of components of the breakdown, or 0 if there is none. */
+    public int componentCount() {
+        return amounts.length;
+    }
+    /** Returns the component of the breakdown at the given index, without boxing. */
+    public long getAmount(int index) {
+        return amounts[index];
+    }
+    /** Copies the components of the breakdown into the provided array, which must have at least componentCount() elements. */
+    public void copyAmountsTo(long[] dst) {
+        System.arraycopy(amounts, 0, dst, 0, amounts.length);
+    }
+
 
     private static void validate(long gross, long[] amounts) {
         for (int i = 0; i < amounts.length; ++i) {
@@ -0,0 +1,138 @@
+package de.jpaw.fixedpoint.money;
+
+import de.jpaw.fixedpoint.FixedPointBase;
+
+/** Mutable accumulator for amounts of a given currency and number of components (for example net + taxes).
+ * Sums are computed in place, an immutable <code>FPAmount</code> is created only when the result is requested.
+ * Operands must have the same currency and number of components, as for <code>FPAmount.add()</code>.
+ * All operations check for overflow and throw an ArithmeticException if a sum no longer fits into a long.
+ *
+ * Instances of this class are not thread safe. */
+public final class FPAmountAccumulator {
+    private final FPCurrency currency;
+    private final long[] amounts;      // partial amounts - net + taxes
+    private long gross;
+
+    /** Creates an accumulator for the given currency and number of components, with an initial value of 0. */
+    public FPAmountAccumulator(FPCurrency currency, int componentCount) {
+        if (currency == null)
+            throw new NullPointerException("currency must be non-null");
+        this.currency = currency;
+        this.amounts = new long[componentCount];
+        this.gross = 0;
+    }
+
+    /** Creates an accumulator for the currency and number of components of the provided amount, with an initial value of 0. */
+    public FPAmountAccumulator(FPAmount reference) {
+        this(reference.getCurrency(), reference.componentCount());
+    }
+
+    public FPCurrency getCurrency() {
+        return currency;
+    }
+    public long getGross() {
+        return gross;
+    }
+    public int componentCount() {
+        return amounts.length;
+    }
+    public long getAmount(int index) {
+        return amounts[index];
+    }
+
+    /** Resets the sums to 0, allowing to reuse the instance. */
+    public FPAmountAccumulator reset() {
+        gross = 0;
+        for (int i = 0; i < amounts.length; ++i) {
+            amounts[i] = 0;
+        }
+        return this;
+    }
+
+    private void checkMatchingType(FPCurrency thatCurrency, int thatComponentCount) {
+        if (!currency.equals(thatCurrency))
+            throw new IllegalArgumentException("Currencies don't match");
+        if (amounts.length != thatComponentCount)
+            throw new IllegalArgumentException("Number of components don't match (this=" + amounts.length + ", that=" + thatComponentCount + ")");
+    }
+
+    /** Adds an amount. */
+    public FPAmountAccumulator add(FPAmount that) {
+        checkMatchingType(that.getCurrency(), that.componentCount());
+        gross = Math.addExact(gross, that.getGross());
+        for (int i = 0; i < amounts.length; ++i) {
+            amounts[i] = Math.addExact(amounts[i], that.getAmount(i));
+        }
+        return this;
+    }
+
+    /** Subtracts an amount. */
+    public FPAmountAccumulator subtract(FPAmount that) {
+        checkMatchingType(that.getCurrency(), that.componentCount());
+        gross = Math.subtractExact(gross, that.getGross());
+        for (int i = 0; i < amounts.length; ++i) {
+            amounts[i] = Math.subtractExact(amounts[i], that.getAmount(i));
+        }
+        return this;
+    }
+
+    /** Adds an amount multiplied by an integral factor, for example a line amount times a quantity. */
+    public FPAmountAccumulator addProduct(FPAmount that, long factor) {
+        checkMatchingType(that.getCurrency(), that.componentCount());
+        gross = Math.addExact(gross, Math.multiplyExact(that.getGross(), factor));
+        for (int i = 0; i < amounts.length; ++i) {
+            amounts[i] = Math.addExact(amounts[i], Math.multiplyExact(that.getAmount(i), factor));
+        }
+        return this;
+    }
+
+    /** Adds the current sums of another accumulator. */
+    public FPAmountAccumulator add(FPAmountAccumulator that) {
+        checkMatchingType(that.currency, that.amounts.length);
+        gross = Math.addExact(gross, that.gross);
+        for (int i = 0; i < amounts.length; ++i) {
+            amounts[i] = Math.addExact(amounts[i], that.amounts[i]);
+        }
+        return this;
+    }
+
+    /** Multiplies the current sums by an integral factor. */
+    public FPAmountAccumulator multiply(int factor) {
+        gross = Math.multiplyExact(gross, factor);
+        for (int i = 0; i < amounts.length; ++i) {
+            amounts[i] = Math.multiplyExact(amounts[i], factor);
+        }
+        return this;
+    }
+
+    /** Negates the current sums. */
+    public FPAmountAccumulator negate() {
+        gross = Math.negateExact(gross);
+        for (int i = 0; i < amounts.length; ++i) {
+            amounts[i] = Math.negateExact(amounts[i]);
+        }
+        return this;
+    }
+
+    /** Returns the current sums as an immutable amount. The accumulator can be used further. */
+    public FPAmount result() {
+        return new FPAmount(currency, gross, amounts);
+    }
+
+    /** Prints the sums in the same form as <code>FPAmount.toString()</code>. */
+    @Override
+    public String toString() {
+        final int targetScale = currency.getZero().scale();
+        StringBuilder sb = new StringBuilder(100);
+        FixedPointBase.append(sb, gross, targetScale);
+        sb.append(' ');
+        sb.append(currency);
+        for (int i = 0; i < amounts.length; ++i) {
+            sb.append(i == 0 ? " [" : ", ");
+            FixedPointBase.append(sb, amounts[i], targetScale);
+        }
+        if (amounts.length > 0)
+            sb.append(']');
+        return sb.toString();
+    }
+}
@@ -0,0 +1,78 @@
+package de.jpaw.fixedpoint.money;
+
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/** Collectors to aggregate streams of amounts.
+ * The sums are computed in mutable containers per thread, which are combined at the end, therefore no objects are allocated per element,
+ * and the collectors work efficiently with parallel streams.
+ * All elements must have the same currency and number of components as the reference amount passed in, as for <code>FPAmount.add()</code>. */
+public final class FPAmountCollectors {
+    private FPAmountCollectors() { }
+
+    /** Mutable container for the sum and the number of amounts. */
+    static final class Sum {
+        private final FPAmount reference;
+        private final FPAmountAccumulator sum;
+        private long count = 0;
+
+        Sum(FPAmount reference) {
+            this.reference = reference;
+            this.sum = new FPAmountAccumulator(reference);
+        }
+
+        void accept(FPAmount that) {
+            sum.add(that);
+            ++count;
+        }
+
+        Sum combine(Sum that) {
+            sum.add(that.sum);
+            count += that.count;
+            return this;
+        }
+
+        FPAmount sum() {
+            return sum.result();
+        }
+
+        FPAmount average(RoundingMode rounding) {
+            if (count == 0)
+                return reference.zero();
+            return sum.result().multiply(1L, count, rounding);
+        }
+    }
+
+    /** Returns a collector which computes the sum of amounts. The sum of no elements is zero, with the currency and components of the reference. */
+    public static Collector<FPAmount, ?, FPAmount> summing(FPAmount reference) {
+        return Collector.of(
+            () -> new Sum(reference),
+            Sum::accept,
+            Sum::combine,
+            Sum::sum,
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /** Returns a collector which computes the average of amounts, rounding as for <code>FPAmount.multiply(p, q, rounding)</code>. */
+    public static Collector<FPAmount, ?, FPAmount> averaging(FPAmount reference, RoundingMode rounding) {
+        return Collector.of(
+            () -> new Sum(reference),
+            Sum::accept,
+            Sum::combine,
+            sum -> sum.average(rounding),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /** Returns a collector which determines the amount of the smallest gross value. */
+    public static Collector<FPAmount, ?, Optional<FPAmount>> minimumByGross() {
+        return Collectors.minBy(Comparator.comparingLong(FPAmount::getGross));
+    }
+
+    /** Returns a collector which determines the amount of the biggest gross value. */
+    public static Collector<FPAmount, ?, Optional<FPAmount>> maximumByGross() {
+        return Collectors.maxBy(Comparator.comparingLong(FPAmount::getGross));
+    }
+}
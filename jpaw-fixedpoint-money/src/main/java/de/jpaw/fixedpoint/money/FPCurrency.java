@@ -1,9 +1,10 @@
 package de.jpaw.fixedpoint.money;
 
 import java.io.Serializable;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import de.jpaw.api.iso.CurrencyData;
+import de.jpaw.api.iso.CurrencyKeyConverter;
 import de.jpaw.fixedpoint.FixedPointBase;
 import de.jpaw.fixedpoint.FixedPointSelector;
 import de.jpaw.fixedpoint.types.MicroUnits;
@@ -15,9 +16,11 @@ import de.jpaw.fixedpoint.types.MicroUnits;
 public final class FPCurrency implements Serializable {
     private static final long serialVersionUID = -626929186120783201L;
 
-    /** A cache for frequently used precisions, to avoid GC due to frequently created objects... */
-    private static final ConcurrentHashMap<CurrencyData, FPCurrency> precisionCacheStd = new ConcurrentHashMap<CurrencyData, FPCurrency>(64);
-    private static final ConcurrentHashMap<CurrencyData, FPCurrency> precisionCacheMicros = new ConcurrentHashMap<CurrencyData, FPCurrency>(64);
+    /** A cache for frequently used precisions, to avoid GC due to frequently created objects...
+     * Indexed by the code of <code>CurrencyKeyConverter.currencyCodeA3ToInt()</code>. Entries are valid for the canonical CurrencyData instances
+     * as returned by the currency providers, or instances which provide the same number of decimals. */
+    private static final AtomicReferenceArray<FPCurrency> precisionCacheStd = new AtomicReferenceArray<FPCurrency>(CurrencyKeyConverter.CODE_LIMIT);
+    private static final AtomicReferenceArray<FPCurrency> precisionCacheMicros = new AtomicReferenceArray<FPCurrency>(CurrencyKeyConverter.CODE_LIMIT);
 
     /** The currency's feature provider. */
     private final CurrencyData currency;
@@ -58,32 +61,29 @@ public final class FPCurrency implements Serializable {
         return microsPrecisionOf(currency);
     }
 
+    /** Returns the cached instance for a currency, or creates and caches a new one. */
+    private static FPCurrency cachedOf(AtomicReferenceArray<FPCurrency> cache, CurrencyData currency, boolean micros) {
+        final int code = CurrencyKeyConverter.currencyCodeA3ToInt(currency.getCurrencyCode());
+        if (code <= 0)
+            return micros ? new FPCurrency(currency, MicroUnits.ZERO) : new FPCurrency(currency);     // not cacheable
+        FPCurrency result = cache.get(code);
+        if (result != null && (result.currency == currency || result.currency.getDefaultFractionDigits() == currency.getDefaultFractionDigits()))
+            return result;
+        final FPCurrency created = micros ? new FPCurrency(currency, MicroUnits.ZERO) : new FPCurrency(currency);
+        if (result != null)
+            return created;     // entry is occupied by an incompatible instance from a different provider
+        // accepted race condition: parallel creation of objects. However, all calls should return the same instance.
+        return cache.compareAndSet(code, null, created) ? created : cachedOf(cache, currency, micros);
+    }
+
     /** Returns a possibly cached instance for a currency. */
     public static FPCurrency stdPrecisionOf(CurrencyData currency) {
-        FPCurrency result = precisionCacheStd.get(currency);
-        if (result == null) {
-            // no previously cached result,
-            result = new FPCurrency(currency);
-            FPCurrency result2 = precisionCacheStd.putIfAbsent(currency, result);
-            // accepted race condition: parallel creation of objects. However, all calls should return the same instance.
-            if (result2 != null)
-                result = result2;
-        }
-        return result;
+        return cachedOf(precisionCacheStd, currency, false);
     }
 
     /** Returns a possibly cached instance for a currency. */
     public static FPCurrency microsPrecisionOf(CurrencyData currency) {
-        FPCurrency result = precisionCacheMicros.get(currency);
-        if (result == null) {
-            // no previously cached result,
-            result = new FPCurrency(currency, MicroUnits.ZERO);
-            FPCurrency result2 = precisionCacheMicros.putIfAbsent(currency, result);
-            // accepted race condition: parallel creation of objects. However, all calls should return the same instance.
-            if (result2 != null)
-                result = result2;
-        }
-        return result;
+        return cachedOf(precisionCacheMicros, currency, true);
     }
 
     @Override
@@ -0,0 +1,48 @@
+package de.jpaw.fixedpoint.money;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/** Holder of the current exchange rates.
+ * Readers obtain the current immutable snapshot without locking, and should use the same snapshot for all conversions which must be consistent.
+ * Updates replace the snapshot atomically, therefore readers never see a partially updated set of rates. */
+public final class FPExchangeRateTable {
+    private final AtomicReference<FPExchangeRates> current;
+
+    /** Creates a table without any rates. */
+    public FPExchangeRateTable() {
+        this(FPExchangeRates.EMPTY);
+    }
+
+    /** Creates a table with an initial snapshot. */
+    public FPExchangeRateTable(FPExchangeRates initial) {
+        if (initial == null)
+            throw new NullPointerException("initial rates must be non-null");
+        current = new AtomicReference<FPExchangeRates>(initial);
+    }
+
+    /** Returns the current snapshot. */
+    public FPExchangeRates snapshot() {
+        return current.get();
+    }
+
+    /** Replaces the current snapshot, for example by a set of rates loaded from an external source. */
+    public void publish(FPExchangeRates rates) {
+        if (rates == null)
+            throw new NullPointerException("rates must be non-null");
+        current.set(rates);
+    }
+
+    /** Applies changes to a copy of the current snapshot and publishes the result. Concurrent updates are retried, therefore none is lost.
+     * Returns the published snapshot. */
+    public FPExchangeRates update(Consumer<FPExchangeRates.Builder> changes) {
+        for (;;) {
+            final FPExchangeRates base = current.get();
+            final FPExchangeRates.Builder b = base.toBuilder();
+            changes.accept(b);
+            final FPExchangeRates next = b.build();
+            if (current.compareAndSet(base, next))
+                return next;
+        }
+    }
+}
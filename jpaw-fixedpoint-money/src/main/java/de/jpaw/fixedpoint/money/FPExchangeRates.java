@@ -0,0 +1,220 @@
+package de.jpaw.fixedpoint.money;
+
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.jpaw.api.iso.CurrencyKeyConverter;
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointNative;
+
+/** An immutable snapshot of exchange rates, keyed by the int codes of <code>CurrencyKeyConverter.currencyCodeA3ToInt()</code>.
+ * For every currency pair, the rate is stored premultiplied with the difference of the decimals of the two currencies,
+ * such that a conversion is a single multiplication and (if required) a scaling with rounding HALF_EVEN, as for <code>FPAmount.convert()</code>.
+ * Each currency code is registered with a single <code>FPCurrency</code>, which defines the number of decimals of the amounts.
+ * Instances are created via a {@link Builder}, and are published via {@link FPExchangeRateTable}. */
+public final class FPExchangeRates {
+    /** A snapshot without any rates. */
+    public static final FPExchangeRates EMPTY = new Builder().build();
+
+    private final int[] slotByCode;             // index by currency int code, 1 + index into currencies, or 0 if not registered
+    private final FPCurrency[] currencies;
+    private final long[] factorMantissas;       // by fromSlot * n + toSlot, 0 if no rate exists
+    private final int[] factorScales;           // number of decimals to scale down after multiplication
+    private final Map<Long, FixedPointBase<?>> rates;  // original rates, for toBuilder()
+
+    private FPExchangeRates(Map<Integer, FPCurrency> currencyMap, Map<Long, FixedPointBase<?>> rates) {
+        int maxCode = 0;
+        for (Integer code : currencyMap.keySet()) {
+            if (code > maxCode)
+                maxCode = code;
+        }
+        slotByCode = new int[maxCode + 1];
+        currencies = new FPCurrency[currencyMap.size()];
+        int slot = 0;
+        for (Map.Entry<Integer, FPCurrency> e : currencyMap.entrySet()) {
+            currencies[slot] = e.getValue();
+            slotByCode[e.getKey()] = ++slot;
+        }
+        final int n = currencies.length;
+        factorMantissas = new long[n * n];
+        factorScales = new int[n * n];
+        for (Map.Entry<Long, FixedPointBase<?>> e : rates.entrySet()) {
+            final int fromSlot = slotByCode[(int)(e.getKey() >>> 32)] - 1;
+            final int toSlot = slotByCode[(int)e.getKey().longValue()] - 1;
+            final FixedPointBase<?> rate = e.getValue();
+            final int index = fromSlot * n + toSlot;
+            // same computation as in FPAmount.convert(), done once per pair
+            final int factorScale = rate.scale() - currencies[toSlot].getDecimals() + currencies[fromSlot].getDecimals();
+            if (factorScale <= 0) {
+                factorMantissas[index] = Math.multiplyExact(rate.getMantissa(), FixedPointBase.getPowerOfTen(-factorScale));
+                factorScales[index] = 0;
+            } else if (factorScale > 18) {
+                throw new IllegalArgumentException("Exchange rate " + rate + " from " + currencies[fromSlot] + " to " + currencies[toSlot] + " has too many decimals");
+            } else {
+                factorMantissas[index] = rate.getMantissa();
+                factorScales[index] = factorScale;
+            }
+        }
+        this.rates = rates;
+    }
+
+    private int slotOf(int code) {
+        return code > 0 && code < slotByCode.length ? slotByCode[code] - 1 : -1;
+    }
+
+    /** Returns the index of the factor for a currency pair, or throws an IllegalArgumentException if no rate exists. */
+    private int factorIndex(int fromCode, int toCode) {
+        final int fromSlot = slotOf(fromCode);
+        final int toSlot = slotOf(toCode);
+        if (fromSlot >= 0 && toSlot >= 0) {
+            final int index = fromSlot * currencies.length + toSlot;
+            if (factorMantissas[index] != 0)
+                return index;
+        }
+        throw new IllegalArgumentException("No exchange rate from " + CurrencyKeyConverter.intToCurrencyCodeA3(fromCode)
+          + " to " + CurrencyKeyConverter.intToCurrencyCodeA3(toCode));
+    }
+
+    private long convert(long mantissa, int index) {
+        final long factorMantissa = factorMantissas[index];
+        final int factorScale = factorScales[index];
+        return factorScale == 0 ? Math.multiplyExact(mantissa, factorMantissa)
+          : FixedPointNative.multiply_and_scale(mantissa, factorMantissa, factorScale, RoundingMode.HALF_EVEN);
+    }
+
+    /** Returns the currency registered for a code, or null. */
+    public FPCurrency getCurrency(int code) {
+        final int slot = slotOf(code);
+        return slot >= 0 ? currencies[slot] : null;
+    }
+
+    /** Returns true if an amount can be converted between the two currencies. */
+    public boolean hasRate(int fromCode, int toCode) {
+        if (fromCode == toCode)
+            return slotOf(fromCode) >= 0;
+        final int fromSlot = slotOf(fromCode);
+        final int toSlot = slotOf(toCode);
+        return fromSlot >= 0 && toSlot >= 0 && factorMantissas[fromSlot * currencies.length + toSlot] != 0;
+    }
+
+    /** Converts the mantissa of an amount in the source currency into the mantissa in the target currency. */
+    public long convert(long mantissa, int fromCode, int toCode) {
+        if (fromCode == toCode && slotOf(fromCode) >= 0)
+            return mantissa;
+        return convert(mantissa, factorIndex(fromCode, toCode));
+    }
+
+    /** Converts a column of mantissas of the same source currency. Source and result may be the same array. */
+    public void convert(long[] mantissas, int fromCode, int toCode, long[] result) {
+        if (result.length < mantissas.length)
+            throw new IllegalArgumentException("Result column too small: " + result.length + " < " + mantissas.length);
+        if (fromCode == toCode && slotOf(fromCode) >= 0) {
+            System.arraycopy(mantissas, 0, result, 0, mantissas.length);
+            return;
+        }
+        final int index = factorIndex(fromCode, toCode);
+        final long factorMantissa = factorMantissas[index];
+        final int factorScale = factorScales[index];
+        if (factorScale == 0) {
+            for (int i = 0; i < mantissas.length; ++i) {
+                result[i] = Math.multiplyExact(mantissas[i], factorMantissa);
+            }
+        } else {
+            for (int i = 0; i < mantissas.length; ++i) {
+                result[i] = FixedPointNative.multiply_and_scale(mantissas[i], factorMantissa, factorScale, RoundingMode.HALF_EVEN);
+            }
+        }
+    }
+
+    /** Converts a column of mantissas of different source currencies, provided as a parallel column of currency codes, into a single target currency. */
+    public void convert(long[] mantissas, int[] fromCodes, int toCode, long[] result) {
+        if (fromCodes.length != mantissas.length || result.length < mantissas.length)
+            throw new IllegalArgumentException("Column sizes don't match");
+        int lastFromCode = -1;
+        int index = -1;
+        for (int i = 0; i < mantissas.length; ++i) {
+            final int fromCode = fromCodes[i];
+            if (fromCode == toCode && slotOf(fromCode) >= 0) {
+                result[i] = mantissas[i];
+                continue;
+            }
+            if (fromCode != lastFromCode) {
+                index = factorIndex(fromCode, toCode);   // source currencies are usually clustered, avoid repeated lookups
+                lastFromCode = fromCode;
+            }
+            result[i] = convert(mantissas[i], index);
+        }
+    }
+
+    /** Converts an amount into the currency registered for the target code. The gross amount of a breakdown is the sum of the converted components. */
+    public FPAmount convert(FPAmount amount, int toCode) {
+        final int fromCode = CurrencyKeyConverter.currencyCodeA3ToInt(amount.getCurrency().getCurrencyCode());
+        if (fromCode == toCode && amount.getCurrency().equals(getCurrency(fromCode)))
+            return amount;
+        final int index = factorIndex(fromCode, toCode);
+        final FPCurrency target = getCurrency(toCode);
+        final int n = amount.componentCount();
+        if (n == 0)
+            return new FPAmount(target, convert(amount.getGross(), index));
+        final long[] components = new long[n];
+        long gross = 0;
+        for (int i = 0; i < n; ++i) {
+            components[i] = convert(amount.getAmount(i), index);
+            gross = Math.addExact(gross, components[i]);
+        }
+        return new FPAmount(target, gross, components);
+    }
+
+    /** Returns a builder which is initialized with the currencies and rates of this snapshot. */
+    public Builder toBuilder() {
+        final Builder b = new Builder();
+        for (FPCurrency c : currencies) {
+            b.addCurrency(c);
+        }
+        b.rates.putAll(rates);
+        return b;
+    }
+
+    /** Builder for exchange rate snapshots. Instances of this class are not thread safe. */
+    public static final class Builder {
+        private final Map<Integer, FPCurrency> currencies = new HashMap<Integer, FPCurrency>();
+        private final Map<Long, FixedPointBase<?>> rates = new HashMap<Long, FixedPointBase<?>>();
+
+        private static int codeOf(FPCurrency currency) {
+            final int code = CurrencyKeyConverter.currencyCodeA3ToInt(currency.getCurrencyCode());
+            if (code <= 0)
+                throw new IllegalArgumentException("Currency code " + currency.getCurrencyCode() + " is not a valid ISO 4217 code");
+            return code;
+        }
+
+        /** Registers a currency. Each currency code can be registered with a single precision only. */
+        public Builder addCurrency(FPCurrency currency) {
+            final FPCurrency previous = currencies.putIfAbsent(codeOf(currency), currency);
+            if (previous != null && !previous.equals(currency))
+                throw new IllegalArgumentException("Currency " + currency.getCurrencyCode() + " is already registered as " + previous);
+            return this;
+        }
+
+        /** Sets the rate to convert amounts from one currency into another one. The currencies are registered if required. */
+        public Builder setRate(FPCurrency from, FPCurrency to, FixedPointBase<?> rate) {
+            if (rate.isZero())
+                throw new IllegalArgumentException("Exchange rate must not be zero");
+            addCurrency(from);
+            addCurrency(to);
+            rates.put(((long)codeOf(from) << 32) | codeOf(to), rate);
+            return this;
+        }
+
+        /** Removes the rate for a currency pair. */
+        public Builder removeRate(FPCurrency from, FPCurrency to) {
+            rates.remove(((long)codeOf(from) << 32) | codeOf(to));
+            return this;
+        }
+
+        /** Creates an immutable snapshot. */
+        public FPExchangeRates build() {
+            return new FPExchangeRates(currencies, new HashMap<Long, FixedPointBase<?>>(rates));
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package de.jpaw.fixedpoint.money;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointNative;
+
+/** A table of tax rates, for the bulk computation of gross and net amounts of line items stored as columns (parallel arrays of mantissas).
+ * Each line item refers to a single rate by its index into the table.
+ * The results are the same as those of <code>FPAmount.netToGross()</code> and <code>FPAmount.grossToNet()</code> with a list of one tax rate,
+ * i.e. taxes are rounded HALF_EVEN, and the net amount computed from a gross amount absorbs the rounding difference.
+ * Instances of this class are immutable. */
+public final class FPTaxTable {
+    /** The minimum number of line items per fork join task. */
+    private static final int PARALLEL_THRESHOLD = 8192;
+
+    private final long[] rateMantissas;         // tax rates
+    private final int[] rateScales;             // scales of the tax rates
+    private final long[] onePlusRateMantissas;  // 1 + tax rate, in the scale of the rate
+
+    /** Creates a table from a list of tax rates. The position in the list defines the index of the rate. */
+    public FPTaxTable(List<? extends FixedPointBase<?>> rates) {
+        final int n = rates.size();
+        rateMantissas = new long[n];
+        rateScales = new int[n];
+        onePlusRateMantissas = new long[n];
+        for (int i = 0; i < n; ++i) {
+            FixedPointBase<?> rate = rates.get(i);
+            rateMantissas[i] = rate.getMantissa();
+            rateScales[i] = rate.scale();
+            onePlusRateMantissas[i] = Math.addExact(rate.getUnitAsLong(), rate.getMantissa());
+            if (onePlusRateMantissas[i] == 0)
+                throw new IllegalArgumentException("Tax rate -1 at index " + i + " does not allow to compute net from gross amounts");
+        }
+    }
+
+    /** Returns the number of rates in the table. */
+    public int size() {
+        return rateMantissas.length;
+    }
+
+    private static void checkSizes(long[] source, int[] rateIndex, long[] target, long[] tax, int from, int to) {
+        if (rateIndex.length != source.length || target.length != source.length || tax.length != source.length)
+            throw new IllegalArgumentException("Column sizes don't match");
+        if (from < 0 || from > to || to > source.length)
+            throw new IndexOutOfBoundsException("Range [" + from + ", " + to + ") for columns of size " + source.length);
+    }
+
+    private void netToGrossRange(long[] net, int[] rateIndex, long[] gross, long[] tax, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            final int r = rateIndex[i];
+            final long ta = FixedPointNative.multiply_and_scale(net[i], rateMantissas[r], rateScales[r], RoundingMode.HALF_EVEN);
+            tax[i] = ta;
+            gross[i] = net[i] + ta;
+        }
+    }
+
+    private void grossToNetRange(long[] gross, int[] rateIndex, long[] net, long[] tax, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            final int r = rateIndex[i];
+            final long ta = FixedPointNative.mult_div(gross[i], rateMantissas[r], onePlusRateMantissas[r], RoundingMode.HALF_EVEN);
+            tax[i] = ta;
+            net[i] = gross[i] - ta;
+        }
+    }
+
+    /** Computes tax and gross amounts for the line items in range [from, to). */
+    public void netToGross(long[] net, int[] rateIndex, long[] gross, long[] tax, int from, int to) {
+        checkSizes(net, rateIndex, gross, tax, from, to);
+        netToGrossRange(net, rateIndex, gross, tax, from, to);
+    }
+
+    /** Computes tax and gross amounts for all line items. */
+    public void netToGross(long[] net, int[] rateIndex, long[] gross, long[] tax) {
+        netToGross(net, rateIndex, gross, tax, 0, net.length);
+    }
+
+    /** Computes tax and gross amounts for all line items, splitting the work across the threads of the pool. */
+    public void netToGross(long[] net, int[] rateIndex, long[] gross, long[] tax, ForkJoinPool pool) {
+        checkSizes(net, rateIndex, gross, tax, 0, net.length);
+        pool.invoke(new BulkTask(true, net, rateIndex, gross, tax, 0, net.length));
+    }
+
+    /** Computes tax and net amounts for the line items in range [from, to). */
+    public void grossToNet(long[] gross, int[] rateIndex, long[] net, long[] tax, int from, int to) {
+        checkSizes(gross, rateIndex, net, tax, from, to);
+        grossToNetRange(gross, rateIndex, net, tax, from, to);
+    }
+
+    /** Computes tax and net amounts for all line items. */
+    public void grossToNet(long[] gross, int[] rateIndex, long[] net, long[] tax) {
+        grossToNet(gross, rateIndex, net, tax, 0, gross.length);
+    }
+
+    /** Computes tax and net amounts for all line items, splitting the work across the threads of the pool. */
+    public void grossToNet(long[] gross, int[] rateIndex, long[] net, long[] tax, ForkJoinPool pool) {
+        checkSizes(gross, rateIndex, net, tax, 0, gross.length);
+        pool.invoke(new BulkTask(false, gross, rateIndex, net, tax, 0, gross.length));
+    }
+
+    /** Fork join task which splits the range of line items until it is small enough to be processed sequentially. */
+    private final class BulkTask extends RecursiveAction {
+        private static final long serialVersionUID = 4471965063416322014L;
+
+        private final boolean toGross;
+        private final long[] source;
+        private final int[] rateIndex;
+        private final long[] target;
+        private final long[] tax;
+        private final int from;
+        private final int to;
+
+        BulkTask(boolean toGross, long[] source, int[] rateIndex, long[] target, long[] tax, int from, int to) {
+            this.toGross = toGross;
+            this.source = source;
+            this.rateIndex = rateIndex;
+            this.target = target;
+            this.tax = tax;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                if (toGross)
+                    netToGrossRange(source, rateIndex, target, tax, from, to);
+                else
+                    grossToNetRange(source, rateIndex, target, tax, from, to);
+                return;
+            }
+            final int mid = (from + to) >>> 1;
+            invokeAll(new BulkTask(toGross, source, rateIndex, target, tax, from, mid),
+                      new BulkTask(toGross, source, rateIndex, target, tax, mid, to));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package de.jpaw.fixedpoint.money.tests;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.api.iso.impl.JavaCurrencyDataProvider;
+import de.jpaw.fixedpoint.money.FPAmount;
+import de.jpaw.fixedpoint.money.FPAmountAccumulator;
+import de.jpaw.fixedpoint.money.FPCurrency;
+
+public class TestAccumulator {
+
+    @Test
+    public void testInvoiceLines() throws Exception {
+        FPCurrency euro = new FPCurrency(JavaCurrencyDataProvider.INSTANCE.get("EUR"));
+        FPCurrency dollar = new FPCurrency(JavaCurrencyDataProvider.INSTANCE.get("USD"));
+        FPAmount line = new FPAmount(euro, 1999, 1680, 319);
+
+        FPAmountAccumulator acc = new FPAmountAccumulator(line);
+        FPAmount expected = line.zero();
+        for (int i = 0; i < 10_000; ++i) {
+            acc.add(line);
+            expected = expected.add(line);
+        }
+        Assertions.assertEquals(expected, acc.result());
+        Assertions.assertEquals(19990000, acc.getGross());
+        Assertions.assertEquals(3190000, acc.getAmount(1));
+        Assertions.assertEquals("199900 EUR [168000, 31900]", acc.toString());
+        Assertions.assertEquals(acc.result().toString(), acc.toString());
+
+        acc.subtract(line).addProduct(line, 2).negate();
+        Assertions.assertEquals(expected.add(line).negate(), acc.result());
+        acc.multiply(-1).add(new FPAmountAccumulator(line).add(line));
+        Assertions.assertEquals(expected.add(line).add(line), acc.result());
+        acc.result().validate();
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> acc.add(new FPAmount(euro, 100, 100)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> acc.add(new FPAmount(dollar, 1999, 1680, 319)));
+        Assertions.assertTrue(acc.reset().result().equals(line.zero()));
+    }
+
+    @Test
+    public void testPrimitiveAccessors() throws Exception {
+        FPCurrency euro = new FPCurrency(JavaCurrencyDataProvider.INSTANCE.get("EUR"));
+        FPAmount line = new FPAmount(euro, 1999, 1680, 319);
+        Assertions.assertEquals(2, line.componentCount());
+        Assertions.assertEquals(1680, line.getAmount(0));
+        Assertions.assertEquals(319, line.getAmount(1));
+        long[] dst = new long[3];
+        line.copyAmountsTo(dst);
+        Assertions.assertArrayEquals(new long[] { 1680, 319, 0 }, dst);
+        Assertions.assertEquals(0, new FPAmount(euro, 1999).componentCount());
+    }
+}
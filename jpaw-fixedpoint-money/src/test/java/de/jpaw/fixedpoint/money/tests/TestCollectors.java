@@ -0,0 +1,38 @@
+package de.jpaw.fixedpoint.money.tests;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.api.iso.impl.JavaCurrencyDataProvider;
+import de.jpaw.fixedpoint.money.FPAmount;
+import de.jpaw.fixedpoint.money.FPAmountCollectors;
+import de.jpaw.fixedpoint.money.FPCurrency;
+
+public class TestCollectors {
+
+    @Test
+    public void testSumAndAverage() throws Exception {
+        FPCurrency euro = new FPCurrency(JavaCurrencyDataProvider.INSTANCE.get("EUR"));
+        FPAmount zero = new FPAmount(euro, 0, 0, 0);
+        List<FPAmount> lines = new ArrayList<FPAmount>();
+        FPAmount expected = zero;
+        for (int i = 0; i < 10_000; ++i) {
+            FPAmount line = new FPAmount(euro, 1190 + i, 1000 + i, 190);
+            lines.add(line);
+            expected = expected.add(line);
+        }
+        Assertions.assertEquals(expected, lines.parallelStream().collect(FPAmountCollectors.summing(zero)));
+        Assertions.assertEquals(zero, new ArrayList<FPAmount>().stream().collect(FPAmountCollectors.summing(zero)));
+        Assertions.assertEquals(expected.multiply(1L, lines.size(), RoundingMode.HALF_EVEN),
+          lines.parallelStream().collect(FPAmountCollectors.averaging(zero, RoundingMode.HALF_EVEN)));
+        Assertions.assertEquals(lines.get(0), lines.parallelStream().collect(FPAmountCollectors.minimumByGross()).get());
+        Assertions.assertEquals(lines.get(lines.size() - 1), lines.parallelStream().collect(FPAmountCollectors.maximumByGross()).get());
+
+        lines.add(new FPAmount(euro, 100, 100));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> lines.stream().collect(FPAmountCollectors.summing(zero)));
+    }
+}
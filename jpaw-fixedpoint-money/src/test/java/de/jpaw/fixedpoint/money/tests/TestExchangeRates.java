@@ -0,0 +1,108 @@
+package de.jpaw.fixedpoint.money.tests;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.api.iso.CurrencyKeyConverter;
+import de.jpaw.api.iso.impl.JavaCurrencyDataProvider;
+import de.jpaw.fixedpoint.money.FPAmount;
+import de.jpaw.fixedpoint.money.FPCurrency;
+import de.jpaw.fixedpoint.money.FPExchangeRateTable;
+import de.jpaw.fixedpoint.money.FPExchangeRates;
+import de.jpaw.fixedpoint.types.MicroUnits;
+import de.jpaw.fixedpoint.types.Units;
+
+public class TestExchangeRates {
+    private static final FPCurrency EUR = new FPCurrency(JavaCurrencyDataProvider.INSTANCE.get("EUR"));
+    private static final FPCurrency JPY = new FPCurrency(JavaCurrencyDataProvider.INSTANCE.get("JPY"));
+    private static final FPCurrency KWD = new FPCurrency(JavaCurrencyDataProvider.INSTANCE.get("KWD"));
+    private static final int EUR_CODE = CurrencyKeyConverter.currencyCodeA3ToInt("EUR");
+    private static final int JPY_CODE = CurrencyKeyConverter.currencyCodeA3ToInt("JPY");
+    private static final int KWD_CODE = CurrencyKeyConverter.currencyCodeA3ToInt("KWD");
+    private static final MicroUnits EUR_JPY = MicroUnits.valueOf("162.345678");
+    private static final MicroUnits JPY_EUR = MicroUnits.valueOf("0.006160");
+    private static final Units EUR_KWD = Units.of(3);
+
+    private static FPExchangeRates rates() {
+        return new FPExchangeRates.Builder()
+          .setRate(EUR, JPY, EUR_JPY)
+          .setRate(JPY, EUR, JPY_EUR)
+          .setRate(EUR, KWD, EUR_KWD)
+          .build();
+    }
+
+    @Test
+    public void testAgainstFPAmount() throws Exception {
+        FPExchangeRates rates = rates();
+        Random rnd = new Random(20261018L);
+        final int n = 10_000;
+        long[] eur = new long[n];
+        long[] jpy = new long[n];
+        for (int i = 0; i < n; ++i) {
+            eur[i] = rnd.nextInt(100_000_000) - 10_000_000;
+            jpy[i] = rnd.nextInt(100_000_000) - 10_000_000;
+        }
+        long[] eurToJpy = new long[n];
+        long[] jpyToEur = new long[n];
+        long[] eurToKwd = new long[n];
+        rates.convert(eur, EUR_CODE, JPY_CODE, eurToJpy);
+        rates.convert(jpy, JPY_CODE, EUR_CODE, jpyToEur);
+        rates.convert(eur, EUR_CODE, KWD_CODE, eurToKwd);
+        for (int i = 0; i < n; ++i) {
+            Assertions.assertEquals(new FPAmount(EUR, eur[i]).convert(EUR_JPY, JPY).getGross(), eurToJpy[i]);
+            Assertions.assertEquals(new FPAmount(JPY, jpy[i]).convert(JPY_EUR, EUR).getGross(), jpyToEur[i]);
+            Assertions.assertEquals(new FPAmount(EUR, eur[i]).convert(EUR_KWD, KWD).getGross(), eurToKwd[i]);
+            Assertions.assertEquals(eurToJpy[i], rates.convert(eur[i], EUR_CODE, JPY_CODE));
+        }
+    }
+
+    @Test
+    public void testMixedColumn() throws Exception {
+        FPExchangeRates rates = rates();
+        long[] amounts = { 100, 1000, 250, 12345 };
+        int[] codes = { EUR_CODE, JPY_CODE, JPY_CODE, EUR_CODE };
+        long[] result = new long[amounts.length];
+        rates.convert(amounts, codes, EUR_CODE, result);
+        Assertions.assertArrayEquals(new long[] { 100, 616, 154, 12345 }, result);
+    }
+
+    @Test
+    public void testBreakdown() throws Exception {
+        FPExchangeRates rates = rates();
+        FPAmount amount = new FPAmount(EUR, 11900, 10000, 1900);
+        Assertions.assertEquals(amount.convert(EUR_JPY, JPY), rates.convert(amount, JPY_CODE));
+        Assertions.assertSame(amount, rates.convert(amount, EUR_CODE));
+    }
+
+    @Test
+    public void testBreakdownOverflow() throws Exception {
+        // every converted component fits into a long, their sum does not
+        final long component = Long.MAX_VALUE / 40L;
+        FPAmount amount = new FPAmount(EUR, 2L * component, component, component);
+        Assertions.assertThrows(ArithmeticException.class, () -> rates().convert(amount, KWD_CODE));
+    }
+
+    @Test
+    public void testMissingRate() throws Exception {
+        FPExchangeRates rates = rates();
+        Assertions.assertTrue(rates.hasRate(EUR_CODE, KWD_CODE));
+        Assertions.assertFalse(rates.hasRate(KWD_CODE, EUR_CODE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rates.convert(100L, KWD_CODE, EUR_CODE));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> rates.convert(100L, EUR_CODE, CurrencyKeyConverter.currencyCodeA3ToInt("USD")));
+    }
+
+    @Test
+    public void testTableUpdate() throws Exception {
+        FPExchangeRateTable table = new FPExchangeRateTable(rates());
+        FPExchangeRates before = table.snapshot();
+        FPExchangeRates after = table.update(b -> b.setRate(EUR, JPY, MicroUnits.valueOf("160")).removeRate(EUR, KWD));
+        Assertions.assertSame(after, table.snapshot());
+        Assertions.assertEquals(16235, before.convert(10000L, EUR_CODE, JPY_CODE));
+        Assertions.assertEquals(16000, after.convert(10000L, EUR_CODE, JPY_CODE));
+        Assertions.assertTrue(before.hasRate(EUR_CODE, KWD_CODE));
+        Assertions.assertFalse(after.hasRate(EUR_CODE, KWD_CODE));
+        Assertions.assertEquals(616, after.convert(1000L, JPY_CODE, EUR_CODE));
+    }
+}
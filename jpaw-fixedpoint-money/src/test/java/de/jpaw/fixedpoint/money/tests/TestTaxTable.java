@@ -0,0 +1,75 @@
+package de.jpaw.fixedpoint.money.tests;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.api.iso.impl.JavaCurrencyDataProvider;
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.money.FPAmount;
+import de.jpaw.fixedpoint.money.FPCurrency;
+import de.jpaw.fixedpoint.money.FPTaxTable;
+import de.jpaw.fixedpoint.types.Hundreds;
+import de.jpaw.fixedpoint.types.MilliUnits;
+import de.jpaw.fixedpoint.types.Units;
+import de.jpaw.fixedpoint.types.VariableUnits;
+
+public class TestTaxTable {
+    private static final List<FixedPointBase<?>> RATES = Arrays.<FixedPointBase<?>>asList(
+        Units.ZERO, Hundreds.valueOf("0.19"), Hundreds.valueOf("0.07"), MilliUnits.valueOf("0.055"), VariableUnits.valueOf("0.2")
+    );
+
+    @Test
+    public void testAgainstFPAmount() throws Exception {
+        FPCurrency euro = new FPCurrency(JavaCurrencyDataProvider.INSTANCE.get("EUR"));
+        FPTaxTable table = new FPTaxTable(RATES);
+        Random rnd = new Random(20201018L);
+        final int n = 100_000;
+        long[] net = new long[n];
+        long[] amounts = new long[n];
+        int[] rateIndex = new int[n];
+        for (int i = 0; i < n; ++i) {
+            net[i] = rnd.nextInt(10_000_000) - 1_000_000;
+            amounts[i] = net[i];
+            rateIndex[i] = rnd.nextInt(RATES.size());
+        }
+        long[] gross = new long[n];
+        long[] tax = new long[n];
+        long[] grossParallel = new long[n];
+        long[] taxParallel = new long[n];
+        table.netToGross(net, rateIndex, gross, tax);
+        table.netToGross(net, rateIndex, grossParallel, taxParallel, ForkJoinPool.commonPool());
+        Assertions.assertArrayEquals(gross, grossParallel);
+        Assertions.assertArrayEquals(tax, taxParallel);
+
+        long[] net2 = new long[n];
+        long[] tax2 = new long[n];
+        long[] net2Parallel = new long[n];
+        long[] tax2Parallel = new long[n];
+        table.grossToNet(amounts, rateIndex, net2, tax2);
+        table.grossToNet(amounts, rateIndex, net2Parallel, tax2Parallel, ForkJoinPool.commonPool());
+        Assertions.assertArrayEquals(net2, net2Parallel);
+        Assertions.assertArrayEquals(tax2, tax2Parallel);
+
+        for (int i = 0; i < n; i += 97) {
+            List<FixedPointBase<?>> taxes = RATES.subList(rateIndex[i], rateIndex[i] + 1);
+            FPAmount expected = new FPAmount(euro, net[i]).netToGross(taxes);
+            Assertions.assertEquals(new FPAmount(euro, gross[i], net[i], tax[i]), expected);
+            FPAmount expected2 = new FPAmount(euro, amounts[i]).grossToNet(taxes);
+            Assertions.assertEquals(new FPAmount(euro, amounts[i], net2[i], tax2[i]), expected2);
+        }
+    }
+
+    @Test
+    public void testBadArguments() throws Exception {
+        FPTaxTable table = new FPTaxTable(RATES);
+        Assertions.assertEquals(5, table.size());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> table.netToGross(new long[3], new int[2], new long[3], new long[3]));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> table.netToGross(new long[3], new int[3], new long[3], new long[3], 2, 4));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new FPTaxTable(Arrays.asList(Units.valueOf(-1))));
+    }
+}
@@ -8,11 +8,22 @@ import com.ibm.icu.util.Currency;
 
 import de.jpaw.api.iso.CurrencyData;
 import de.jpaw.api.iso.CurrencyDataProvider;
+import de.jpaw.api.iso.CurrencyRegistry;
 
+/** Provides the currencies known to ICU. All available currencies are preloaded into a registry, and lookups return canonical instances. */
 public final class ICUCurrencyDataProvider implements CurrencyDataProvider {
     public static final ICUCurrencyDataProvider INSTANCE = new ICUCurrencyDataProvider();
 
-    private ICUCurrencyDataProvider() { }
+    private final CurrencyRegistry registry;
+
+    private ICUCurrencyDataProvider() {
+        Set<Currency> allICUCurrencies = Currency.getAvailableCurrencies();
+        List<CurrencyData> all = new ArrayList<CurrencyData>(allICUCurrencies.size());
+        for (Currency c : allICUCurrencies) {
+            all.add(new ICUCurrencyData(c));
+        }
+        registry = new CurrencyRegistry(all);
+    }
 
     public static final class ICUCurrencyData implements CurrencyData {
         private final Currency currency;
@@ -48,6 +59,10 @@ public final class ICUCurrencyDataProvider implements CurrencyDataProvider {
     }
     @Override
     public CurrencyData get(String key) {
+        CurrencyData cd = registry.get(key);
+        if (cd != null)
+            return cd;
+        // ICU also accepts codes which are not listed as available currencies
         try {
             return new ICUCurrencyData(Currency.getInstance(key));
         } catch (IllegalArgumentException e) {
@@ -55,6 +70,21 @@ public final class ICUCurrencyDataProvider implements CurrencyDataProvider {
         }
     }
 
+    @Override
+    public CurrencyData get(int currencyCodeIndex) {
+        return registry.get(currencyCodeIndex);
+    }
+
+    @Override
+    public CurrencyData getByNumericCode(int numericCode) {
+        return registry.getByNumericCode(numericCode);
+    }
+
+    /** Returns the registry of all preloaded currencies. */
+    public CurrencyRegistry getRegistry() {
+        return registry;
+    }
+
     @Override
     public void set(String key, CurrencyData data) {
         throw new UnsupportedOperationException("Cannot create new currencies");
@@ -71,11 +101,6 @@ public final class ICUCurrencyDataProvider implements CurrencyDataProvider {
 
     @Override
     public List<CurrencyData> getAll() {
-        Set<Currency> allICUCurrencies = Currency.getAvailableCurrencies();
-        List<CurrencyData> result = new ArrayList<CurrencyData>(allICUCurrencies.size());
-        for (Currency c : allICUCurrencies) {
-            result.add(INSTANCE.get(c.getCurrencyCode()));
-        }
-        return result;
+        return new ArrayList<CurrencyData>(registry.getAll());
     }
 }
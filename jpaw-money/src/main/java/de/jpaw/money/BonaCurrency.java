@@ -5,6 +5,8 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Currency;
 
+import de.jpaw.fixedpoint.FixedPointBase;
+
 /** Class to store the notion of a currency, with the option to override the number of decimals (fractional digits).
  * By default, the number of decimals corresponds to the one of the real currency as defined by ISO 4217.
  */
@@ -193,6 +195,66 @@ public final class BonaCurrency implements Serializable {
         return scaledAmounts;
     }
 
+    /** The same scaling and error distribution as roundWithErrorDistribution(BigDecimal[]), for amounts provided as longs with sourceScale decimals.
+     * The elements to adjust are selected by the same weights, but no BigDecimal instances are created.
+     *
+     * @param unscaledAmounts the amounts, with element 0 being the sum of the others
+     * @param sourceScale the number of decimals of the amounts, at most 18 more than the currency's decimals
+     * @return scaled values
+     */
+    public long[] roundWithErrorDistribution(long[] unscaledAmounts, int sourceScale) {
+        int n = unscaledAmounts.length;
+        long[] scaledAmounts = new long[n];
+        int scaleDiff = sourceScale - decimals;
+        if (scaleDiff <= 0) {
+            // no rounding required
+            long factor = FixedPointBase.getPowerOfTen(-scaleDiff);
+            for (int i = 0; i < n; ++i) {
+                scaledAmounts[i] = Math.multiplyExact(unscaledAmounts[i], factor);
+            }
+            return scaledAmounts;
+        }
+        long factor = FixedPointBase.getPowerOfTen(scaleDiff);
+        long sum = 0;
+        for (int i = 0; i < n; ++i) {
+            scaledAmounts[i] = FixedPointBase.divideByPowerOfTen(unscaledAmounts[i], scaleDiff, RoundingMode.HALF_EVEN);
+            if (i > 0)
+                sum += scaledAmounts[i];
+        }
+        int compareSign = Long.compare(scaledAmounts[0], sum);  // > 0: rounded sum is bigger than sum of elements => increment elements
+        if (compareSign == 0)
+            return scaledAmounts;  // we are done
+        // error distribution is required. Same weights as for BigDecimal, computed in units of the source scale
+        long singleAdjustment = compareSign < 0 ? -factor : factor;
+        boolean[] isEligible = new boolean[n];
+        double[] relativeError = new double[n];
+        int numberToAdjust = (int)Math.abs(scaledAmounts[0] - sum);
+        assert numberToAdjust > 0 && numberToAdjust < n : "Unexplainable number of elements to adjust";
+        for (int i = 0; i < n; ++i) {
+            long roundingDiff = unscaledAmounts[i] - scaledAmounts[i] * factor;
+            isEligible[i] = Long.signum(roundingDiff) == (i > 0 ? compareSign : -compareSign);
+            if (isEligible[i])
+                relativeError[i] = Math.abs((double)(singleAdjustment - roundingDiff)) / Math.abs((double)unscaledAmounts[i]);
+        }
+        while (numberToAdjust > 0) {
+            // find a remaining eligible element with the smallest relativeError
+            double minError = 0.0;   // not yet defined
+            int smallestIndex = -1;
+            for (int i = 0; i < n; ++i) {
+                if (isEligible[i] && (smallestIndex < 0 || relativeError[i] < minError)) {
+                    minError = relativeError[i];
+                    smallestIndex = i;
+                }
+            }
+            if (smallestIndex < 0)
+                throw new ArithmeticException("Did not find enough adjustable elements");
+            isEligible[smallestIndex] = false;      // mark it "used"
+            scaledAmounts[smallestIndex] += (smallestIndex > 0) == (compareSign > 0) ? 1 : -1;
+            --numberToAdjust;
+        }
+        return scaledAmounts;
+    }
+
 
     // default Eclipse autogenerated methods below
 
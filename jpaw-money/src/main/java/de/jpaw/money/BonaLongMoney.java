@@ -0,0 +1,302 @@
+package de.jpaw.money;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+import com.google.common.collect.ImmutableList;
+
+import de.jpaw.algebra.AbelianGroup;
+import de.jpaw.fixedpoint.FixedPointBase;
+import de.jpaw.fixedpoint.FixedPointNative;
+
+/**
+ * A drop-in alternative to BonaMoney, which stores the amounts as longs in the scale of the currency (mantissas),
+ * and performs the arithmetic via the fixed point library.
+ * The public API mirrors the one of BonaMoney, and the same properties are guaranteed.
+ * If any value does not fit into a long, the instance transparently switches to a BonaMoney representation for this value,
+ * and results of subsequent operations switch back to longs once they fit again.
+ * @author Michael Bischoff
+ *
+ */
+public final class BonaLongMoney implements Serializable, AbelianGroup<BonaLongMoney> {
+    private static final long serialVersionUID = 6269291861207854501L;
+
+    private static final long[] EMPTY_ARRAY = new long[0];
+    private static final int MAX_FACTOR_SCALE = 18;
+
+    private final BonaCurrency currency;                        // the currency of this amount
+    private final long amount;                                  // the main (gross) amount (or total), scaled by the currency's decimals
+    private final long[] componentAmounts;                      // net + taxes (or components), scaled by the currency's decimals
+    private final BonaMoney big;                                // if not null, the value did not fit into longs, and the long fields are unused
+
+    private BonaLongMoney(BonaCurrency currency, long amount, long[] componentAmounts, BonaMoney big) {
+        this.currency = currency;
+        this.amount = amount;
+        this.componentAmounts = componentAmounts;
+        this.big = big;
+    }
+
+    /** Creates a BonaLongMoney instance of value 0 for the given currency. */
+    public BonaLongMoney(BonaCurrency currency) {
+        this(currency, 0L, EMPTY_ARRAY, null);
+    }
+
+    /** Constructor for amounts which are already scaled to the currency's decimals (for example amount 1234 for EUR 12.34).
+     * If components are provided, their sum must match the amount. */
+    public BonaLongMoney(BonaCurrency currency, long amount, long... componentAmounts) throws MonetaryException {
+        this(currency, amount, componentAmounts == null || componentAmounts.length == 0 ? EMPTY_ARRAY : componentAmounts.clone(), null);
+        if (this.componentAmounts.length > 0) {
+            long sum = 0;
+            for (long t : this.componentAmounts) {
+                sum += t;
+            }
+            if (sum != amount)
+                throw new MonetaryException(MonetaryException.SUM_MISMATCH, amount + " <> " + sum);
+        }
+    }
+
+    /** Constructor for a single amount, with the same semantics as the corresponding constructor of BonaMoney. */
+    public static BonaLongMoney of(BonaCurrency currency, boolean allowRounding, BigDecimal amount) throws MonetaryException {
+        return of(new BonaMoney(currency, allowRounding, amount));
+    }
+
+    /** Constructor for a single with a breakdown of components, with the same semantics as the corresponding constructor of BonaMoney. */
+    public static BonaLongMoney of(BonaCurrency currency, boolean allowRounding, boolean requireSameSign, BigDecimal amount, BigDecimal... components)
+            throws MonetaryException {
+        return of(new BonaMoney(currency, allowRounding, requireSameSign, amount, components));
+    }
+
+    /** Converts a BonaMoney instance. */
+    public static BonaLongMoney of(BonaMoney money) {
+        final long[] components = new long[money.getNumComponentAmounts()];
+        for (int i = 0; i < components.length; ++i) {
+            final BigDecimal c = money.getComponentAmounts().get(i);
+            if (!fitsLong(c))
+                return new BonaLongMoney(money.getCurrency(), 0L, EMPTY_ARRAY, money);
+            components[i] = c.unscaledValue().longValue();
+        }
+        if (!fitsLong(money.getAmount()))
+            return new BonaLongMoney(money.getCurrency(), 0L, EMPTY_ARRAY, money);
+        return new BonaLongMoney(money.getCurrency(), money.getAmount().unscaledValue().longValue(), components.length == 0 ? EMPTY_ARRAY : components, null);
+    }
+
+    private static boolean fitsLong(BigDecimal value) {
+        return value.unscaledValue().bitLength() < 64;
+    }
+
+    /** Returns the value as a BonaMoney instance. */
+    public BonaMoney toBonaMoney() throws MonetaryException {
+        if (big != null)
+            return big;
+        if (componentAmounts.length == 0)
+            return new BonaMoney(currency, false, getAmount());
+        final BigDecimal[] components = new BigDecimal[componentAmounts.length];
+        for (int i = 0; i < componentAmounts.length; ++i) {
+            components[i] = BigDecimal.valueOf(componentAmounts[i], currency.getDecimals());
+        }
+        return new BonaMoney(currency, false, false, getAmount(), components);
+    }
+
+    /** Returns true if all amounts are stored as longs (and not in the BigDecimal fallback representation). */
+    public boolean isLong() {
+        return big == null;
+    }
+
+    /** Multiply with a scalar, possibly with different scaling, with the same semantics as <code>BonaMoney.multiply()</code>.
+     * Rounding is HALF_EVEN, with subsequent error distribution if there are components. */
+    public BonaLongMoney multiply(BonaCurrency targetCurrency, BigDecimal factor) throws MonetaryException {
+        // shortcut if the new currency is the same as the old, and the fxRate is 1.0
+        if (currency.equals(targetCurrency) && BigDecimal.ONE.compareTo(factor) == 0)
+            return this;
+        if (big == null) {
+            if (factor.scale() < 0)
+                factor = factor.setScale(0);
+            else if (factor.scale() > MAX_FACTOR_SCALE)
+                factor = factor.stripTrailingZeros();
+            if (factor.scale() >= 0 && factor.scale() <= MAX_FACTOR_SCALE && fitsLong(factor)) {
+                try {
+                    return multiply(targetCurrency, factor.unscaledValue().longValue(), factor.scale());
+                } catch (ArithmeticException e) {
+                    // overflow: retry via BigDecimal
+                }
+            }
+        }
+        return of(toBonaMoney().multiply(targetCurrency, factor));
+    }
+
+    private BonaLongMoney multiply(BonaCurrency targetCurrency, long factorMantissa, int factorScale) {
+        final int productScale = currency.getDecimals() + factorScale;
+        final int scaleDiff = productScale - targetCurrency.getDecimals();
+        if (scaleDiff > MAX_FACTOR_SCALE)
+            throw new ArithmeticException("Overflow");
+        if (scaleDiff <= 0) {
+            // exact result, no rounding required
+            final long factorScaled = Math.multiplyExact(factorMantissa, FixedPointBase.getPowerOfTen(-scaleDiff));
+            final long[] components = componentAmounts.length == 0 ? EMPTY_ARRAY : new long[componentAmounts.length];
+            for (int i = 0; i < components.length; ++i) {
+                components[i] = Math.multiplyExact(componentAmounts[i], factorScaled);
+            }
+            return new BonaLongMoney(targetCurrency, Math.multiplyExact(amount, factorScaled), components, null);
+        }
+        if (componentAmounts.length == 0) {
+            // easy case, no allocation of any differences
+            return new BonaLongMoney(targetCurrency, FixedPointNative.multiply_and_scale(amount, factorMantissa, scaleDiff, RoundingMode.HALF_EVEN),
+              EMPTY_ARRAY, null);
+        }
+        // at least one component amount, possible rounding issues. Compute the exact products and delegate the rounding.
+        final long[] unscaled = new long[1 + componentAmounts.length];
+        unscaled[0] = Math.multiplyExact(amount, factorMantissa);
+        for (int i = 0; i < componentAmounts.length; ++i) {
+            unscaled[i + 1] = Math.multiplyExact(componentAmounts[i], factorMantissa);
+        }
+        final long[] scaled = targetCurrency.roundWithErrorDistribution(unscaled, productScale);
+        return new BonaLongMoney(targetCurrency, scaled[0], Arrays.copyOfRange(scaled, 1, scaled.length), null);
+    }
+
+    private void checkCompatible(String op, BonaLongMoney that) throws MonetaryException {
+        if (!currency.equals(that.currency) || getNumComponentAmounts() != that.getNumComponentAmounts())
+            throw new MonetaryException(MonetaryException.INCOMPATIBLE_OPERANDS, op + ": "
+                    + currency.toShortString() + "-" + getNumComponentAmounts() + " <> "
+                    + that.currency.toShortString() + "-" + that.getNumComponentAmounts());
+    }
+
+    /** Add two BonaLongMoney instances. Both operands must have the identical currency and the same number of tax amounts. */
+    @Override
+    public BonaLongMoney add(BonaLongMoney augent) throws MonetaryException {
+        checkCompatible("add", augent);
+        if (big == null && augent.big == null) {
+            try {
+                final long[] sum = componentAmounts.length == 0 ? EMPTY_ARRAY : new long[componentAmounts.length];
+                for (int i = 0; i < sum.length; ++i) {
+                    sum[i] = Math.addExact(componentAmounts[i], augent.componentAmounts[i]);
+                }
+                return new BonaLongMoney(currency, Math.addExact(amount, augent.amount), sum, null);
+            } catch (ArithmeticException e) {
+                // overflow: retry via BigDecimal
+            }
+        }
+        return of(toBonaMoney().add(augent.toBonaMoney()));
+    }
+
+    /** Subtract two BonaLongMoney instances. Both operands must have the identical currency and the same number of tax amounts. */
+    @Override
+    public BonaLongMoney subtract(BonaLongMoney subtrahend) throws MonetaryException {
+        checkCompatible("subtract", subtrahend);
+        if (big == null && subtrahend.big == null) {
+            try {
+                final long[] diff = componentAmounts.length == 0 ? EMPTY_ARRAY : new long[componentAmounts.length];
+                for (int i = 0; i < diff.length; ++i) {
+                    diff[i] = Math.subtractExact(componentAmounts[i], subtrahend.componentAmounts[i]);
+                }
+                return new BonaLongMoney(currency, Math.subtractExact(amount, subtrahend.amount), diff, null);
+            } catch (ArithmeticException e) {
+                // overflow: retry via BigDecimal
+            }
+        }
+        return of(toBonaMoney().subtract(subtrahend.toBonaMoney()));
+    }
+
+    @Override
+    public BonaLongMoney negate() throws MonetaryException {
+        if (big == null) {
+            if (amount == 0 && componentAmounts.length == 0)
+                return this;  // - 0 = 0
+            try {
+                final long[] taxes = componentAmounts.length == 0 ? EMPTY_ARRAY : new long[componentAmounts.length];
+                for (int i = 0; i < taxes.length; ++i) {
+                    taxes[i] = Math.negateExact(componentAmounts[i]);
+                }
+                return new BonaLongMoney(currency, Math.negateExact(amount), taxes, null);
+            } catch (ArithmeticException e) {
+                // overflow: retry via BigDecimal
+            }
+        }
+        return of(toBonaMoney().negate());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder a = new StringBuilder();
+        a.append("BonaLongMoney[");
+        a.append(currency.toString());
+        a.append(", gross=");
+        a.append(getAmount().toPlainString());
+        final int n = getNumComponentAmounts();
+        if (n > 0) {
+            a.append(", net&tax=(");
+            for (int i = 0; i < n; ++i) {
+                if (i > 0)
+                    a.append(", ");
+                a.append(getComponentAmount(i).toPlainString());
+            }
+            a.append(")");
+        }
+        a.append("]");
+        return a.toString();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        BonaLongMoney other = (BonaLongMoney) obj;
+        // the representation is unique: values which fit into longs are never stored as BigDecimal
+        if (big != null || other.big != null)
+            return big != null && big.equals(other.big);
+        return amount == other.amount && currency.equals(other.currency) && Arrays.equals(componentAmounts, other.componentAmounts);
+    }
+
+    @Override
+    public int hashCode() {
+        if (big != null)
+            return big.hashCode();
+        final int prime = 31;
+        int result = currency.hashCode();
+        result = (prime * result) + Long.hashCode(amount);
+        return (prime * result) + Arrays.hashCode(componentAmounts);
+    }
+
+    public BonaCurrency getCurrency() {
+        return currency;
+    }
+
+    public int getNumComponentAmounts() {
+        return big != null ? big.getNumComponentAmounts() : componentAmounts.length;
+    }
+
+    public BigDecimal getAmount() {
+        return big != null ? big.getAmount() : BigDecimal.valueOf(amount, currency.getDecimals());
+    }
+
+    public BigDecimal getComponentAmount(int index) {
+        return big != null ? big.getComponentAmounts().get(index) : BigDecimal.valueOf(componentAmounts[index], currency.getDecimals());
+    }
+
+    public ImmutableList<BigDecimal> getComponentAmounts() {
+        if (big != null)
+            return big.getComponentAmounts();
+        ImmutableList.Builder<BigDecimal> b = ImmutableList.builder();
+        for (long t : componentAmounts) {
+            b.add(BigDecimal.valueOf(t, currency.getDecimals()));
+        }
+        return b.build();
+    }
+
+    /** Returns the gross amount, scaled by the currency's decimals. Throws an ArithmeticException if it does not fit into a long. */
+    public long getAmountAsLong() {
+        if (big != null)
+            return big.getAmount().unscaledValue().longValueExact();
+        return amount;
+    }
+
+    /** Returns a component amount, scaled by the currency's decimals. Throws an ArithmeticException if it does not fit into a long. */
+    public long getComponentAmountAsLong(int index) {
+        if (big != null)
+            return big.getComponentAmounts().get(index).unscaledValue().longValueExact();
+        return componentAmounts[index];
+    }
+}
@@ -161,7 +161,7 @@ public final class BonaMoney implements Serializable, AbelianGroup<BonaMoney> {
         }
         BigDecimal[] taxes = new BigDecimal[componentAmounts.size()];
         for (int i = 0; i < componentAmounts.size(); ++i) {
-            taxes[i] = componentAmounts.get(i).add(augent.amount);
+            taxes[i] = componentAmounts.get(i).add(augent.componentAmounts.get(i));
         }
         return new BonaMoney(currency, false, false, amount.add(augent.amount), taxes);
     }
@@ -181,7 +181,7 @@ public final class BonaMoney implements Serializable, AbelianGroup<BonaMoney> {
         }
         BigDecimal[] taxes = new BigDecimal[componentAmounts.size()];
         for (int i = 0; i < componentAmounts.size(); ++i) {
-            taxes[i] = componentAmounts.get(i).subtract(subtrahend.amount);
+            taxes[i] = componentAmounts.get(i).subtract(subtrahend.componentAmounts.get(i));
         }
         return new BonaMoney(currency, false, false, amount.subtract(subtrahend.amount), taxes);
     }
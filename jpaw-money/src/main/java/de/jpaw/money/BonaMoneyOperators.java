@@ -23,6 +23,25 @@ public class BonaMoneyOperators {
         return (a == null) ? b != null : !a.equals(b);
     }
 
+    static public BonaLongMoney operator_plus(BonaLongMoney a, BonaLongMoney b) throws MonetaryException {
+        return a.add(b);
+    }
+    static public BonaLongMoney operator_minus(BonaLongMoney a, BonaLongMoney b) throws MonetaryException {
+        return a.subtract(b);
+    }
+    static public BonaLongMoney operator_multiply(BigDecimal a, BonaLongMoney b) throws MonetaryException {
+        return b.multiply(b.getCurrency(), a);
+    }
+    static public BonaLongMoney operator_multiply(BonaLongMoney a, BigDecimal b) throws MonetaryException {
+        return a.multiply(a.getCurrency(), b);
+    }
+    static public boolean operator_equals(BonaLongMoney a, BonaLongMoney b) {
+        return (a == null) ? b == null : a.equals(b);
+    }
+    static public boolean operator_notEquals(BonaLongMoney a, BonaLongMoney b) {
+        return (a == null) ? b != null : !a.equals(b);
+    }
+
     // allow for BigDecimal * BonaCurrency as a shorthand to create a BonaMoney instance
     static public BonaMoney operator_multiply(BigDecimal amount, BonaCurrency curr) throws MonetaryException {
         return new BonaMoney(curr, false, amount);
@@ -2,6 +2,7 @@ package de.jpaw.money.tests;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Random;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -38,4 +39,27 @@ public class BonaCurrencyTest {
         Assertions.assertEquals(new BigDecimal("0.39"), scaledComponents[2]);
         Assertions.assertEquals(new BigDecimal("0.00"), scaledComponents[3]);
     }
+
+    @Test
+    public void testRoundingDistributionLongs() throws Exception {
+        BonaCurrency eur = new BonaCurrency("EUR");
+        Random rnd = new Random(20261018L);
+        for (int iter = 0; iter < 10000; ++iter) {
+            int n = 2 + rnd.nextInt(5);
+            long[] unscaled = new long[n];
+            BigDecimal[] unscaledBD = new BigDecimal[n];
+            for (int i = 1; i < n; ++i) {
+                unscaled[i] = rnd.nextInt(2_000_000) - 100_000;
+                unscaled[0] += unscaled[i];
+            }
+            for (int i = 0; i < n; ++i) {
+                unscaledBD[i] = BigDecimal.valueOf(unscaled[i], 5);
+            }
+            long[] scaled = eur.roundWithErrorDistribution(unscaled, 5);
+            BigDecimal[] scaledBD = eur.roundWithErrorDistribution(unscaledBD);
+            for (int i = 0; i < n; ++i) {
+                Assertions.assertEquals(scaledBD[i], BigDecimal.valueOf(scaled[i], 2));
+            }
+        }
+    }
 }
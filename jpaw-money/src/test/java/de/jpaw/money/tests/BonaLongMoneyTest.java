@@ -0,0 +1,72 @@
+package de.jpaw.money.tests;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.money.BonaCurrency;
+import de.jpaw.money.BonaLongMoney;
+import de.jpaw.money.BonaMoney;
+import de.jpaw.money.MonetaryException;
+
+public class BonaLongMoneyTest {
+
+    @Test
+    public void testArithmeticMatchesBonaMoney() throws Exception {
+        BonaCurrency eur = new BonaCurrency("EUR");
+        BonaMoney a = new BonaMoney(eur, false, false, new BigDecimal("11.90"), new BigDecimal("10.00"), new BigDecimal("1.90"));
+        BonaMoney b = new BonaMoney(eur, false, false, new BigDecimal("5.35"), new BigDecimal("5.00"), new BigDecimal("0.35"));
+        BonaLongMoney la = BonaLongMoney.of(a);
+        BonaLongMoney lb = new BonaLongMoney(eur, 535L, 500L, 35L);
+        Assertions.assertTrue(la.isLong());
+        Assertions.assertEquals(BonaLongMoney.of(b), lb);
+
+        Assertions.assertEquals(a.add(b), la.add(lb).toBonaMoney());
+        Assertions.assertEquals(a.subtract(b), la.subtract(lb).toBonaMoney());
+        Assertions.assertEquals(a.negate(), la.negate().toBonaMoney());
+        Assertions.assertEquals(a.getComponentAmounts(), la.getComponentAmounts());
+        Assertions.assertEquals(new BigDecimal("11.90"), la.getAmount());
+    }
+
+    @Test
+    public void testMultiply() throws Exception {
+        BonaCurrency eur = new BonaCurrency("EUR");
+        BonaCurrency jpy = new BonaCurrency("JPY");
+        BonaCurrency kwd = new BonaCurrency("KWD");
+        BonaMoney a = new BonaMoney(eur, false, false, new BigDecimal("11.90"), new BigDecimal("10.00"), new BigDecimal("1.90"));
+        BonaLongMoney la = BonaLongMoney.of(a);
+        for (String f : new String[] { "162.345678", "0.333", "3", "1E+2", "0.5" }) {
+            BigDecimal factor = new BigDecimal(f);
+            Assertions.assertEquals(a.multiply(jpy, factor), la.multiply(jpy, factor).toBonaMoney(), "factor " + f);
+            Assertions.assertEquals(a.multiply(kwd, factor), la.multiply(kwd, factor).toBonaMoney(), "factor " + f);
+            Assertions.assertEquals(a.multiply(eur, factor), la.multiply(eur, factor).toBonaMoney(), "factor " + f);
+        }
+        Assertions.assertSame(la, la.multiply(eur, BigDecimal.ONE));
+    }
+
+    @Test
+    public void testOverflowFallback() throws Exception {
+        BonaCurrency eur = new BonaCurrency("EUR");
+        BonaLongMoney max = new BonaLongMoney(eur, Long.MAX_VALUE);
+        BonaLongMoney one = new BonaLongMoney(eur, 1L);
+        BonaLongMoney sum = max.add(one);
+        Assertions.assertFalse(sum.isLong());
+        Assertions.assertEquals(BigDecimal.valueOf(Long.MAX_VALUE).add(BigDecimal.ONE).movePointLeft(2), sum.getAmount());
+        BonaLongMoney back = sum.subtract(one);
+        Assertions.assertTrue(back.isLong());
+        Assertions.assertEquals(max, back);
+        Assertions.assertFalse(new BonaLongMoney(eur, Long.MIN_VALUE).negate().isLong());
+        Assertions.assertThrows(ArithmeticException.class, () -> sum.getAmountAsLong());
+    }
+
+    @Test
+    public void testValidation() throws Exception {
+        BonaCurrency eur = new BonaCurrency("EUR");
+        BonaCurrency jpy = new BonaCurrency("JPY");
+        Assertions.assertThrows(MonetaryException.class, () -> new BonaLongMoney(eur, 100L, 50L, 40L));
+        Assertions.assertThrows(MonetaryException.class, () -> new BonaLongMoney(eur, 100L).add(new BonaLongMoney(jpy, 100L)));
+        Assertions.assertThrows(MonetaryException.class, () -> BonaLongMoney.of(eur, false, new BigDecimal("1.234")));
+        Assertions.assertEquals(new BonaLongMoney(eur, 123L), BonaLongMoney.of(eur, true, new BigDecimal("1.234")));
+    }
+}
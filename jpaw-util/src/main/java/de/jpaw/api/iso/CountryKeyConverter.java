@@ -1,52 +1,97 @@
 package de.jpaw.api.iso;
 
 import java.util.Locale;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
-import de.jpaw.util.CharTestsASCII;
 
 /** Utility methods to convert String country / currency codes into a numeric code and vice versa. */
 public final class CountryKeyConverter {
     private static final int OFFSET_COMPUTED = 100;
+    private static final int NUM_COMPUTED = 26 * 26;        // number of possible combinations of 2 uppercase letters
+    /** Exclusive upper bound of the codes returned by countryCodeA2ToInt(), for use as array size. */
+    public static final int CODE_LIMIT = OFFSET_COMPUTED + NUM_COMPUTED;
     private static final String[] FREQUENT_COUNTRY_CODES_A2 = {            // sorted by descending gross domestic product, 2012
         "XX", "US", "CN", "JP", "DE", "FR", "BR", "GB", "RU", "IN", "IT"    // plus "XX" for default
     };
-    private static final ConcurrentMap<String, Integer> FREQUENT_COUNTRY_CODES_A2_MAP = new ConcurrentHashMap<>(400);
+    /** Maps the position of a code in the sequence of all 2 letter combinations to its numeric code (which is small for frequent codes). */
+    private static final short[] CODE_BY_INDEX = new short[NUM_COMPUTED];
+    /** Canonical String instances by numeric code, filled on demand. Races are benign, because Strings are immutable. */
+    private static final String[] CODES_A2 = new String[CODE_LIMIT];
     static {
+        for (int i = 0; i < NUM_COMPUTED; ++i) {
+            CODE_BY_INDEX[i] = (short)(OFFSET_COMPUTED + i);
+        }
         for (int i = 0; i < FREQUENT_COUNTRY_CODES_A2.length; ++i) {
-            FREQUENT_COUNTRY_CODES_A2_MAP.put(FREQUENT_COUNTRY_CODES_A2[i], Integer.valueOf(i + 1));
+            final String countryCode = FREQUENT_COUNTRY_CODES_A2[i];
+            final int index = index(countryCode.charAt(0), countryCode.charAt(1));
+            CODE_BY_INDEX[index] = (short)(i + 1);
+            CODES_A2[i + 1] = countryCode;
+            CODES_A2[OFFSET_COMPUTED + index] = countryCode;
         }
     }
 
     private CountryKeyConverter() { }
 
+    /** Returns the position of 2 letters in the sequence of all combinations of uppercase letters, or a negative value if any of them is not
+     * an ASCII uppercase letter. The characters are validated without branches. */
+    private static int index(final int c0, final int c1) {
+        final int d0 = c0 - 'A';
+        final int d1 = c1 - 'A';
+        final int invalid = (d0 | d1 | (25 - d0) | (25 - d1)) >> 31;     // -1 if any of the letters is out of range, else 0
+        return (d0 * 26 + d1) | invalid;
+    }
+
     /** convert a country code string into a number, or return 0 if the code does not conform to the spec.
      * Frequently occurring codes will get small numbers.
      * The range is within [1..776) (10 bit) */
     public static int countryCodeA2ToInt(final String countryCode) {
-        final Integer frequent = FREQUENT_COUNTRY_CODES_A2_MAP.get(countryCode);
-        if (frequent != null)
-            return frequent.intValue();
-        // error check
-        if (countryCode.length() != 2
-          || !CharTestsASCII.isAsciiUpperCase(countryCode.charAt(0))
-          || !CharTestsASCII.isAsciiUpperCase(countryCode.charAt(1))) {
+        return countryCodeA2ToInt((CharSequence)countryCode);
+    }
+
+    /** Same as countryCodeA2ToInt(String), for any character sequence. */
+    public static int countryCodeA2ToInt(final CharSequence countryCode) {
+        if (countryCode.length() != 2)
             return 0;
-        }
-        // default: by formula
-        return OFFSET_COMPUTED + (countryCode.charAt(0) - 'A') * 26 + countryCode.charAt(1) - 'A';
+        final int index = index(countryCode.charAt(0), countryCode.charAt(1));
+        return index < 0 ? 0 : CODE_BY_INDEX[index];
     }
 
-    public static String intToCountryCodeA2(int countryCodeIndex) {
-        if (countryCodeIndex <= 0)
-            return null;  // error
-        if (countryCodeIndex <= FREQUENT_COUNTRY_CODES_A2.length)
-            return FREQUENT_COUNTRY_CODES_A2[countryCodeIndex - 1];
-        if (countryCodeIndex < OFFSET_COMPUTED || countryCodeIndex >= 776)
+    /** Same as countryCodeA2ToInt(String), for a code stored as ASCII bytes in buffer[offset .. offset + length - 1]. */
+    public static int countryCodeA2ToInt(final byte[] buffer, final int offset, final int length) {
+        if (length != 2)
+            return 0;
+        final int index = index(buffer[offset] & 0xff, buffer[offset + 1] & 0xff);
+        return index < 0 ? 0 : CODE_BY_INDEX[index];
+    }
+
+    /** Returns the country code for a number, or null if the number does not represent a code. Repeated calls return the same String instance. */
+    public static String intToCountryCodeA2(final int countryCodeIndex) {
+        if (countryCodeIndex <= 0 || countryCodeIndex >= CODE_LIMIT)
             return null;  // error
-        countryCodeIndex -= OFFSET_COMPUTED;
-        return String.valueOf((char)('A' + countryCodeIndex / 26)) + String.valueOf((char)('A' + countryCodeIndex % 26));
+        String countryCode = CODES_A2[countryCodeIndex];
+        if (countryCode == null && countryCodeIndex >= OFFSET_COMPUTED) {
+            final int index = countryCodeIndex - OFFSET_COMPUTED;
+            countryCode = new String(new char[] { (char)('A' + index / 26), (char)('A' + index % 26) });
+            CODES_A2[countryCodeIndex] = countryCode;
+        }
+        return countryCode;
+    }
+
+    /** Converts a column of country codes into numbers. Invalid or null codes are converted to 0. */
+    public static void countryCodesA2ToInt(final CharSequence[] countryCodes, final int[] result) {
+        if (result.length < countryCodes.length)
+            throw new IllegalArgumentException("Result column too small: " + result.length + " < " + countryCodes.length);
+        for (int i = 0; i < countryCodes.length; ++i) {
+            final CharSequence countryCode = countryCodes[i];
+            result[i] = countryCode == null ? 0 : countryCodeA2ToInt(countryCode);
+        }
+    }
+
+    /** Converts a column of numbers into country codes. Numbers which do not represent a code are converted to null. */
+    public static void intToCountryCodesA2(final int[] countryCodeIndexes, final String[] result) {
+        if (result.length < countryCodeIndexes.length)
+            throw new IllegalArgumentException("Result column too small: " + result.length + " < " + countryCodeIndexes.length);
+        for (int i = 0; i < countryCodeIndexes.length; ++i) {
+            result[i] = intToCountryCodeA2(countryCodeIndexes[i]);
+        }
     }
 
     /** Fill cache entries for all known countries.
@@ -55,14 +100,10 @@ public final class CountryKeyConverter {
         final String[] countries = Locale.getISOCountries();
         for (int i = 0; i < countries.length; ++i) {
             final String countryCode = countries[i];
-            final Integer code = FREQUENT_COUNTRY_CODES_A2_MAP.get(countryCode);
-            if (code == null) {
+            final int code = countryCodeA2ToInt(countryCode);
+            if (code > 0 && CODES_A2[code] == null) {
                 // not yet in cache
-                final int newCode = countryCodeA2ToInt(countryCode);
-                if (newCode > 0) {
-                    // valid code: store it with the predictable index
-                    FREQUENT_COUNTRY_CODES_A2_MAP.putIfAbsent(countryCode, Integer.valueOf(newCode));
-                }
+                CODES_A2[code] = countryCode;
             }
         }
     }
@@ -3,4 +3,20 @@ package de.jpaw.api.iso;
 import de.jpaw.api.DataProvider;
 
 public interface CurrencyDataProvider extends DataProvider<String, CurrencyData> {
+    /** Returns the data for a code as computed by <code>CurrencyKeyConverter.currencyCodeA3ToInt()</code>, or null if it does not exist. */
+    default CurrencyData get(final int currencyCodeIndex) {
+        final String currencyCode = CurrencyKeyConverter.intToCurrencyCodeA3(currencyCodeIndex);
+        return currencyCode == null ? null : get(currencyCode);
+    }
+
+    /** Returns the data for an ISO numeric code, or null if it does not exist. */
+    default CurrencyData getByNumericCode(final int numericCode) {
+        if (numericCode <= 0)
+            return null;
+        for (final CurrencyData cd : getAll()) {
+            if (cd.getNumericCode() == numericCode)
+                return cd;
+        }
+        return null;
+    }
 }
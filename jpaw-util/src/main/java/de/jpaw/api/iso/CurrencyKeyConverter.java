@@ -1,69 +1,106 @@
 package de.jpaw.api.iso;
 
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
-import de.jpaw.util.CharTestsASCII;
-
 public final class CurrencyKeyConverter {
     private static final int OFFSET_COMPUTED = 100;
     private static final int NUM_COMPUTED = 26 * 26 * 26;  // number of possible combinations of 3 uppercase letters
+    /** Exclusive upper bound of the codes returned by currencyCodeA3ToInt(), for use as array size. */
+    public static final int CODE_LIMIT = OFFSET_COMPUTED + NUM_COMPUTED;
     private static final String[] FREQUENT_CURRENCY_CODES_A3 = {            // sorted by descending gross domestic product, 2012
         "XXX", "USD", "CNY", "JPY", "EUR", "BRR", "RUB", "INR", "GBP", "CHF", "HKD", "AUD", "CAD" // plus "XXX" for default
     };
-    private static final ConcurrentMap<String, Integer> FREQUENT_CURRENCY_CODES_A3_MAP = new ConcurrentHashMap<>(500);
+    /** Maps the position of a code in the sequence of all 3 letter combinations to its numeric code (which is small for frequent codes). */
+    private static final short[] CODE_BY_INDEX = new short[NUM_COMPUTED];
+    /** Canonical String instances by numeric code, filled on demand. Races are benign, because Strings are immutable. */
+    private static final String[] CODES_A3 = new String[CODE_LIMIT];
     static {
+        for (int i = 0; i < NUM_COMPUTED; ++i) {
+            CODE_BY_INDEX[i] = (short)(OFFSET_COMPUTED + i);
+        }
         for (int i = 0; i < FREQUENT_CURRENCY_CODES_A3.length; ++i) {
-            FREQUENT_CURRENCY_CODES_A3_MAP.put(FREQUENT_CURRENCY_CODES_A3[i], Integer.valueOf(i + 1));
+            final String currencyCode = FREQUENT_CURRENCY_CODES_A3[i];
+            final int index = index(currencyCode.charAt(0), currencyCode.charAt(1), currencyCode.charAt(2));
+            CODE_BY_INDEX[index] = (short)(i + 1);
+            CODES_A3[i + 1] = currencyCode;
+            CODES_A3[OFFSET_COMPUTED + index] = currencyCode;
         }
     }
 
     private CurrencyKeyConverter() { }
 
+    /** Returns the position of 3 letters in the sequence of all combinations of uppercase letters, or a negative value if any of them is not
+     * an ASCII uppercase letter. The characters are validated without branches. */
+    private static int index(final int c0, final int c1, final int c2) {
+        final int d0 = c0 - 'A';
+        final int d1 = c1 - 'A';
+        final int d2 = c2 - 'A';
+        final int invalid = (d0 | d1 | d2 | (25 - d0) | (25 - d1) | (25 - d2)) >> 31;   // -1 if any of the letters is out of range, else 0
+        return (d0 * 676 + d1 * 26 + d2) | invalid;
+    }
+
     /** convert a country code string into a number, or return 0 if the code does not conform to the spec.
      * Frequently occurring codes will get small numbers.
      * The range is within [1..17k) (31 bit) */
     public static int currencyCodeA3ToInt(final String currencyCode) {
-        final Integer frequent = FREQUENT_CURRENCY_CODES_A3_MAP.get(currencyCode);
-        if (frequent != null)
-            return frequent.intValue();
-        // error check
-        if (currencyCode.length() != 3
-          || !CharTestsASCII.isAsciiUpperCase(currencyCode.charAt(0))
-          || !CharTestsASCII.isAsciiUpperCase(currencyCode.charAt(1))
-          || !CharTestsASCII.isAsciiUpperCase(currencyCode.charAt(2))) {
+        return currencyCodeA3ToInt((CharSequence)currencyCode);
+    }
+
+    /** Same as currencyCodeA3ToInt(String), for any character sequence. */
+    public static int currencyCodeA3ToInt(final CharSequence currencyCode) {
+        if (currencyCode.length() != 3)
             return 0;
-        }
-        // default: by formula
-        return OFFSET_COMPUTED + (currencyCode.charAt(0) - 'A') * 676 + (currencyCode.charAt(1) - 'A') * 26 + (currencyCode.charAt(2) - 'A');
+        final int index = index(currencyCode.charAt(0), currencyCode.charAt(1), currencyCode.charAt(2));
+        return index < 0 ? 0 : CODE_BY_INDEX[index];
     }
 
-    public static String intToCurrencyCodeA3(int currencyCodeIndex) {
-        if (currencyCodeIndex <= 0)
-            return null;  // error
-        if (currencyCodeIndex <= FREQUENT_CURRENCY_CODES_A3.length)
-            return FREQUENT_CURRENCY_CODES_A3[currencyCodeIndex - 1];
-        if (currencyCodeIndex < OFFSET_COMPUTED || currencyCodeIndex >= (OFFSET_COMPUTED + NUM_COMPUTED))
+    /** Same as currencyCodeA3ToInt(String), for a code stored as ASCII bytes in buffer[offset .. offset + length - 1]. */
+    public static int currencyCodeA3ToInt(final byte[] buffer, final int offset, final int length) {
+        if (length != 3)
+            return 0;
+        final int index = index(buffer[offset] & 0xff, buffer[offset + 1] & 0xff, buffer[offset + 2] & 0xff);
+        return index < 0 ? 0 : CODE_BY_INDEX[index];
+    }
+
+    /** Returns the currency code for a number, or null if the number does not represent a code. Repeated calls return the same String instance. */
+    public static String intToCurrencyCodeA3(final int currencyCodeIndex) {
+        if (currencyCodeIndex <= 0 || currencyCodeIndex >= CODE_LIMIT)
             return null;  // error
-        currencyCodeIndex -= OFFSET_COMPUTED;
-        return String.valueOf((char)('A' + currencyCodeIndex / 676))
-          + String.valueOf((char)('A' + (currencyCodeIndex / 26) % 26))
-          + String.valueOf((char)('A' + currencyCodeIndex % 26));
+        String currencyCode = CODES_A3[currencyCodeIndex];
+        if (currencyCode == null && currencyCodeIndex >= OFFSET_COMPUTED) {
+            final int index = currencyCodeIndex - OFFSET_COMPUTED;
+            currencyCode = new String(new char[] { (char)('A' + index / 676), (char)('A' + (index / 26) % 26), (char)('A' + index % 26) });
+            CODES_A3[currencyCodeIndex] = currencyCode;
+        }
+        return currencyCode;
+    }
+
+    /** Converts a column of currency codes into numbers. Invalid or null codes are converted to 0. */
+    public static void currencyCodesA3ToInt(final CharSequence[] currencyCodes, final int[] result) {
+        if (result.length < currencyCodes.length)
+            throw new IllegalArgumentException("Result column too small: " + result.length + " < " + currencyCodes.length);
+        for (int i = 0; i < currencyCodes.length; ++i) {
+            final CharSequence currencyCode = currencyCodes[i];
+            result[i] = currencyCode == null ? 0 : currencyCodeA3ToInt(currencyCode);
+        }
+    }
+
+    /** Converts a column of numbers into currency codes. Numbers which do not represent a code are converted to null. */
+    public static void intToCurrencyCodesA3(final int[] currencyCodeIndexes, final String[] result) {
+        if (result.length < currencyCodeIndexes.length)
+            throw new IllegalArgumentException("Result column too small: " + result.length + " < " + currencyCodeIndexes.length);
+        for (int i = 0; i < currencyCodeIndexes.length; ++i) {
+            result[i] = intToCurrencyCodeA3(currencyCodeIndexes[i]);
+        }
     }
 
     /** Fill cache entries for all known currencies.
-     * If called, subsequent String construction and resulting GC overhead can be avoided. */
+     * If called, subsequent String construction and resulting GC overhead can be avoided, and the String instances of the provider are used. */
     public static void populateCache(final CurrencyDataProvider dp) {
         for (final CurrencyData cd: dp.getAll()) {
             final String currencyCode = cd.getCurrencyCode();
-            final Integer code = FREQUENT_CURRENCY_CODES_A3_MAP.get(currencyCode);
-            if (code == null) {
+            final int code = currencyCodeA3ToInt(currencyCode);
+            if (code > 0 && CODES_A3[code] == null) {
                 // not yet in cache
-                final int newCode = currencyCodeA3ToInt(currencyCode);
-                if (newCode > 0) {
-                    // valid code: store it with the predictable index
-                    FREQUENT_CURRENCY_CODES_A3_MAP.putIfAbsent(currencyCode, Integer.valueOf(newCode));
-                }
+                CODES_A3[code] = currencyCode;
             }
         }
     }
@@ -0,0 +1,67 @@
+package de.jpaw.api.iso;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/** An immutable registry of canonical currency instances, indexed by the codes of <code>CurrencyKeyConverter.currencyCodeA3ToInt()</code>
+ * and by the ISO numeric code.
+ * All lookups are array accesses and do not allocate objects, and repeated lookups return the same instance,
+ * which allows to use the instances as keys of identity based caches.
+ *
+ * @author Michael Bischoff
+ *
+ */
+public final class CurrencyRegistry {
+    private static final int NUMERIC_CODE_LIMIT = 1000;    // ISO numeric codes have 3 digits
+
+    private final CurrencyData[] byCode = new CurrencyData[CurrencyKeyConverter.CODE_LIMIT];
+    private final CurrencyData[] byNumericCode = new CurrencyData[NUMERIC_CODE_LIMIT];
+    private final List<CurrencyData> all;
+
+    /** Creates a registry for the provided currencies. Entries with invalid currency codes are ignored.
+     * If several currencies share a numeric code, the one with the alphabetically first currency code is registered for it. */
+    public CurrencyRegistry(final Collection<? extends CurrencyData> currencies) {
+        final List<CurrencyData> sorted = new ArrayList<CurrencyData>(currencies);
+        sorted.sort(Comparator.comparing(CurrencyData::getCurrencyCode));
+        final List<CurrencyData> valid = new ArrayList<CurrencyData>(sorted.size());
+        for (final CurrencyData cd : sorted) {
+            final int code = CurrencyKeyConverter.currencyCodeA3ToInt(cd.getCurrencyCode());
+            if (code > 0 && byCode[code] == null) {
+                byCode[code] = cd;
+                valid.add(cd);
+                final int numericCode = cd.getNumericCode();
+                if (numericCode > 0 && numericCode < NUMERIC_CODE_LIMIT && byNumericCode[numericCode] == null)
+                    byNumericCode[numericCode] = cd;
+            }
+        }
+        all = Collections.unmodifiableList(valid);
+    }
+
+    /** Returns the currency for an ISO 4217 code, or null if it is not registered. */
+    public CurrencyData get(final String currencyCode) {
+        return get(CurrencyKeyConverter.currencyCodeA3ToInt(currencyCode));
+    }
+
+    /** Returns the currency for a code as computed by <code>CurrencyKeyConverter.currencyCodeA3ToInt()</code>, or null if it is not registered. */
+    public CurrencyData get(final int currencyCodeIndex) {
+        return currencyCodeIndex > 0 && currencyCodeIndex < byCode.length ? byCode[currencyCodeIndex] : null;
+    }
+
+    /** Returns the currency for an ISO numeric code, or null if it is not registered. */
+    public CurrencyData getByNumericCode(final int numericCode) {
+        return numericCode > 0 && numericCode < NUMERIC_CODE_LIMIT ? byNumericCode[numericCode] : null;
+    }
+
+    /** Returns all registered currencies, sorted by currency code. */
+    public List<CurrencyData> getAll() {
+        return all;
+    }
+
+    /** Returns the number of registered currencies. */
+    public int size() {
+        return all.size();
+    }
+}
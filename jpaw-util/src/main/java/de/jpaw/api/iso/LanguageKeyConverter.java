@@ -1,77 +1,179 @@
 package de.jpaw.api.iso;
 
 import java.util.Locale;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
-
-import de.jpaw.util.CharTestsASCII;
 
 /** Utility methods to convert String language / currency codes into a numeric code and vice versa. */
 public final class LanguageKeyConverter {
     private static final int OFFSET_COMPUTED_2 = 60;                // offset for 2 letter codes
     private static final int OFFSET_COMPUTED_5 = 60 + 32 * 32;      // offset for 5 letter codes
+    private static final int NUM_COMPUTED_5 = 1 << 20;              // 4 letters of 5 bits each
+    private static final int PAGE_BITS = 10;                        // the cache of 5 letter codes is allocated in pages of 1024 entries
+    /** Exclusive upper bound of the codes returned by languageCodeToInt(). */
+    public static final int CODE_LIMIT = OFFSET_COMPUTED_5 + NUM_COMPUTED_5;
     private static final String[] FREQUENT_LANGUAGE_CODES = {
         "xx", "es", "en", "hi", "zh", "zh_CN", "zh_TW", "de", "fr", "it", "pt", "en_GB", "en_US"    // "xxx" for default
     };
-    private static final ConcurrentMap<String, Integer> FREQUENT_LANGUAGE_CODES_MAP = new ConcurrentHashMap<>(400);
+    /** Maps the position of a 2 letter code to its numeric code (which is small for frequent codes). */
+    private static final short[] CODE_BY_INDEX_2 = new short[OFFSET_COMPUTED_5 - OFFSET_COMPUTED_2];
+    /** The positions and numeric codes of the frequent 5 letter codes. */
+    private static final int[] FREQUENT_INDEXES_5;
+    private static final int[] FREQUENT_CODES_5;
+    /** Canonical String instances of codes below OFFSET_COMPUTED_5, filled on demand. Races are benign, because Strings are immutable. */
+    private static final String[] SHORT_CODES = new String[OFFSET_COMPUTED_5];
+    /** Canonical String instances of 5 letter codes, by page, filled on demand. */
+    private static final String[][] LONG_CODE_PAGES = new String[NUM_COMPUTED_5 >> PAGE_BITS][];
     static {
+        for (int i = 0; i < CODE_BY_INDEX_2.length; ++i) {
+            CODE_BY_INDEX_2[i] = (short)(OFFSET_COMPUTED_2 + i);
+        }
+        int numLong = 0;
+        for (final String languageCode : FREQUENT_LANGUAGE_CODES) {
+            if (languageCode.length() == 5)
+                ++numLong;
+        }
+        FREQUENT_INDEXES_5 = new int[numLong];
+        FREQUENT_CODES_5 = new int[numLong];
+        numLong = 0;
         for (int i = 0; i < FREQUENT_LANGUAGE_CODES.length; ++i) {
-            FREQUENT_LANGUAGE_CODES_MAP.put(FREQUENT_LANGUAGE_CODES[i], Integer.valueOf(i + 1));
+            final String languageCode = FREQUENT_LANGUAGE_CODES[i];
+            SHORT_CODES[i + 1] = languageCode;
+            if (languageCode.length() == 2) {
+                final int index = index2(languageCode.charAt(0), languageCode.charAt(1));
+                CODE_BY_INDEX_2[index] = (short)(i + 1);
+                SHORT_CODES[OFFSET_COMPUTED_2 + index] = languageCode;
+            } else {
+                final int index = index5(languageCode.charAt(0), languageCode.charAt(1), languageCode.charAt(2), languageCode.charAt(3), languageCode.charAt(4));
+                FREQUENT_INDEXES_5[numLong] = index;
+                FREQUENT_CODES_5[numLong] = i + 1;
+                ++numLong;
+                storeLong(index, languageCode);
+            }
         }
     }
 
     private LanguageKeyConverter() { }
 
+    /** Returns the position of a 2 letter code, or a negative value if any of the characters is not an ASCII lowercase letter.
+     * The characters are validated without branches. */
+    private static int index2(final int c0, final int c1) {
+        final int d0 = c0 - 'a';
+        final int d1 = c1 - 'a';
+        final int invalid = (d0 | d1 | (25 - d0) | (25 - d1)) >> 31;     // -1 if any of the letters is out of range, else 0
+        return (((c0 & 0x1f) << 5) + (c1 & 0x1f)) | invalid;
+    }
+
+    /** Returns the position of a 5 letter code of pattern "xx_XX", or a negative value if it does not match the pattern.
+     * The characters are validated without branches. */
+    private static int index5(final int c0, final int c1, final int c2, final int c3, final int c4) {
+        final int d0 = c0 - 'a';
+        final int d1 = c1 - 'a';
+        final int d3 = c3 - 'A';
+        final int d4 = c4 - 'A';
+        final int invalid = (d0 | d1 | d3 | d4 | (25 - d0) | (25 - d1) | (25 - d3) | (25 - d4) | -(c2 ^ '_')) >> 31;
+        return (((c0 & 0x1f) << 15) + ((c1 & 0x1f) << 10) + ((c3 & 0x1f) << 5) + (c4 & 0x1f)) | invalid;
+    }
+
+    private static int codeOfIndex5(final int index) {
+        for (int i = 0; i < FREQUENT_INDEXES_5.length; ++i) {
+            if (FREQUENT_INDEXES_5[i] == index)
+                return FREQUENT_CODES_5[i];
+        }
+        return OFFSET_COMPUTED_5 + index;
+    }
+
+    private static void storeLong(final int index, final String languageCode) {
+        String[] page = LONG_CODE_PAGES[index >> PAGE_BITS];
+        if (page == null) {
+            page = new String[1 << PAGE_BITS];
+            LONG_CODE_PAGES[index >> PAGE_BITS] = page;
+        }
+        page[index & ((1 << PAGE_BITS) - 1)] = languageCode;
+    }
+
     /** convert a language code string into a number, or return 0 if the code does not conform to the spec.
      * Frequently occurring codes will get small numbers. */
     public static int languageCodeToInt(final String languageCode) {
-        final Integer frequent = FREQUENT_LANGUAGE_CODES_MAP.get(languageCode);
-        if (frequent != null)
-            return frequent.intValue();
-        // error check
-        if (languageCode.length() < 2
-          || !CharTestsASCII.isAsciiLowerCase(languageCode.charAt(0))
-          || !CharTestsASCII.isAsciiLowerCase(languageCode.charAt(1))) {
-            // not OK
-            return 0;
+        return languageCodeToInt((CharSequence)languageCode);
+    }
+
+    /** Same as languageCodeToInt(String), for any character sequence. */
+    public static int languageCodeToInt(final CharSequence languageCode) {
+        final int length = languageCode.length();
+        if (length == 2) {
+            final int index = index2(languageCode.charAt(0), languageCode.charAt(1));
+            return index < 0 ? 0 : CODE_BY_INDEX_2[index];
         }
-        if (languageCode.length() == 2) {
-            return OFFSET_COMPUTED_2 + ((languageCode.charAt(0) & 0x1f) << 5) + (languageCode.charAt(1) & 0x1f);
+        if (length == 5) {
+            final int index = index5(languageCode.charAt(0), languageCode.charAt(1), languageCode.charAt(2), languageCode.charAt(3), languageCode.charAt(4));
+            return index < 0 ? 0 : codeOfIndex5(index);
         }
-        if (languageCode.charAt(2) != '_'
-          || languageCode.length() != 5
-          || !CharTestsASCII.isAsciiUpperCase(languageCode.charAt(3))
-          || !CharTestsASCII.isAsciiUpperCase(languageCode.charAt(4))) {
-            return 0;
+        return 0;
+    }
+
+    /** Same as languageCodeToInt(String), for a code stored as ASCII bytes in buffer[offset .. offset + length - 1]. */
+    public static int languageCodeToInt(final byte[] buffer, final int offset, final int length) {
+        if (length == 2) {
+            final int index = index2(buffer[offset] & 0xff, buffer[offset + 1] & 0xff);
+            return index < 0 ? 0 : CODE_BY_INDEX_2[index];
         }
-        // default: by formula
-        return OFFSET_COMPUTED_5
-          + ((languageCode.charAt(0) & 0x1f) << 15)
-          + ((languageCode.charAt(1) & 0x1f) << 10)
-          + ((languageCode.charAt(3) & 0x1f) <<  5)
-          + ((languageCode.charAt(4) & 0x1f));
+        if (length == 5) {
+            final int index = index5(buffer[offset] & 0xff, buffer[offset + 1] & 0xff, buffer[offset + 2] & 0xff,
+              buffer[offset + 3] & 0xff, buffer[offset + 4] & 0xff);
+            return index < 0 ? 0 : codeOfIndex5(index);
+        }
+        return 0;
     }
 
-    public static String intToLanguageCode(int languageCodeIndex) {
-        if (languageCodeIndex <= 0)
-            return null;  // error
-        if (languageCodeIndex <= FREQUENT_LANGUAGE_CODES.length)
-            return FREQUENT_LANGUAGE_CODES[languageCodeIndex - 1];
-        if (languageCodeIndex < OFFSET_COMPUTED_2 || languageCodeIndex >= OFFSET_COMPUTED_5 + (1 << 20))
+    /** Returns the language code for a number, or null if the number does not represent a code. Repeated calls return the same String instance. */
+    public static String intToLanguageCode(final int languageCodeIndex) {
+        if (languageCodeIndex <= 0 || languageCodeIndex >= CODE_LIMIT)
             return null;  // error
         if (languageCodeIndex < OFFSET_COMPUTED_5) {
             // short form
-            languageCodeIndex -= OFFSET_COMPUTED_2;
-            return String.valueOf((char)('a' + (languageCodeIndex >> 5) - 1))
-                 + String.valueOf((char)('a' + (languageCodeIndex & 0x1f) - 1));
+            String languageCode = SHORT_CODES[languageCodeIndex];
+            if (languageCode == null && languageCodeIndex >= OFFSET_COMPUTED_2) {
+                final int index = languageCodeIndex - OFFSET_COMPUTED_2;
+                languageCode = new String(new char[] { (char)('a' + (index >> 5) - 1), (char)('a' + (index & 0x1f) - 1) });
+                SHORT_CODES[languageCodeIndex] = languageCode;
+            }
+            return languageCode;
         }
         // long form
-        languageCodeIndex -= OFFSET_COMPUTED_5;
-        return String.valueOf((char)('a' - 1 + (languageCodeIndex >> 15)))
-          + String.valueOf((char)('a' - 1 + ((languageCodeIndex >> 10) & 0x1f)))
-          + "_"
-          + String.valueOf((char)('A' - 1 + ((languageCodeIndex >> 5) & 0x1f)))
-          + String.valueOf((char)('A' - 1 + ((languageCodeIndex) & 0x1f)));
+        final int index = languageCodeIndex - OFFSET_COMPUTED_5;
+        final String[] page = LONG_CODE_PAGES[index >> PAGE_BITS];
+        if (page != null) {
+            final String languageCode = page[index & ((1 << PAGE_BITS) - 1)];
+            if (languageCode != null)
+                return languageCode;
+        }
+        final String languageCode = new String(new char[] {
+            (char)('a' - 1 + (index >> 15)),
+            (char)('a' - 1 + ((index >> 10) & 0x1f)),
+            '_',
+            (char)('A' - 1 + ((index >> 5) & 0x1f)),
+            (char)('A' - 1 + (index & 0x1f))
+        });
+        storeLong(index, languageCode);
+        return languageCode;
+    }
+
+    /** Converts a column of language codes into numbers. Invalid or null codes are converted to 0. */
+    public static void languageCodesToInt(final CharSequence[] languageCodes, final int[] result) {
+        if (result.length < languageCodes.length)
+            throw new IllegalArgumentException("Result column too small: " + result.length + " < " + languageCodes.length);
+        for (int i = 0; i < languageCodes.length; ++i) {
+            final CharSequence languageCode = languageCodes[i];
+            result[i] = languageCode == null ? 0 : languageCodeToInt(languageCode);
+        }
+    }
+
+    /** Converts a column of numbers into language codes. Numbers which do not represent a code are converted to null. */
+    public static void intToLanguageCodes(final int[] languageCodeIndexes, final String[] result) {
+        if (result.length < languageCodeIndexes.length)
+            throw new IllegalArgumentException("Result column too small: " + result.length + " < " + languageCodeIndexes.length);
+        for (int i = 0; i < languageCodeIndexes.length; ++i) {
+            result[i] = intToLanguageCode(languageCodeIndexes[i]);
+        }
     }
 
     /** Fill cache entries for all known languages.
@@ -80,14 +182,10 @@ public final class LanguageKeyConverter {
         final String[] languages = Locale.getISOLanguages();
         for (int i = 0; i < languages.length; ++i) {
             final String languageCode = languages[i];
-            final Integer code = FREQUENT_LANGUAGE_CODES_MAP.get(languageCode);
-            if (code == null) {
+            final int code = languageCodeToInt(languageCode);
+            if (code > 0 && code < OFFSET_COMPUTED_5 && SHORT_CODES[code] == null) {
                 // not yet in cache
-                final int newCode = languageCodeToInt(languageCode);
-                if (newCode > 0) {
-                    // valid code: store it with the predictable index
-                    FREQUENT_LANGUAGE_CODES_MAP.putIfAbsent(languageCode, Integer.valueOf(newCode));
-                }
+                SHORT_CODES[code] = languageCode;
             }
         }
     }
@@ -7,11 +7,22 @@ import java.util.Set;
 
 import de.jpaw.api.iso.CurrencyData;
 import de.jpaw.api.iso.CurrencyDataProvider;
+import de.jpaw.api.iso.CurrencyRegistry;
 
+/** Provides the currencies known to the JRE. All available currencies are preloaded into a registry, and lookups return canonical instances. */
 public final class JavaCurrencyDataProvider implements CurrencyDataProvider {
     public static final JavaCurrencyDataProvider INSTANCE = new JavaCurrencyDataProvider();
 
-    private JavaCurrencyDataProvider() { }
+    private final CurrencyRegistry registry;
+
+    private JavaCurrencyDataProvider() {
+        final Set<Currency> allJavaCurrencies = Currency.getAvailableCurrencies();
+        final List<CurrencyData> all = new ArrayList<>(allJavaCurrencies.size());
+        for (final Currency c : allJavaCurrencies) {
+            all.add(new JavaCurrencyData(c));
+        }
+        registry = new CurrencyRegistry(all);
+    }
 
     public static final class JavaCurrencyData implements CurrencyData {
         private final Currency currency;
@@ -47,6 +58,9 @@ public final class JavaCurrencyDataProvider implements CurrencyDataProvider {
     }
     @Override
     public CurrencyData get(final String key) {
+        final CurrencyData cd = registry.get(key);
+        if (cd != null)
+            return cd;
         try {
             return new JavaCurrencyData(Currency.getInstance(key));
         } catch (final IllegalArgumentException e) {
@@ -54,6 +68,21 @@ public final class JavaCurrencyDataProvider implements CurrencyDataProvider {
         }
     }
 
+    @Override
+    public CurrencyData get(final int currencyCodeIndex) {
+        return registry.get(currencyCodeIndex);
+    }
+
+    @Override
+    public CurrencyData getByNumericCode(final int numericCode) {
+        return registry.getByNumericCode(numericCode);
+    }
+
+    /** Returns the registry of all preloaded currencies. */
+    public CurrencyRegistry getRegistry() {
+        return registry;
+    }
+
     @Override
     public void set(final String key, final CurrencyData data) {
         throw new UnsupportedOperationException("Cannot create new currencies");
@@ -70,11 +99,6 @@ public final class JavaCurrencyDataProvider implements CurrencyDataProvider {
 
     @Override
     public List<CurrencyData> getAll() {
-        final Set<Currency> allJavaCurrencies = Currency.getAvailableCurrencies();
-        final List<CurrencyData> result = new ArrayList<>(allJavaCurrencies.size());
-        for (final Currency c : allJavaCurrencies) {
-            result.add(INSTANCE.get(c.getCurrencyCode()));
-        }
-        return result;
+        return new ArrayList<>(registry.getAll());
     }
 }
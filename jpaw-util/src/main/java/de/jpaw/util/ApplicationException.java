@@ -15,6 +15,8 @@
  */
 package de.jpaw.util;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -182,6 +184,7 @@ public class ApplicationException extends RuntimeException {
     }
 
     private static final Map<Integer, String> CODE_TO_DESCRIPTION = new ConcurrentHashMap<>(2000);
+    private static volatile DescriptionTable descriptionTable = new DescriptionTable(4096);
     private static final Map<Integer, Integer> DUPLICATE_CODE_COUNTER = new ConcurrentHashMap<>(2000);
     private static final Integer ONE = Integer.valueOf(1);
 
@@ -206,6 +209,7 @@ public class ApplicationException extends RuntimeException {
             }
             // Validate that the exception code has not been used before. In case it has, throw an exception.
             final String oldDescription = CODE_TO_DESCRIPTION.put(errorCodeBoxed, description);
+            storeDescription(errorCode, description);
             if (oldDescription != null) {
                 LOGGER.error("Overwriting error message for {} with '{}' (previously '{}')", errorCodeBoxed, description, oldDescription);
                 // throw new IllegalArgumentException("duplicate error code");
@@ -224,6 +228,77 @@ public class ApplicationException extends RuntimeException {
 
     protected static DuplicateCheckingMap codeToDescription = new DuplicateCheckingMap();
 
+    /**
+     * Open addressing hash table of error codes to descriptions, which allows lookups without boxing the code.
+     * New codes are inserted in place (under the lock of storeDescription), and become visible to readers by a release store of the code.
+     * A copy is created only if the table must grow, the copy then replaces the published instance.
+     */
+    private static final class DescriptionTable {
+        private static final VarHandle CODES = MethodHandles.arrayElementVarHandle(int[].class);
+        private final int[] codes;          // 0 marks an unused slot (0 is not a valid error code)
+        private final String[] descriptions;
+        private int size;                   // only accessed under the lock
+
+        private DescriptionTable(final int capacity) {
+            this.codes = new int[capacity];
+            this.descriptions = new String[capacity];
+        }
+
+        private DescriptionTable(final DescriptionTable old, final int capacity) {
+            this(capacity);
+            for (int i = 0; i < old.codes.length; ++i) {
+                if (old.codes[i] != 0)
+                    put(old.codes[i], old.descriptions[i]);
+            }
+        }
+
+        private static int slot(final int errorCode, final int mask) {
+            return (errorCode * 0x9E3779B9) >>> 7 & mask;
+        }
+
+        /** Returns true if one more code can be added without exceeding a load factor of 50%. */
+        private boolean hasSpace() {
+            return (size + 1) * 2 <= codes.length;
+        }
+
+        /** Inserts or replaces a description. Must be called under the lock. */
+        private void put(final int errorCode, final String description) {
+            final int mask = codes.length - 1;
+            int i = slot(errorCode, mask);
+            while (codes[i] != 0 && codes[i] != errorCode) {
+                i = (i + 1) & mask;
+            }
+            descriptions[i] = description;      // Strings are immutable, readers see either the old or the new one
+            if (codes[i] == 0) {
+                CODES.setRelease(codes, i, errorCode);  // publishes the description written before
+                ++size;
+            }
+        }
+
+        private String get(final int errorCode) {
+            final int mask = codes.length - 1;
+            for (int i = slot(errorCode, mask);; i = (i + 1) & mask) {
+                final int code = (int)CODES.getAcquire(codes, i);
+                if (code == errorCode)
+                    return descriptions[i];
+                if (code == 0)
+                    return null;
+            }
+        }
+    }
+
+    private static synchronized void storeDescription(final int errorCode, final String description) {
+        DescriptionTable table = descriptionTable;
+        if (!table.hasSpace()) {
+            // grow: the new table is filled completely before it is published
+            table = new DescriptionTable(table, table.codes.length * 2);
+            table.put(errorCode, description);
+            descriptionTable = table;
+        } else {
+            table.put(errorCode, description);
+        }
+    }
+
     public static void registerCode(final int errorCode, final String description) {
         codeToDescription.put(errorCode, description);
     }
@@ -261,11 +336,66 @@ public class ApplicationException extends RuntimeException {
         return foundDuplicates;
     }
 
+    /** The highest classification which can be configured for stackless exceptions (the classification of Integer.MAX_VALUE). */
+    private static final int MAX_CLASSIFICATION = Integer.MAX_VALUE / CLASSIFICATION_FACTOR;
+    private static final byte MODE_DEFAULT = 0;
+    private static final byte MODE_WITH_STACK_TRACE = 1;
+    private static final byte MODE_STACKLESS = 2;
+    private static final StackTraceElement[] NO_STACK_TRACE = new StackTraceElement[0];
+
+    /** If set, exceptions are created without stack trace, unless configured differently for their classification. */
+    private static volatile boolean stacklessDefault = Boolean.getBoolean("de.jpaw.util.ApplicationException.stackless");
+    /** Configuration per classification. The array is never modified after publication, updates replace it (they are rare). */
+    private static volatile byte[] stackTraceModeByClassification = new byte[MAX_CLASSIFICATION + 1];
+
+    private static synchronized void setStackTraceMode(final int classification, final byte mode) {
+        if (classification < 0 || classification > MAX_CLASSIFICATION)
+            throw new IllegalArgumentException("Classification " + classification + " out of range 0.." + MAX_CLASSIFICATION);
+        final byte[] modes = stackTraceModeByClassification.clone();
+        modes[classification] = mode;
+        stackTraceModeByClassification = modes;
+    }
+
+    /**
+     * Defines if exceptions are created without stack trace, for all classifications which have not been configured individually.
+     * The initial value is taken from the system property de.jpaw.util.ApplicationException.stackless (default false).
+     * Creating the stack trace is the most expensive part of creating an exception, and it is often not required for validation errors
+     * which are caught and reported as error codes.
+     * The setting should be done at application startup.
+     */
+    public static void setStacklessDefault(final boolean stackless) {
+        stacklessDefault = stackless;
+    }
+
+    /** Returns if exceptions of classifications which have not been configured individually are created without stack trace. */
+    public static boolean isStacklessDefault() {
+        return stacklessDefault;
+    }
+
+    /** Defines if exceptions of the given classification (for example CL_PARSER_ERROR) are created without stack trace.
+     * The change is visible to all threads, as for setStacklessDefault(). */
+    public static void setStackless(final int classification, final boolean stackless) {
+        setStackTraceMode(classification, stackless ? MODE_STACKLESS : MODE_WITH_STACK_TRACE);
+    }
+
+    /** Resets the configuration of a classification, which then follows the default setting again. */
+    public static void resetStackless(final int classification) {
+        setStackTraceMode(classification, MODE_DEFAULT);
+    }
+
+    /** Returns if exceptions of the given error code are created without stack trace. */
+    public static boolean isStackless(final int errorCode) {
+        final int classification = errorCode / CLASSIFICATION_FACTOR;
+        final byte mode = classification >= 0 ? stackTraceModeByClassification[classification] : MODE_DEFAULT;
+        return mode == MODE_DEFAULT ? stacklessDefault : mode == MODE_STACKLESS;
+    }
+
     private final int errorCode;      // the unique 9 digit exception code
     private final String detailedMessage;// any specific message provided by the application
     private final String fieldName;   // if known, the name of the field where the error occurred
     private final String className;   // if known, the name of the class which contained the field
     private final Integer index;      // if application, a character index or array index
+    private boolean initialized;      // set at the end of construction, the stack trace is filled in (or not) only then
 
     /** Returns the error code for this exception */
     public final int getErrorCode() {
@@ -280,6 +410,11 @@ public class ApplicationException extends RuntimeException {
         this.fieldName = fieldName;
         this.className = className;
         this.index = index;
+        initialized = true;
+        if (isStackless(errorCode))
+            setStackTrace(NO_STACK_TRACE);
+        else
+            fillInStackTrace();  // must be called from the constructor, to skip the same frames as during construction of Throwable
     }
 
     /** Creates a new ApplicationException for a given error code, with some explanatory details. */
@@ -290,6 +425,29 @@ public class ApplicationException extends RuntimeException {
         this.fieldName = null;
         this.className = null;
         this.index = null;
+        initialized = true;
+        if (isStackless(errorCode))
+            setStackTrace(NO_STACK_TRACE);
+        else
+            fillInStackTrace();  // must be called from the constructor, to skip the same frames as during construction of Throwable
+    }
+
+    /**
+     * Creates a new ApplicationException for a given error code, with some explanatory details, and explicit control of the stack trace.
+     * Instances created without stack trace are immutable (no suppressed exceptions are recorded, and the stack trace cannot be set),
+     * and can therefore be preallocated by subclasses and thrown repeatedly, for example as static final fields for frequent validation errors.
+     * Instances created by this constructor do not support initCause().
+     */
+    protected ApplicationException(final int errorCode, final String detailedMessage, final boolean withStackTrace) {
+        super("Code " + Integer.toString(errorCode) + (detailedMessage == null ? "" : " @ " + detailedMessage), null, withStackTrace, withStackTrace);
+        this.errorCode = errorCode;
+        this.detailedMessage = detailedMessage;
+        this.fieldName = null;
+        this.className = null;
+        this.index = null;
+        initialized = true;
+        if (withStackTrace)
+            fillInStackTrace();
     }
 
     /** Creates a new ApplicationException for a given error code, without any further details. */
@@ -300,6 +458,18 @@ public class ApplicationException extends RuntimeException {
         this.fieldName = null;
         this.className = null;
         this.index = null;
+        initialized = true;
+        if (isStackless(errorCode))
+            setStackTrace(NO_STACK_TRACE);
+        else
+            fillInStackTrace();  // must be called from the constructor, to skip the same frames as during construction of Throwable
+    }
+
+    /** Skips the stack trace walk of the Throwable constructor. The constructors of this class fill in the stack trace at their end,
+     * once the error code is known, or set an empty stack trace if the exception should be stackless. */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return initialized ? super.fillInStackTrace() : this;
     }
 
     // some boilerplate code to retrieve exception properties
@@ -347,7 +517,7 @@ public class ApplicationException extends RuntimeException {
 
     /** returns a text representation of an error code, independent of an existing exception */
     public static String codeToString(final int code) {
-        final String msg = CODE_TO_DESCRIPTION.get(Integer.valueOf(code));
+        final String msg = code == 0 ? null : descriptionTable.get(code);
         return msg != null ? msg : "unknown code";
     }
 
@@ -25,7 +25,10 @@ import java.io.InputStream;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
 import java.io.OutputStream;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
 
 /**
@@ -49,6 +52,7 @@ public final class ByteArray implements Externalizable, Cloneable {
     private final byte[] buffer;
     private final int offset;
     private final int length;
+    private transient int hash;     // cached hash code, 0 if not yet computed (as for String)
     private ByteArray extraFieldJustRequiredForDeserialization = null;  // transient temporary field
 
     private static final byte[] ZERO_JAVA_BYTE_ARRAY = new byte[0];
@@ -80,7 +84,7 @@ public final class ByteArray implements Externalizable, Cloneable {
 
     /**
      * Wraps an existing byte buffer.
-     * This method is unsafe with respect to that a later modified content of the parameter will lead to undesired results.
+     * This method is unsafe with respect to that a later modified content of the parameter will lead to undesired results (including a stale cached hash code).
      * It is provided however in order to avoid inefficient data copies, for cases when the parameter byte array is not used otherwise afterwards.
      */
     public static ByteArray wrap(final byte[] source) {
@@ -194,7 +198,7 @@ public final class ByteArray implements Externalizable, Cloneable {
         if (xoffset < 0 || xlength < 0 || xoffset + xlength > this.length)
             throw new IllegalArgumentException();
         final byte[] newBuffer = new byte[xlength];
-        System.arraycopy(buffer, xoffset, newBuffer, 0, xlength);
+        System.arraycopy(buffer, offset + xoffset, newBuffer, 0, xlength);
         // create a new ByteArray using the new buffer
         return new ByteArray(newBuffer, true);
     }
@@ -269,6 +273,118 @@ public final class ByteArray implements Externalizable, Cloneable {
         return buffer[offset + pos];
     }
 
+    private void checkRange(final int pos, final int size) {
+        if (pos < 0 || size < 0 || pos > length - size)
+            throw new IllegalArgumentException();
+    }
+
+    /** Returns the short at position pos. Big endian. */
+    public short getShort(final int pos) {
+        checkRange(pos, 2);
+        return (short)ByteUtil.SHORT_BE.get(buffer, offset + pos);
+    }
+
+    /** Returns the int at position pos. Big endian. */
+    public int getInt(final int pos) {
+        checkRange(pos, 4);
+        return (int)ByteUtil.INT_BE.get(buffer, offset + pos);
+    }
+
+    /** Returns the long at position pos. Big endian. */
+    public long getLong(final int pos) {
+        checkRange(pos, 8);
+        return (long)ByteUtil.LONG_BE.get(buffer, offset + pos);
+    }
+
+    public float getFloat(final int pos) {
+        return Float.intBitsToFloat(getInt(pos));
+    }
+
+    public double getDouble(final int pos) {
+        return Double.longBitsToDouble(getLong(pos));
+    }
+
+    /** Returns the short at position pos. Little endian. */
+    public short getShortLE(final int pos) {
+        checkRange(pos, 2);
+        return (short)ByteUtil.SHORT_LE.get(buffer, offset + pos);
+    }
+
+    /** Returns the int at position pos. Little endian. */
+    public int getIntLE(final int pos) {
+        checkRange(pos, 4);
+        return (int)ByteUtil.INT_LE.get(buffer, offset + pos);
+    }
+
+    /** Returns the long at position pos. Little endian. */
+    public long getLongLE(final int pos) {
+        checkRange(pos, 8);
+        return (long)ByteUtil.LONG_LE.get(buffer, offset + pos);
+    }
+
+    public float getFloatLE(final int pos) {
+        return Float.intBitsToFloat(getIntLE(pos));
+    }
+
+    public double getDoubleLE(final int pos) {
+        return Double.longBitsToDouble(getLongLE(pos));
+    }
+
+    /** Returns the number of bytes of the varint at position pos. Varints which are too long or exceed 64 bits are rejected. */
+    public int getVarIntSize(final int pos) {
+        int i = pos;
+        do {
+            checkRange(i, 1);
+            if (i - pos >= 10)
+                throw new IllegalArgumentException("varint too long at position " + pos);
+        } while (buffer[offset + i++] < 0);
+        if (i - pos == 10 && buffer[offset + i - 1] > 1)
+            throw new IllegalArgumentException("varint exceeds 64 bits at position " + pos);  // only 1 bit left for the 10th byte
+        return i - pos;
+    }
+
+    /** Returns the unsigned varint at position pos, as written by ByteBuilder.writeVarLong(). Use getVarIntSize() to obtain its length. */
+    public long getVarLong(final int pos) {
+        final int size = getVarIntSize(pos);
+        long result = 0;
+        for (int i = size - 1; i >= 0; --i) {
+            result = (result << 7) | (buffer[offset + pos + i] & 0x7f);
+        }
+        return result;
+    }
+
+    /** Returns the zigzag encoded varint at position pos, as written by ByteBuilder.writeZigZagVarInt(). */
+    public int getZigZagVarInt(final int pos) {
+        return ByteUtil.zigZagDecode((int)getVarLong(pos));
+    }
+
+    /** Returns the zigzag encoded varint at position pos, as written by ByteBuilder.writeZigZagVarLong(). */
+    public long getZigZagVarLong(final int pos) {
+        return ByteUtil.zigZagDecode(getVarLong(pos));
+    }
+
+    /** Reads length ints in the specified byte order, starting at position pos, into an array. */
+    public void getInts(final int pos, final int[] dst, final int dstOffset, final int length, final ByteOrder order) {
+        checkRange(pos, 4 * length);
+        final VarHandle view = order == ByteOrder.BIG_ENDIAN ? ByteUtil.INT_BE : ByteUtil.INT_LE;
+        int from = offset + pos;
+        for (int i = 0; i < length; ++i) {
+            dst[dstOffset + i] = (int)view.get(buffer, from);
+            from += 4;
+        }
+    }
+
+    /** Reads length longs in the specified byte order, starting at position pos, into an array. */
+    public void getLongs(final int pos, final long[] dst, final int dstOffset, final int length, final ByteOrder order) {
+        checkRange(pos, 8 * length);
+        final VarHandle view = order == ByteOrder.BIG_ENDIAN ? ByteUtil.LONG_BE : ByteUtil.LONG_LE;
+        int from = offset + pos;
+        for (int i = 0; i < length; ++i) {
+            dst[dstOffset + i] = (long)view.get(buffer, from);
+            from += 8;
+        }
+    }
+
     /** Provides the contents of this ByteArray to some InputStream. */
     public ByteArrayInputStream asByteArrayInputStream() {
         return new ByteArrayInputStream(buffer, offset, length());
@@ -294,11 +410,7 @@ public final class ByteArray implements Externalizable, Cloneable {
     private boolean contentEqualsSub(final byte[] dst, final int dstOffset, final int dstLength) {
         if (length != dstLength)
             return false;
-        for (int i = 0; i < dstLength; ++i) {
-            if (buffer[offset + i] != dst[dstOffset + i])
-                return false;
-        }
-        return true;
+        return Arrays.equals(buffer, offset, offset + length, dst, dstOffset, dstOffset + dstLength);
     }
 
     // following: all arguments must be not null
@@ -314,6 +426,17 @@ public final class ByteArray implements Externalizable, Cloneable {
         return contentEqualsSub(that, thatOffset, thatLength);
     }
 
+    /** Returns the index of the first byte which differs between this and that, or -1 if the contents is equal.
+     * If one is a prefix of the other, the result is the length of the shorter one. */
+    public int mismatch(final ByteArray that) {
+        return Arrays.mismatch(buffer, offset, offset + length, that.buffer, that.offset, that.offset + that.length);
+    }
+
+    /** Returns true if the backing buffer contains exactly the bytes of this instance, i.e. no bigger array is kept alive by this instance. */
+    public boolean isCompact() {
+        return offset == 0 && length == buffer.length;
+    }
+
     // returns if the two instances share the same backing buffer (for debugging)
     public boolean shareBuffer(final ByteArray that) {
         return buffer == that.buffer;
@@ -321,11 +444,16 @@ public final class ByteArray implements Externalizable, Cloneable {
 
     @Override
     public int hashCode() {
-        int hash = 997;
-        for (int i = 0; i < length; ++i) {
-            hash = 29 * hash + buffer[offset + i];
+        int h = hash;
+        if (h == 0) {
+            // the contents is immutable, therefore the hash is computed once only. Races just compute the same value again.
+            h = 997;
+            for (int i = 0; i < length; ++i) {
+                h = 29 * h + buffer[offset + i];
+            }
+            hash = h;
         }
-        return hash;
+        return h;
     }
 
     // two ByteArrays are considered equal if they have the same visible contents
@@ -336,14 +464,9 @@ public final class ByteArray implements Externalizable, Cloneable {
         if (that == null || getClass() != that.getClass())
             return false;
         final ByteArray xthat = (ByteArray)that;
-        // same as contentEqualsSub(..) now
-        if (this.length != xthat.length)
-            return false;
-        for (int i = 0; i < length; ++i) {
-            if (buffer[offset + i] != xthat.buffer[xthat.offset + i])
-                return false;
-        }
-        return true;
+        if (hash != 0 && xthat.hash != 0 && hash != xthat.hash)
+            return false;   // both hashes have been computed already and differ
+        return contentEqualsSub(xthat.buffer, xthat.offset, xthat.length);
     }
 
     // support function to allow dumping contents to DataOutput without the need to expose our internal buffer
@@ -0,0 +1,80 @@
+package de.jpaw.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A pool of canonical ByteArray instances, which allows duplicate keys (for example binary identifiers read from millions of records)
+ * to share a single instance, similar to String.intern().
+ * <p>
+ * The pool references its entries weakly, entries which are no longer used elsewhere are removed by the garbage collector.
+ * The pool is split into a number of segments, selected by the hash code, in order to reduce lock contention.
+ * Pooled instances never share a bigger backing buffer: an instance which is a slice of a bigger array is stored as a compact copy.
+ *
+ * @author Michael Bischoff
+ *
+ */
+public final class ByteArrayInternPool {
+    private static final int DEFAULT_SEGMENTS = 16;
+
+    private final Map<ByteArray, WeakReference<ByteArray>>[] segments;
+    private final int segmentMask;
+
+    public ByteArrayInternPool() {
+        this(DEFAULT_SEGMENTS);
+    }
+
+    /** Creates a pool with the given number of segments, which is rounded up to a power of 2. */
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public ByteArrayInternPool(final int numberOfSegments) {
+        if (numberOfSegments <= 0)
+            throw new IllegalArgumentException("Invalid number of segments " + numberOfSegments);
+        final int size = Math.max(Integer.highestOneBit(numberOfSegments - 1) << 1, 1);
+        segments = new Map[size];
+        for (int i = 0; i < size; ++i)
+            segments[i] = new WeakHashMap<ByteArray, WeakReference<ByteArray>>();
+        segmentMask = size - 1;
+    }
+
+    private Map<ByteArray, WeakReference<ByteArray>> segmentOf(final ByteArray key) {
+        final int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & segmentMask];
+    }
+
+    /** Returns the canonical instance with the same contents as the parameter. The parameter must not be null. */
+    public ByteArray intern(final ByteArray key) {
+        final Map<ByteArray, WeakReference<ByteArray>> segment = segmentOf(key);
+        synchronized (segment) {
+            final WeakReference<ByteArray> ref = segment.get(key);
+            if (ref != null) {
+                final ByteArray existing = ref.get();
+                if (existing != null)
+                    return existing;
+            }
+            final ByteArray canonical = key.isCompact() ? key : key.subArrayUnshared(0, key.length());
+            segment.put(canonical, new WeakReference<ByteArray>(canonical));
+            return canonical;
+        }
+    }
+
+    /** Returns the number of pooled instances. Entries which have been garbage collected may still be counted. */
+    public int size() {
+        int total = 0;
+        for (final Map<ByteArray, WeakReference<ByteArray>> segment : segments) {
+            synchronized (segment) {
+                total += segment.size();
+            }
+        }
+        return total;
+    }
+
+    /** Removes all entries. */
+    public void clear() {
+        for (final Map<ByteArray, WeakReference<ByteArray>> segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+}
@@ -19,7 +19,8 @@ import java.io.ByteArrayInputStream;
 import java.io.DataOutput;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.UTFDataFormatException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.nio.charset.Charset;
 
 /**
@@ -114,19 +115,82 @@ public final class ByteBuilder implements DataOutput {
     }
     public void append(final String s) {
         if (s.length() > 0) {
-            append(s.getBytes(charset));
+            if (ByteArray.CHARSET_UTF8.equals(charset))
+                appendUtf8(s);
+            else
+                append(s.getBytes(charset));
         }
     }
-    // append a single double-byte character (BMP 0)
+
+    /** Appends the characters in UTF-8 encoding, independent of the character set of this instance, without intermediate byte arrays.
+     * Unpaired surrogates are replaced by '?', as done by String.getBytes(). */
+    public void appendUtf8(final CharSequence s) {
+        final int len = s.length();
+        if (currentLength + len > currentAllocSize)
+            createMoreSpace(len);
+        byte[] buf = buffer;
+        int pos = currentLength;
+        int i = 0;
+        // fast path for ASCII characters: 8 characters per step
+        while (i + 8 <= len) {
+            final char c0 = s.charAt(i);
+            final char c1 = s.charAt(i + 1);
+            final char c2 = s.charAt(i + 2);
+            final char c3 = s.charAt(i + 3);
+            final char c4 = s.charAt(i + 4);
+            final char c5 = s.charAt(i + 5);
+            final char c6 = s.charAt(i + 6);
+            final char c7 = s.charAt(i + 7);
+            if ((c0 | c1 | c2 | c3 | c4 | c5 | c6 | c7) >= 0x80)
+                break;
+            buf[pos]     = (byte)c0;
+            buf[pos + 1] = (byte)c1;
+            buf[pos + 2] = (byte)c2;
+            buf[pos + 3] = (byte)c3;
+            buf[pos + 4] = (byte)c4;
+            buf[pos + 5] = (byte)c5;
+            buf[pos + 6] = (byte)c6;
+            buf[pos + 7] = (byte)c7;
+            pos += 8;
+            i += 8;
+        }
+        boolean reserved = false;   // so far, space for 1 byte per character has been reserved
+        while (i < len) {
+            final char c = s.charAt(i);
+            if (c < 0x80) {
+                buf[pos++] = (byte)c;
+                ++i;
+                continue;
+            }
+            if (!reserved) {
+                // worst case for the remaining characters: 3 bytes each (a surrogate pair needs 4 bytes for 2 characters)
+                final int needed = 3 * (len - i);
+                if (pos + needed > currentAllocSize) {
+                    currentLength = pos;
+                    createMoreSpace(needed);
+                    buf = buffer;
+                }
+                reserved = true;
+            }
+            final int cp = Utf8Encoding.codePointAt(s, i, len);
+            pos = Utf8Encoding.putUtf8(buf, pos, cp);
+            i += Character.charCount(cp);
+        }
+        currentLength = pos;
+    }
+
+    // append a single Unicode code point
     public void appendUnicode(final int c) {
         if (c <= 127) {
             // ASCII character: this is faster
             append((byte)c);
+        } else if (ByteArray.CHARSET_UTF8.equals(charset)) {
+            final int cp = Utf8Encoding.checkCodePoint(c);
+            if (currentLength + Utf8Encoding.MAX_BYTES_PER_CODE_POINT > currentAllocSize)
+                createMoreSpace(Utf8Encoding.MAX_BYTES_PER_CODE_POINT);
+            currentLength = Utf8Encoding.putUtf8(buffer, currentLength, cp);
         } else {
-            // this is weird! Can't we do it better?
-            final int[] tmp = new int[1];
-            tmp[0] = c;
-            append(new String(tmp, 0, 1).getBytes(charset));
+            append(new String(Character.toChars(c)).getBytes(charset));
         }
     }
     // append the contents of String, assuming all characters are single-byte. No test is done. Argument must not be null.
@@ -278,8 +342,8 @@ public final class ByteBuilder implements DataOutput {
     public void writeShort(final int n) {
         if (currentLength + 2 > currentAllocSize)
             createMoreSpace(2);
-        buffer[currentLength++] = (byte) (n >>> 8);
-        buffer[currentLength++] = (byte) n;
+        ByteUtil.SHORT_BE.set(buffer, currentLength, (short)n);
+        currentLength += 2;
     }
 
     @Override
@@ -296,10 +360,7 @@ public final class ByteBuilder implements DataOutput {
     public void writeInt(final int n) {
         if (currentLength + 4 > currentAllocSize)
             createMoreSpace(4);
-        buffer[currentLength] = (byte) (n >>> 24);
-        buffer[currentLength + 1] = (byte) (n >>> 16);
-        buffer[currentLength + 2] = (byte) (n >>> 8);
-        buffer[currentLength + 3] = (byte) n;
+        ByteUtil.INT_BE.set(buffer, currentLength, n);
         currentLength += 4;
     }
 
@@ -312,15 +373,7 @@ public final class ByteBuilder implements DataOutput {
     public void writeLong(final long n) {
         if (currentLength + 8 > currentAllocSize)
             createMoreSpace(8);
-        final int nn = (int)(n >> 32);
-        buffer[currentLength] = (byte) (nn >>> 24);
-        buffer[currentLength + 1] = (byte) (nn >>> 16);
-        buffer[currentLength + 2] = (byte) (nn >>> 8);
-        buffer[currentLength + 3] = (byte) nn;
-        buffer[currentLength + 4] = (byte) (n >>> 24);
-        buffer[currentLength + 5] = (byte) (n >>> 16);
-        buffer[currentLength + 6] = (byte) (n >>> 8);
-        buffer[currentLength + 7] = (byte) n;
+        ByteUtil.LONG_BE.set(buffer, currentLength, n);
         currentLength += 8;
     }
 
@@ -334,6 +387,96 @@ public final class ByteBuilder implements DataOutput {
         writeLong(Double.doubleToRawLongBits(v));
     }
 
+    ///////////////////////////////////////////////////
+    //
+    // little endian, variable length and bulk writes
+    //
+    ///////////////////////////////////////////////////
+
+    /** Append a short to the buffer. Little endian. */
+    public void writeShortLE(final int n) {
+        if (currentLength + 2 > currentAllocSize)
+            createMoreSpace(2);
+        ByteUtil.SHORT_LE.set(buffer, currentLength, (short)n);
+        currentLength += 2;
+    }
+
+    /** Append an int to the buffer. Little endian. */
+    public void writeIntLE(final int n) {
+        if (currentLength + 4 > currentAllocSize)
+            createMoreSpace(4);
+        ByteUtil.INT_LE.set(buffer, currentLength, n);
+        currentLength += 4;
+    }
+
+    /** Append a long to the buffer. Little endian. */
+    public void writeLongLE(final long n) {
+        if (currentLength + 8 > currentAllocSize)
+            createMoreSpace(8);
+        ByteUtil.LONG_LE.set(buffer, currentLength, n);
+        currentLength += 8;
+    }
+
+    public void writeFloatLE(final float v) {
+        writeIntLE(Float.floatToRawIntBits(v));
+    }
+
+    public void writeDoubleLE(final double v) {
+        writeLongLE(Double.doubleToRawLongBits(v));
+    }
+
+    /** Append an unsigned long as varint: 7 bits per byte, least significant group first, the high bit set in all but the last byte. */
+    public void writeVarLong(long n) {
+        if (currentLength + 10 > currentAllocSize)
+            createMoreSpace(10);
+        final byte[] buf = buffer;
+        int pos = currentLength;
+        while ((n & ~0x7fL) != 0) {
+            buf[pos++] = (byte)(n | 0x80);
+            n >>>= 7;
+        }
+        buf[pos++] = (byte)n;
+        currentLength = pos;
+    }
+
+    /** Append a signed int as zigzag encoded varint, which needs a single byte for values between -64 and 63. */
+    public void writeZigZagVarInt(final int n) {
+        writeVarLong(ByteUtil.zigZagEncode(n) & 0xffffffffL);
+    }
+
+    /** Append a signed long as zigzag encoded varint, which needs a single byte for values between -64 and 63. */
+    public void writeZigZagVarLong(final long n) {
+        writeVarLong(ByteUtil.zigZagEncode(n));
+    }
+
+    /** Append length ints of an array, starting at offset, in the specified byte order. */
+    public void writeInts(final int[] array, final int offset, final int length, final ByteOrder order) {
+        if (currentLength + 4 * length > currentAllocSize)
+            createMoreSpace(4 * length);
+        final VarHandle view = order == ByteOrder.BIG_ENDIAN ? ByteUtil.INT_BE : ByteUtil.INT_LE;
+        final byte[] buf = buffer;
+        int pos = currentLength;
+        for (int i = 0; i < length; ++i) {
+            view.set(buf, pos, array[offset + i]);
+            pos += 4;
+        }
+        currentLength = pos;
+    }
+
+    /** Append length longs of an array, starting at offset, in the specified byte order. */
+    public void writeLongs(final long[] array, final int offset, final int length, final ByteOrder order) {
+        if (currentLength + 8 * length > currentAllocSize)
+            createMoreSpace(8 * length);
+        final VarHandle view = order == ByteOrder.BIG_ENDIAN ? ByteUtil.LONG_BE : ByteUtil.LONG_LE;
+        final byte[] buf = buffer;
+        int pos = currentLength;
+        for (int i = 0; i < length; ++i) {
+            view.set(buf, pos, array[offset + i]);
+            pos += 8;
+        }
+        currentLength = pos;
+    }
+
     // writes s as ASCII string (1 byte per character)
     @Override
     public void writeBytes(final String s) throws IOException {
@@ -351,50 +494,40 @@ public final class ByteBuilder implements DataOutput {
         final int len = s.length();
         if (currentLength + 2 * len > currentAllocSize)
             createMoreSpace(2 * len);
+        final byte[] buf = buffer;
+        int pos = currentLength;
         for (int i = 0; i < len; ++i) {
             final char c = s.charAt(i);
-            buffer[currentLength++] = (byte) (c >>> 8);
-            buffer[currentLength++] = (byte) c;
+            buf[pos]     = (byte) (c >>> 8);
+            buf[pos + 1] = (byte) c;
+            pos += 2;
         }
+        currentLength = pos;
     }
 
     // writeUTF is weird, do not use. It uses a modified UTF-8 encoding which probably is not understood by applications written in other languages.
     @Override
     public void writeUTF(final String s) throws IOException {
         final int len = s.length(); // length in characters
-        int numBytes = len;         // length in bytes
-        for (int i = 0; i < len; ++i) {
-            final char c = s.charAt(i);
-            if (c < 0x80) {
-                if (c == 0)
-                    ++numBytes;
-            } else {
-                if (c < 0x800)
-                    ++numBytes;
-                else
-                    numBytes += 2;
-            }
-        }
-        if (numBytes > 65535)
-            throw new UTFDataFormatException("writeUTF called for String with " + numBytes + " bytes length");
+        final int numBytes = Utf8Encoding.modifiedUtf8Length(s);
         // all should be fine, now allocate space
         if (currentLength + 2 + numBytes > currentAllocSize)
             createMoreSpace(2 + numBytes);
+        final byte[] buf = buffer;
+        int pos = currentLength;
         // write the length
-        buffer[currentLength++] = (byte) (numBytes >>> 8);
-        buffer[currentLength++] = (byte) numBytes;
-        for (int i = 0; i < len; ++i) {
-            final int c = s.charAt(i);
-            if (c != 0 && c < 128) {
-                buffer[currentLength++] = (byte) c;
-            } else if (c < 0x800) {
-                buffer[currentLength++] = (byte) (0xC0 | (c >> 6));
-                buffer[currentLength++] = (byte) (0x80 | (0x3f & c));
-            } else {
-                buffer[currentLength++] = (byte) (0xe0 | (0x0f & (c >> 12)));
-                buffer[currentLength++] = (byte) (0x80 | (0x3f & (c >>  6)));
-                buffer[currentLength++] = (byte) (0x80 | (0x3f & c));
+        buf[pos++] = (byte) (numBytes >>> 8);
+        buf[pos++] = (byte) numBytes;
+        if (numBytes == len) {
+            // ASCII only, without NUL characters
+            for (int i = 0; i < len; ++i) {
+                buf[pos++] = (byte) s.charAt(i);
+            }
+        } else {
+            for (int i = 0; i < len; ++i) {
+                pos = Utf8Encoding.putModifiedUtf8(buf, pos, s.charAt(i));
             }
         }
+        currentLength = pos;
     }
 }
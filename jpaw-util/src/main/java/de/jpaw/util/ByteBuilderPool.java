@@ -0,0 +1,155 @@
+package de.jpaw.util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of ByteBuilder instances, to avoid the allocation of a new buffer (and its growth) for every serialization.
+ * <p>
+ * Platform threads keep one instance per thread in a ThreadLocal. Virtual threads (on JVMs which support them) are short-lived and numerous,
+ * therefore they share a small number of slots, selected by the thread id.
+ * Instances whose buffer has grown above the configured retention limit are not returned into the pool, which bounds the retained memory.
+ * Released instances are reset (length 0, UTF-8 character set).
+ * <p>
+ * Usage:
+ * <pre>
+ *     final ByteBuilder buffer = pool.acquire();
+ *     try {
+ *         ... // serialize
+ *     } finally {
+ *         pool.release(buffer);
+ *     }
+ * </pre>
+ * A released instance must not be used by the caller any more.
+ *
+ * @author Michael Bischoff
+ *
+ */
+public final class ByteBuilderPool {
+    private static final int DEFAULT_INITIAL_CAPACITY = 8128;
+    private static final int DEFAULT_MAX_RETAINED_CAPACITY = 1024 * 1024;
+    private static final MethodHandle IS_VIRTUAL = findIsVirtual();
+
+    /** A pool with the default initial capacity of ByteBuilder, retaining buffers up to 1 MB. */
+    public static final ByteBuilderPool DEFAULT = new ByteBuilderPool(DEFAULT_INITIAL_CAPACITY, DEFAULT_MAX_RETAINED_CAPACITY,
+      Runtime.getRuntime().availableProcessors() * 4);
+
+    private final int initialCapacity;
+    private final int maxRetainedCapacity;
+    private final ThreadLocal<ByteBuilder> perThread = new ThreadLocal<>();
+    private final AtomicReferenceArray<ByteBuilder> stripes;
+    private final int stripeMask;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder discards = new LongAdder();
+
+    /** Returns a handle to Thread.isVirtual() if the JVM provides it, or null. */
+    private static MethodHandle findIsVirtual() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (final NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private static boolean isVirtual(final Thread t) {
+        if (IS_VIRTUAL == null)
+            return false;
+        try {
+            return (boolean)IS_VIRTUAL.invokeExact(t);
+        } catch (final Throwable e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates a new pool.
+     *
+     * @param initialCapacity the buffer size of newly created instances
+     * @param maxRetainedCapacity instances with a bigger buffer are not returned into the pool
+     * @param numberOfStripes the number of shared slots for virtual threads, rounded up to a power of 2
+     */
+    public ByteBuilderPool(final int initialCapacity, final int maxRetainedCapacity, final int numberOfStripes) {
+        if (initialCapacity < 0 || maxRetainedCapacity < initialCapacity || numberOfStripes <= 0)
+            throw new IllegalArgumentException("Invalid pool parameters " + initialCapacity + ", " + maxRetainedCapacity + ", " + numberOfStripes);
+        this.initialCapacity = initialCapacity;
+        this.maxRetainedCapacity = maxRetainedCapacity;
+        final int size = Integer.highestOneBit(numberOfStripes - 1) << 1;
+        this.stripes = new AtomicReferenceArray<>(Math.max(size, 1));
+        this.stripeMask = stripes.length() - 1;
+    }
+
+    private int stripeOf(final Thread t) {
+        final long id = t.getId();
+        return (int)(id ^ (id >>> 32)) * 0x9E3779B9 >>> 16 & stripeMask;
+    }
+
+    /** Returns a pooled ByteBuilder of length 0, or a new one if none is available. */
+    public ByteBuilder acquire() {
+        final Thread t = Thread.currentThread();
+        final ByteBuilder pooled;
+        if (isVirtual(t)) {
+            pooled = stripes.getAndSet(stripeOf(t), null);
+        } else {
+            pooled = perThread.get();
+            if (pooled != null)
+                perThread.set(null);    // nested use in the same thread gets a different instance
+        }
+        if (pooled != null) {
+            hits.increment();
+            return pooled;
+        }
+        misses.increment();
+        return new ByteBuilder(initialCapacity, null);
+    }
+
+    /** Returns a ByteBuilder into the pool. The instance is reset, and discarded if its buffer exceeds the retention limit. */
+    public void release(final ByteBuilder buffer) {
+        if (buffer.getCurrentBuffer().length > maxRetainedCapacity) {
+            discards.increment();
+            return;
+        }
+        buffer.setLength(0);
+        buffer.setCharset(ByteArray.CHARSET_UTF8);
+        final Thread t = Thread.currentThread();
+        if (isVirtual(t)) {
+            if (!stripes.compareAndSet(stripeOf(t), null, buffer))
+                discards.increment();
+        } else {
+            if (perThread.get() == null)
+                perThread.set(buffer);
+            else
+                discards.increment();
+        }
+    }
+
+    /** Returns the number of acquire() calls which have been served from the pool. */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /** Returns the number of acquire() calls which had to create a new instance. */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /** Returns the number of released instances which have not been retained, either because of their size or because the slot was occupied. */
+    public long getDiscards() {
+        return discards.sum();
+    }
+
+    /** Resets the statistics counters. */
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        discards.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "ByteBuilderPool[hits=" + getHits() + ", misses=" + getMisses() + ", discards=" + getDiscards() + "]";
+    }
+}
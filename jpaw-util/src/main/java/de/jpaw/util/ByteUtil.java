@@ -1,13 +1,50 @@
 package de.jpaw.util;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
 //import org.slf4j.Logger;
 //import org.slf4j.LoggerFactory;
 
 public final class ByteUtil {
 //    private static final Logger LOG = LoggerFactory.getLogger(ByteUtil.class);
 
+    // views of byte arrays as arrays of primitive types, at any (unaligned) byte offset
+    static final VarHandle SHORT_BE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+    static final VarHandle SHORT_LE = MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle INT_BE   = MethodHandles.byteArrayViewVarHandle(int[].class,   ByteOrder.BIG_ENDIAN);
+    static final VarHandle INT_LE   = MethodHandles.byteArrayViewVarHandle(int[].class,   ByteOrder.LITTLE_ENDIAN);
+    static final VarHandle LONG_BE  = MethodHandles.byteArrayViewVarHandle(long[].class,  ByteOrder.BIG_ENDIAN);
+    static final VarHandle LONG_LE  = MethodHandles.byteArrayViewVarHandle(long[].class,  ByteOrder.LITTLE_ENDIAN);
+
     private ByteUtil() { }
 
+    /** Maps signed to unsigned ints, such that values of small magnitude result in small numbers (0, -1, 1, -2... to 0, 1, 2, 3...). */
+    public static int zigZagEncode(final int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    /** Inverse of zigZagEncode(int). */
+    public static int zigZagDecode(final int n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /** Maps signed to unsigned longs, such that values of small magnitude result in small numbers (0, -1, 1, -2... to 0, 1, 2, 3...). */
+    public static long zigZagEncode(final long n) {
+        return (n << 1) ^ (n >> 63);
+    }
+
+    /** Inverse of zigZagEncode(long). */
+    public static long zigZagDecode(final long n) {
+        return (n >>> 1) ^ -(n & 1);
+    }
+
+    /** Returns the number of bytes of the varint encoding of an unsigned value (7 bits per byte). */
+    public static int varLongSize(final long n) {
+        return n == 0 ? 1 : (63 - Long.numberOfLeadingZeros(n)) / 7 + 1;
+    }
+
     public static byte[] deepCopy(final byte[] org) {
         if (org == null)
             return null;
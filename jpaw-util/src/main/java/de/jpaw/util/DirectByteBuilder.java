@@ -0,0 +1,313 @@
+package de.jpaw.util;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+
+/**
+ * A variant of ByteBuilder which stores its contents in a direct (native) ByteBuffer.
+ * <p>
+ * The JDK copies the contents of heap arrays into a temporary native buffer for every channel write,
+ * writing a DirectByteBuilder to a socket or file channel avoids this copy.
+ * An instance is meant to be reused, for example one per connection: after the contents has been written,
+ * reset() discards it, but keeps the native buffer.
+ * The methods for appending data correspond to those of ByteBuilder.
+ *
+ * @author Michael Bischoff
+ *
+ */
+public final class DirectByteBuilder implements DataOutput {
+    private static final int DEFAULT_INITIAL_CAPACITY = 8128;
+
+    private Charset charset = ByteArray.CHARSET_UTF8;
+    private ByteBuffer buffer;      // big endian, position is the current length, limit is the capacity
+    private final byte[] scratch = new byte[Utf8Encoding.MAX_BYTES_PER_CODE_POINT];  // encoding of a single character
+
+    public DirectByteBuilder() {
+        this(DEFAULT_INITIAL_CAPACITY, null);
+    }
+
+    public DirectByteBuilder(final int initialSize, final Charset charset) {
+        buffer = ByteBuffer.allocateDirect(initialSize >= 0 ? initialSize : DEFAULT_INITIAL_CAPACITY);
+        if (charset != null)
+            this.charset = charset;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public void setCharset(final Charset charset) {
+        this.charset = charset;
+    }
+
+    /** Extend the buffer because we ran out of space. */
+    private void createMoreSpace(final int minimumRequired) {
+        final int currentAllocSize = buffer.capacity();
+        int newAllocSize = currentAllocSize <= 16 ? 32 : 2 * currentAllocSize;
+        if (newAllocSize < buffer.position() + minimumRequired)
+            newAllocSize = buffer.position() + minimumRequired;
+        final ByteBuffer newBuffer = ByteBuffer.allocateDirect(newAllocSize);
+        buffer.flip();
+        newBuffer.put(buffer);
+        buffer = newBuffer;
+    }
+
+    /** Ensure that at least delta bytes are left in the buffer, extending the buffer if required. */
+    public void require(final int delta) {
+        if (buffer.remaining() < delta)
+            createMoreSpace(delta);
+    }
+
+    /** Returns the number of bytes of the contents. */
+    public int length() {
+        return buffer.position();
+    }
+
+    /** Returns the size of the native buffer. */
+    public int capacity() {
+        return buffer.capacity();
+    }
+
+    /** Discards the contents, but keeps the native buffer for reuse. */
+    public void reset() {
+        buffer.clear();
+    }
+
+    public byte byteAt(final int pos) {
+        if (pos < 0 || pos >= buffer.position())
+            throw new IndexOutOfBoundsException();
+        return buffer.get(pos);
+    }
+
+    /** Returns a read-only view of the contents. The view shares the native buffer and is invalid after reset() or further appends. */
+    public ByteBuffer asByteBuffer() {
+        return buffer.duplicate().flip().asReadOnlyBuffer();
+    }
+
+    /** Returns a copy of the contents on the heap. */
+    public byte[] getBytes() {
+        final byte[] tmp = new byte[buffer.position()];
+        buffer.get(0, tmp);
+        return tmp;
+    }
+
+    /** Writes the complete contents to a channel in blocking mode. The contents is not modified, call reset() to reuse this instance.
+     * Returns the number of bytes written, which is the length. */
+    public int writeTo(final WritableByteChannel channel) throws IOException {
+        final ByteBuffer out = buffer.duplicate().flip();
+        while (out.hasRemaining())
+            channel.write(out);
+        return out.limit();
+    }
+
+    @Override
+    public String toString() {
+        return new String(getBytes(), charset);
+    }
+
+    public void append(final String s) {
+        if (s.length() > 0) {
+            if (ByteArray.CHARSET_UTF8.equals(charset))
+                appendUtf8(s);
+            else
+                write(s.getBytes(charset));
+        }
+    }
+
+    /** Appends the characters in UTF-8 encoding, independent of the character set of this instance.
+     * Unpaired surrogates are replaced by '?', as done by String.getBytes(). */
+    public void appendUtf8(final CharSequence s) {
+        final int len = s.length();
+        require(len);
+        int i = 0;
+        // ASCII prefix, space has been reserved already
+        for (; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (c >= 0x80)
+                break;
+            buffer.put((byte)c);
+        }
+        if (i == len)
+            return;
+        // worst case for the remaining characters: 3 bytes each (a surrogate pair needs 4 bytes for 2 characters)
+        require(3 * (len - i));
+        final ByteBuffer buf = buffer;
+        while (i < len) {
+            final char c = s.charAt(i);
+            if (c < 0x80) {
+                buf.put((byte)c);
+                ++i;
+            } else {
+                final int cp = Utf8Encoding.codePointAt(s, i, len);
+                buf.put(scratch, 0, Utf8Encoding.putUtf8(scratch, 0, cp));
+                i += Character.charCount(cp);
+            }
+        }
+    }
+
+    // append a single Unicode code point
+    public void appendUnicode(final int c) {
+        if (c <= 127) {
+            // ASCII character: this is faster
+            writeByte(c);
+        } else if (ByteArray.CHARSET_UTF8.equals(charset)) {
+            final int n = Utf8Encoding.putUtf8(scratch, 0, Utf8Encoding.checkCodePoint(c));
+            require(n);
+            buffer.put(scratch, 0, n);
+        } else {
+            write(new String(Character.toChars(c)).getBytes(charset));
+        }
+    }
+
+    // append the contents of String, assuming all characters are single-byte. No test is done. Argument must not be null.
+    public void appendAscii(final String s) {
+        appendAsciiChars(s);
+    }
+    public void appendAscii(final StringBuilder s) {
+        appendAsciiChars(s);
+    }
+    private void appendAsciiChars(final CharSequence s) {
+        final int length = s.length();
+        require(length);
+        for (int i = 0; i < length; ++i) {
+            buffer.put((byte)s.charAt(i));
+        }
+    }
+
+    /** Appends the remaining bytes of a ByteBuffer. */
+    public void write(final ByteBuffer src) {
+        require(src.remaining());
+        buffer.put(src);
+    }
+
+
+    ///////////////////////////////////////////////////
+    //
+    // methods from the DataOutput interface
+    //
+    ///////////////////////////////////////////////////
+
+    // append another byte array
+    @Deprecated
+    public void append(final byte[] array) {
+        write(array);
+    }
+    @Override
+    public void write(final byte[] array) {
+        write(array, 0, array.length);
+    }
+
+    // append part of another byte array. use write!
+    @Deprecated
+    public void append(final byte[] array, final int offset, final int length) {
+        write(array, offset, length);
+    }
+
+    @Override
+    public void write(final byte[] array, final int offset, final int length) {
+        if (length > 0) {
+            require(length);
+            buffer.put(array, offset, length);
+        }
+    }
+
+    @Override
+    public void writeBoolean(final boolean v) {
+        writeByte(v ? 1 : 0);
+    }
+
+    @Override
+    public void write(final int n) {
+        writeByte(n);
+    }
+
+    /** Append a byte to the buffer. */
+    public void append(final byte b) {
+        writeByte(b);
+    }
+    @Override
+    public void writeByte(final int b) {
+        require(1);
+        buffer.put((byte)b);
+    }
+
+    /** Append a short to the buffer. High endian. */
+    @Deprecated
+    public void append(final short n) {
+        writeShort(n);
+    }
+    @Override
+    public void writeShort(final int n) {
+        require(2);
+        buffer.putShort((short)n);
+    }
+
+    @Override
+    public void writeChar(final int v) {
+        writeShort(v);
+    }
+
+    /** Append an int to the buffer. High endian. */
+    @Deprecated
+    public void append(final int n) {
+        writeInt(n);
+    }
+    @Override
+    public void writeInt(final int n) {
+        require(4);
+        buffer.putInt(n);
+    }
+
+    /** Append a long to the buffer. High endian. */
+    @Deprecated
+    public void append(final long n) {
+        writeLong(n);
+    }
+    @Override
+    public void writeLong(final long n) {
+        require(8);
+        buffer.putLong(n);
+    }
+
+    @Override
+    public void writeFloat(final float v) {
+        writeInt(Float.floatToRawIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(final double v) {
+        writeLong(Double.doubleToRawLongBits(v));
+    }
+
+    // writes s as ASCII string (1 byte per character)
+    @Override
+    public void writeBytes(final String s) {
+        appendAsciiChars(s);
+    }
+
+    // writes s as UTF-16 string (2 byte per character)
+    @Override
+    public void writeChars(final String s) {
+        final int len = s.length();
+        require(2 * len);
+        for (int i = 0; i < len; ++i) {
+            buffer.putChar(s.charAt(i));
+        }
+    }
+
+    // writeUTF uses a modified UTF-8 encoding, see ByteBuilder
+    @Override
+    public void writeUTF(final String s) throws IOException {
+        final int numBytes = Utf8Encoding.modifiedUtf8Length(s);
+        require(2 + numBytes);
+        final ByteBuffer buf = buffer;
+        buf.putShort((short)numBytes);
+        final int len = s.length();
+        for (int i = 0; i < len; ++i) {
+            buf.put(scratch, 0, Utf8Encoding.putModifiedUtf8(scratch, 0, s.charAt(i)));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package de.jpaw.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only view of a region of a file, mapped into memory, with methods corresponding to those of ByteArray.
+ * <p>
+ * The contents is not copied onto the heap: the operating system pages it in when accessed.
+ * Sub arrays share the mapping. The mapping stays valid after the file has been closed, and is released when no view references it any more.
+ * A single mapping is limited to 2 GB, bigger files are processed by mapping regions of them.
+ * The file must not be modified while it is mapped.
+ *
+ * @author Michael Bischoff
+ *
+ */
+public final class MappedByteArray {
+    private final ByteBuffer buffer;    // read-only, position 0, limit is the length
+
+    private MappedByteArray(final ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /** Maps a complete file, which must not be bigger than 2 GB. */
+    public static MappedByteArray map(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(channel, 0L, channel.size());
+        }
+    }
+
+    /** Maps size bytes of a file, starting at position. */
+    public static MappedByteArray map(final Path path, final long position, final long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return map(channel, position, size);
+        }
+    }
+
+    /** Maps size bytes of an open file, starting at position. The channel may be closed afterwards. */
+    public static MappedByteArray map(final FileChannel channel, final long position, final long size) throws IOException {
+        if (position < 0 || size < 0 || size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Cannot map " + size + " bytes at position " + position);
+        return new MappedByteArray(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+    }
+
+    public int length() {
+        return buffer.limit();
+    }
+
+    public byte byteAt(final int pos) {
+        if (pos < 0 || pos >= buffer.limit())
+            throw new IllegalArgumentException();
+        return buffer.get(pos);
+    }
+
+    /** Returns a MappedByteArray which contains a subsequence of the bytes of this one. The mapping is shared. */
+    public MappedByteArray subArray(final int xoffset, final int xlength) {
+        if (xoffset < 0 || xlength < 0 || xoffset + xlength > buffer.limit())
+            throw new IllegalArgumentException();
+        return new MappedByteArray(buffer.slice(xoffset, xlength));
+    }
+
+    public int indexOf(final byte x) {
+        return indexOf(x, 0);
+    }
+
+    public int indexOf(final byte x, final int fromIndex) {
+        final int length = buffer.limit();
+        for (int i = fromIndex >= 0 ? fromIndex : 0; i < length; ++i) {
+            if (buffer.get(i) == x)
+                return i;
+        }
+        return -1;
+    }
+
+    public int lastIndexOf(final byte x) {
+        return lastIndexOf(x, buffer.limit() - 1);
+    }
+
+    public int lastIndexOf(final byte x, final int fromIndex) {
+        for (int i = fromIndex >= buffer.limit() ? buffer.limit() - 1 : fromIndex; i >= 0; --i) {
+            if (buffer.get(i) == x)
+                return i;
+        }
+        return -1;
+    }
+
+    /** Returns a copy of the contents on the heap. */
+    public byte[] getBytes() {
+        return getBytes(0, buffer.limit());
+    }
+
+    /** Returns a copy of part of the contents on the heap. */
+    public byte[] getBytes(final int xoffset, final int xlength) {
+        if (xoffset < 0 || xlength < 0 || xoffset + xlength > buffer.limit())
+            throw new IllegalArgumentException();
+        final byte[] result = new byte[xlength];
+        buffer.get(xoffset, result);
+        return result;
+    }
+
+    /** Returns a heap copy of the contents as a ByteArray. */
+    public ByteArray toByteArray() {
+        return ByteArray.wrap(getBytes());
+    }
+
+    /** Returns true if this contains the same bytes as the ByteArray. */
+    public boolean contentEquals(final ByteArray that) {
+        final int length = buffer.limit();
+        if (that.length() != length)
+            return false;
+        for (int i = 0; i < length; ++i) {
+            if (buffer.get(i) != that.byteAt(i))
+                return false;
+        }
+        return true;
+    }
+
+    /** Returns a read-only ByteBuffer view of the contents. */
+    public ByteBuffer asByteBuffer() {
+        return buffer.duplicate();
+    }
+
+    public String asString() {
+        return asString(ByteArray.CHARSET_UTF8);
+    }
+
+    public String asString(final Charset cs) {
+        return new String(getBytes(), cs);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedByteArray[" + buffer.limit() + " bytes]";
+    }
+}
@@ -0,0 +1,381 @@
+package de.jpaw.util;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A variant of ByteBuilder for big outputs, which stores the contents in a chain of segments of fixed size.
+ * <p>
+ * Growing the contents allocates another segment, existing data is never copied, and no single huge array is allocated.
+ * The contents is not available as a single byte array, but it can be streamed to an OutputStream or a (gathering) channel.
+ * The methods for appending data correspond to those of ByteBuilder.
+ *
+ * @author Michael Bischoff
+ *
+ */
+public final class SegmentedByteBuilder implements DataOutput {
+    private static final int DEFAULT_SEGMENT_SIZE = 65536;     // well below the size of humongous objects of G1
+    private static final int MIN_SEGMENT_SIZE = 16;
+    private static final int MAX_BUFFERS_PER_WRITE = 64;       // number of segments passed to a single gathering write
+
+    private final int segmentSize;
+    private final List<byte[]> segments = new ArrayList<byte[]>();  // all segments, the last one is the current one
+    private Charset charset = ByteArray.CHARSET_UTF8;
+    private byte[] current;         // the segment currently written to
+    private int currentPos;         // the number of bytes used in the current segment
+    private long fullLength;        // the number of bytes in all segments before the current one
+    private final byte[] scratch = new byte[Utf8Encoding.MAX_BYTES_PER_CODE_POINT];  // for characters which span segments
+
+    public SegmentedByteBuilder() {
+        this(DEFAULT_SEGMENT_SIZE, null);
+    }
+
+    public SegmentedByteBuilder(final int segmentSize, final Charset charset) {
+        if (segmentSize < MIN_SEGMENT_SIZE)
+            throw new IllegalArgumentException("Segment size must be at least " + MIN_SEGMENT_SIZE + ", got " + segmentSize);
+        this.segmentSize = segmentSize;
+        if (charset != null)
+            this.charset = charset;
+        current = new byte[segmentSize];
+        segments.add(current);
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public void setCharset(final Charset charset) {
+        this.charset = charset;
+    }
+
+    public int getSegmentSize() {
+        return segmentSize;
+    }
+
+    /** Returns the number of segments which contain data (at least one). */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    /** Returns the total number of bytes. */
+    public long length() {
+        return fullLength + currentPos;
+    }
+
+    /** Discards the contents. The first segment is kept for reuse, all others are released. */
+    public void reset() {
+        current = segments.get(0);
+        segments.clear();
+        segments.add(current);
+        currentPos = 0;
+        fullLength = 0;
+    }
+
+    /** Starts a new segment, because the current one is full. */
+    private void nextSegment() {
+        fullLength += currentPos;
+        current = new byte[segmentSize];
+        segments.add(current);
+        currentPos = 0;
+    }
+
+    public byte byteAt(final long pos) {
+        if (pos < 0 || pos >= length())
+            throw new IndexOutOfBoundsException();
+        return segments.get((int)(pos / segmentSize))[(int)(pos % segmentSize)];
+    }
+
+    /** Returns the contents as a list of ByteBuffers, one per segment. The buffers share the segments, and are invalid after reset(). */
+    public ByteBuffer[] asByteBuffers() {
+        final int n = segments.size();
+        final ByteBuffer[] result = new ByteBuffer[n];
+        for (int i = 0; i < n; ++i) {
+            result[i] = ByteBuffer.wrap(segments.get(i), 0, i == n - 1 ? currentPos : segmentSize).asReadOnlyBuffer();
+        }
+        return result;
+    }
+
+    /** Writes the contents to an OutputStream, segment by segment. */
+    public void writeTo(final OutputStream os) throws IOException {
+        final int n = segments.size() - 1;
+        for (int i = 0; i < n; ++i) {
+            os.write(segments.get(i), 0, segmentSize);
+        }
+        if (currentPos > 0)
+            os.write(current, 0, currentPos);
+    }
+
+    /** Writes the contents to a channel in blocking mode. Gathering channels receive multiple segments per call.
+     * Returns the number of bytes written, which is the length. */
+    public long writeTo(final WritableByteChannel channel) throws IOException {
+        final ByteBuffer[] buffers = asByteBuffers();
+        long written = 0;
+        if (channel instanceof GatheringByteChannel) {
+            final GatheringByteChannel gatheringChannel = (GatheringByteChannel)channel;
+            int first = 0;
+            while (first < buffers.length) {
+                written += gatheringChannel.write(buffers, first, Math.min(buffers.length - first, MAX_BUFFERS_PER_WRITE));
+                while (first < buffers.length && !buffers[first].hasRemaining())
+                    ++first;
+            }
+        } else {
+            for (final ByteBuffer b : buffers) {
+                while (b.hasRemaining())
+                    written += channel.write(b);
+            }
+        }
+        return written;
+    }
+
+    /** Reads bytes from an input stream directly into the segments, up to maxBytes (or all which exist, if maxBytes = 0).
+     * Returns the number of bytes read. */
+    public long readFromInputStream(final InputStream is, final long maxBytes) throws IOException {
+        long totalBytes = 0;
+        while (maxBytes == 0 || totalBytes < maxBytes) {
+            if (currentPos == segmentSize)
+                nextSegment();
+            int maxNow = segmentSize - currentPos;
+            if (maxBytes != 0 && maxBytes - totalBytes < maxNow)
+                maxNow = (int)(maxBytes - totalBytes);
+            final int morebytes = is.read(current, currentPos, maxNow);
+            if (morebytes > 0) {
+                totalBytes += morebytes;
+                currentPos += morebytes;
+            } else {
+                break;
+            }
+        }
+        return totalBytes;
+    }
+
+    public void append(final String s) {
+        if (s.length() > 0) {
+            if (ByteArray.CHARSET_UTF8.equals(charset))
+                appendUtf8(s);
+            else
+                write(s.getBytes(charset));
+        }
+    }
+
+    /** Appends the characters in UTF-8 encoding, independent of the character set of this instance.
+     * Unpaired surrogates are replaced by '?', as done by String.getBytes(). */
+    public void appendUtf8(final CharSequence s) {
+        final int len = s.length();
+        int i = 0;
+        while (i < len) {
+            final char c = s.charAt(i);
+            if (c < 0x80) {
+                if (currentPos == segmentSize)
+                    nextSegment();
+                current[currentPos++] = (byte)c;
+                ++i;
+            } else {
+                final int cp = Utf8Encoding.codePointAt(s, i, len);
+                putCodePoint(cp);
+                i += Character.charCount(cp);
+            }
+        }
+    }
+
+    /** Appends the UTF-8 encoding of a validated code point, into the current segment if it fits. */
+    private void putCodePoint(final int cp) {
+        if (currentPos + Utf8Encoding.MAX_BYTES_PER_CODE_POINT <= segmentSize) {
+            currentPos = Utf8Encoding.putUtf8(current, currentPos, cp);
+        } else {
+            write(scratch, 0, Utf8Encoding.putUtf8(scratch, 0, cp));
+        }
+    }
+
+    // append a single Unicode code point
+    public void appendUnicode(final int c) {
+        if (c <= 127) {
+            // ASCII character: this is faster
+            writeByte(c);
+        } else if (ByteArray.CHARSET_UTF8.equals(charset)) {
+            putCodePoint(Utf8Encoding.checkCodePoint(c));
+        } else {
+            write(new String(Character.toChars(c)).getBytes(charset));
+        }
+    }
+
+    // append the contents of String, assuming all characters are single-byte. No test is done. Argument must not be null.
+    public void appendAscii(final String s) {
+        appendAsciiChars(s);
+    }
+    public void appendAscii(final StringBuilder s) {
+        appendAsciiChars(s);
+    }
+    private void appendAsciiChars(final CharSequence s) {
+        final int length = s.length();
+        int i = 0;
+        while (i < length) {
+            if (currentPos == segmentSize)
+                nextSegment();
+            final int end = i + Math.min(length - i, segmentSize - currentPos);
+            while (i < end)
+                current[currentPos++] = (byte)s.charAt(i++);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "SegmentedByteBuilder[" + length() + " bytes in " + segments.size() + " segments]";
+    }
+
+
+    ///////////////////////////////////////////////////
+    //
+    // methods from the DataOutput interface
+    //
+    ///////////////////////////////////////////////////
+
+    // append another byte array
+    @Deprecated
+    public void append(final byte[] array) {
+        write(array);
+    }
+    @Override
+    public void write(final byte[] array) {
+        write(array, 0, array.length);
+    }
+
+    // append part of another byte array. use write!
+    @Deprecated
+    public void append(final byte[] array, final int offset, final int length) {
+        write(array, offset, length);
+    }
+
+    @Override
+    public void write(final byte[] array, int offset, int length) {
+        while (length > 0) {
+            if (currentPos == segmentSize)
+                nextSegment();
+            final int now = Math.min(length, segmentSize - currentPos);
+            System.arraycopy(array, offset, current, currentPos, now);
+            currentPos += now;
+            offset += now;
+            length -= now;
+        }
+    }
+
+    @Override
+    public void writeBoolean(final boolean v) {
+        writeByte(v ? 1 : 0);
+    }
+
+    @Override
+    public void write(final int n) {
+        writeByte(n);
+    }
+
+    /** Append a byte to the buffer. */
+    public void append(final byte b) {
+        writeByte(b);
+    }
+    @Override
+    public void writeByte(final int b) {
+        if (currentPos == segmentSize)
+            nextSegment();
+        current[currentPos++] = (byte)b;
+    }
+
+    /** Append a short to the buffer. High endian. */
+    @Deprecated
+    public void append(final short n) {
+        writeShort(n);
+    }
+    @Override
+    public void writeShort(final int n) {
+        if (currentPos + 2 > segmentSize) {
+            writeByte(n >>> 8);
+            writeByte(n);
+            return;
+        }
+        current[currentPos]     = (byte) (n >>> 8);
+        current[currentPos + 1] = (byte) n;
+        currentPos += 2;
+    }
+
+    @Override
+    public void writeChar(final int v) {
+        writeShort(v);
+    }
+
+    /** Append an int to the buffer. High endian. */
+    @Deprecated
+    public void append(final int n) {
+        writeInt(n);
+    }
+    @Override
+    public void writeInt(final int n) {
+        if (currentPos + 4 > segmentSize) {
+            writeShort(n >>> 16);
+            writeShort(n);
+            return;
+        }
+        current[currentPos]     = (byte) (n >>> 24);
+        current[currentPos + 1] = (byte) (n >>> 16);
+        current[currentPos + 2] = (byte) (n >>> 8);
+        current[currentPos + 3] = (byte) n;
+        currentPos += 4;
+    }
+
+    /** Append a long to the buffer. High endian. */
+    @Deprecated
+    public void append(final long n) {
+        writeLong(n);
+    }
+    @Override
+    public void writeLong(final long n) {
+        writeInt((int)(n >> 32));
+        writeInt((int)n);
+    }
+
+    @Override
+    public void writeFloat(final float v) {
+        writeInt(Float.floatToRawIntBits(v));
+    }
+
+    @Override
+    public void writeDouble(final double v) {
+        writeLong(Double.doubleToRawLongBits(v));
+    }
+
+    // writes s as ASCII string (1 byte per character)
+    @Override
+    public void writeBytes(final String s) {
+        appendAsciiChars(s);
+    }
+
+    // writes s as UTF-16 string (2 byte per character)
+    @Override
+    public void writeChars(final String s) {
+        final int len = s.length();
+        for (int i = 0; i < len; ++i) {
+            writeShort(s.charAt(i));
+        }
+    }
+
+    // writeUTF uses a modified UTF-8 encoding, see ByteBuilder
+    @Override
+    public void writeUTF(final String s) throws IOException {
+        writeShort(Utf8Encoding.modifiedUtf8Length(s));
+        final int len = s.length();
+        for (int i = 0; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (currentPos + 3 <= segmentSize) {
+                currentPos = Utf8Encoding.putModifiedUtf8(current, currentPos, c);
+            } else {
+                write(scratch, 0, Utf8Encoding.putModifiedUtf8(scratch, 0, c));
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package de.jpaw.util;
+
+import java.io.UTFDataFormatException;
+
+/**
+ * UTF-8 and modified UTF-8 (as used by DataOutput.writeUTF) encoding of single characters, shared by the ByteBuilder variants.
+ * Unpaired surrogates are replaced by '?', as done by String.getBytes().
+ */
+final class Utf8Encoding {
+    /** The maximum number of bytes of a single encoded code point. */
+    static final int MAX_BYTES_PER_CODE_POINT = 4;
+
+    private Utf8Encoding() { }
+
+    /** Returns the code point of the (non-ASCII) character at index i, combined with the following low surrogate if it is a high surrogate,
+     * or '?' for an unpaired surrogate. The caller advances by Character.charCount() of the result. */
+    static int codePointAt(final CharSequence s, final int i, final int len) {
+        final char c = s.charAt(i);
+        if (!Character.isSurrogate(c))
+            return c;
+        if (Character.isHighSurrogate(c) && i + 1 < len) {
+            final char d = s.charAt(i + 1);
+            if (Character.isLowSurrogate(d))
+                return Character.toCodePoint(c, d);
+        }
+        return '?';
+    }
+
+    /** Validates a code point passed as int. Surrogate code points are replaced by '?'. */
+    static int checkCodePoint(final int c) {
+        if (!Character.isValidCodePoint(c))
+            throw new IllegalArgumentException("Not a valid Unicode code point: " + c);
+        return c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE ? '?' : c;
+    }
+
+    /** Writes the UTF-8 encoding of a code point (which must not be a surrogate) and returns the position after it. */
+    static int putUtf8(final byte[] dst, int pos, final int cp) {
+        if (cp < 0x80) {
+            dst[pos++] = (byte)cp;
+        } else if (cp < 0x800) {
+            dst[pos++] = (byte)(0xc0 | (cp >> 6));
+            dst[pos++] = (byte)(0x80 | (cp & 0x3f));
+        } else if (cp < 0x10000) {
+            dst[pos++] = (byte)(0xe0 | (cp >> 12));
+            dst[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3f));
+            dst[pos++] = (byte)(0x80 | (cp & 0x3f));
+        } else {
+            dst[pos++] = (byte)(0xf0 | (cp >> 18));
+            dst[pos++] = (byte)(0x80 | ((cp >> 12) & 0x3f));
+            dst[pos++] = (byte)(0x80 | ((cp >> 6) & 0x3f));
+            dst[pos++] = (byte)(0x80 | (cp & 0x3f));
+        }
+        return pos;
+    }
+
+    /** Returns the number of bytes of the modified UTF-8 encoding of s, without the 2 length bytes. */
+    static int modifiedUtf8Length(final String s) throws UTFDataFormatException {
+        final int len = s.length();
+        int numBytes = len;
+        for (int i = 0; i < len; ++i) {
+            final char c = s.charAt(i);
+            if (c == 0 || c >= 0x80)
+                numBytes += c < 0x800 ? 1 : 2;
+        }
+        if (numBytes > 65535)
+            throw new UTFDataFormatException("writeUTF called for String with " + numBytes + " bytes length");
+        return numBytes;
+    }
+
+    /** Writes the modified UTF-8 encoding of a character (1 to 3 bytes) and returns the position after it. */
+    static int putModifiedUtf8(final byte[] dst, int pos, final char c) {
+        if (c != 0 && c < 0x80) {
+            dst[pos++] = (byte)c;
+        } else if (c < 0x800) {
+            dst[pos++] = (byte)(0xc0 | (c >> 6));
+            dst[pos++] = (byte)(0x80 | (c & 0x3f));
+        } else {
+            dst[pos++] = (byte)(0xe0 | (c >> 12));
+            dst[pos++] = (byte)(0x80 | ((c >> 6) & 0x3f));
+            dst[pos++] = (byte)(0x80 | (c & 0x3f));
+        }
+        return pos;
+    }
+}
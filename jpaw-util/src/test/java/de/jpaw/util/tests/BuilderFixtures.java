@@ -0,0 +1,28 @@
+package de.jpaw.util.tests;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/** Test data shared by the tests of the ByteBuilder variants, which have no common interface beyond DataOutput. */
+final class BuilderFixtures {
+    private BuilderFixtures() { }
+
+    /** Writes a mix of primitives and strings, using the builder specific append(String) and appendUnicode(int) methods for text. */
+    static void fill(final DataOutput out, final Consumer<String> append, final IntConsumer appendUnicode) throws IOException {
+        for (int i = 0; i < 50; ++i) {
+            out.writeByte(i);
+            out.writeShort(i * 1000);
+            out.writeInt(i * 123456789);
+            out.writeLong(i * 0x123456789abcdefL);
+            out.writeDouble(i / 7.0);
+            out.writeUTF("Grüße €" + i);
+            out.writeChars("abä");
+            out.write(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20 }, i % 5, 13);
+            append.accept("Emoji 😀 and 中文 and ASCII " + i);
+            appendUnicode.accept(0x1f600 + i);
+            appendUnicode.accept(0xe4);
+        }
+    }
+}
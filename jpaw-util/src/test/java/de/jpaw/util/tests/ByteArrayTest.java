@@ -1,11 +1,17 @@
 package de.jpaw.util.tests;
 
 import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import de.jpaw.util.ByteArray;
+import de.jpaw.util.ByteArrayInternPool;
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.ByteUtil;
 
 public class ByteArrayTest {
 
@@ -20,4 +26,148 @@ public class ByteArrayTest {
         Assertions.assertArrayEquals(data, ba.getBytes());
         Assertions.assertArrayEquals(data, baos.toByteArray());
     }
+
+    @Test
+    public void testPrimitiveAccessors() throws Exception {
+        final ByteBuilder b = new ByteBuilder(0, null);
+        b.writeByte(0x55);      // odd offset, to test unaligned access
+        b.writeShort(-12345);
+        b.writeInt(0x12345678);
+        b.writeLong(0x0123456789abcdefL);
+        b.writeDouble(Math.PI);
+        b.writeShortLE(-12345);
+        b.writeIntLE(0x12345678);
+        b.writeLongLE(0x0123456789abcdefL);
+        b.writeFloatLE(2.5f);
+        b.writeDoubleLE(Math.E);
+
+        // big endian part must be identical to DataOutputStream
+        final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        final DataOutputStream dos = new DataOutputStream(baos);
+        dos.writeByte(0x55);
+        dos.writeShort(-12345);
+        dos.writeInt(0x12345678);
+        dos.writeLong(0x0123456789abcdefL);
+        dos.writeDouble(Math.PI);
+        dos.flush();
+        final ByteArray bigEndian = new ByteArray(b.getBytes(), 0, 23);
+        Assertions.assertArrayEquals(baos.toByteArray(), bigEndian.getBytes());
+
+        final ByteBuffer le = ByteBuffer.wrap(b.getBytes(), 23, 26).order(ByteOrder.LITTLE_ENDIAN);
+        Assertions.assertEquals(-12345, le.getShort());
+        Assertions.assertEquals(0x12345678, le.getInt());
+        Assertions.assertEquals(0x0123456789abcdefL, le.getLong());
+
+        // read via a sub array, to test the offset
+        final ByteArray ba = ByteArray.fromByteBuilder(b).subArray(1, b.length() - 1);
+        Assertions.assertEquals(-12345, ba.getShort(0));
+        Assertions.assertEquals(0x12345678, ba.getInt(2));
+        Assertions.assertEquals(0x0123456789abcdefL, ba.getLong(6));
+        Assertions.assertEquals(Math.PI, ba.getDouble(14));
+        Assertions.assertEquals(-12345, ba.getShortLE(22));
+        Assertions.assertEquals(0x12345678, ba.getIntLE(24));
+        Assertions.assertEquals(0x0123456789abcdefL, ba.getLongLE(28));
+        Assertions.assertEquals(2.5f, ba.getFloatLE(36));
+        Assertions.assertEquals(Math.E, ba.getDoubleLE(40));
+        Assertions.assertEquals(48, ba.length());
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ba.getLong(41));
+    }
+
+    @Test
+    public void testVarInts() throws Exception {
+        final long[] values = { 0, 1, -1, 63, -64, 64, -65, 127, 128, 300, Integer.MAX_VALUE, Integer.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE };
+        final ByteBuilder b = new ByteBuilder(0, null);
+        for (long v : values) {
+            b.writeZigZagVarLong(v);
+            b.writeZigZagVarInt((int)v);
+        }
+        final ByteArray ba = ByteArray.fromByteBuilder(b);
+        int pos = 0;
+        for (long v : values) {
+            Assertions.assertEquals(v, ba.getZigZagVarLong(pos));
+            Assertions.assertEquals(ByteUtil.varLongSize(ByteUtil.zigZagEncode(v)), ba.getVarIntSize(pos));
+            pos += ba.getVarIntSize(pos);
+            Assertions.assertEquals((int)v, ba.getZigZagVarInt(pos));
+            pos += ba.getVarIntSize(pos);
+        }
+        Assertions.assertEquals(b.length(), pos);
+        Assertions.assertEquals(1, ByteUtil.varLongSize(ByteUtil.zigZagEncode(-64L)));
+        Assertions.assertEquals(10, ByteUtil.varLongSize(ByteUtil.zigZagEncode(Long.MIN_VALUE)));
+
+        // the 10th byte can only carry the highest bit
+        final byte[] maxVarLong = { -1, -1, -1, -1, -1, -1, -1, -1, -1, 1 };
+        Assertions.assertEquals(-1L, ByteArray.wrap(maxVarLong).getVarLong(0));
+        final byte[] tooBig = { -1, -1, -1, -1, -1, -1, -1, -1, -1, 2 };
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ByteArray.wrap(tooBig).getVarLong(0));
+    }
+
+    @Test
+    public void testBulkArrays() throws Exception {
+        final int[] ints = { 1, -2, 0x7fffffff, 0x12345678, 0 };
+        final long[] longs = { 1L, -2L, Long.MAX_VALUE, 0x0123456789abcdefL };
+        for (ByteOrder order : new ByteOrder[] { ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN }) {
+            final ByteBuilder b = new ByteBuilder(0, null);
+            b.writeByte(0);
+            b.writeInts(ints, 1, 4, order);
+            b.writeLongs(longs, 0, 4, order);
+            final ByteBuffer expected = ByteBuffer.allocate(1 + 16 + 32).order(order);
+            expected.put((byte)0);
+            for (int i = 1; i < 5; ++i)
+                expected.putInt(ints[i]);
+            for (long l : longs)
+                expected.putLong(l);
+            Assertions.assertArrayEquals(expected.array(), b.getBytes());
+
+            final ByteArray ba = ByteArray.fromByteBuilder(b);
+            final int[] intsRead = new int[5];
+            intsRead[0] = ints[0];
+            final long[] longsRead = new long[4];
+            ba.getInts(1, intsRead, 1, 4, order);
+            ba.getLongs(17, longsRead, 0, 4, order);
+            Assertions.assertArrayEquals(ints, intsRead);
+            Assertions.assertArrayEquals(longs, longsRead);
+        }
+    }
+
+    @Test
+    public void testHashAndEquals() throws Exception {
+        final byte[] data = "xxHello, world!yy".getBytes("UTF-8");
+        final ByteArray a = new ByteArray(data, 2, 13);
+        final ByteArray b = ByteArray.wrap(data).subArray(2, 13);
+        int expectedHash = 997;
+        for (int i = 2; i < 15; ++i)
+            expectedHash = 29 * expectedHash + data[i];
+        Assertions.assertEquals(expectedHash, a.hashCode());
+        Assertions.assertEquals(expectedHash, a.hashCode());    // cached
+        Assertions.assertEquals(expectedHash, b.hashCode());
+        Assertions.assertEquals(a, b);
+        Assertions.assertTrue(a.contentEquals(data, 2, 13));
+        Assertions.assertEquals(-1, a.mismatch(b));
+        Assertions.assertEquals(5, a.mismatch(ByteArray.fromString("Hello!")));
+        Assertions.assertNotEquals(a, b.subArray(0, 12));
+        Assertions.assertTrue(a.isCompact());
+        Assertions.assertFalse(b.isCompact());
+
+        final ByteArray unshared = b.subArrayUnshared(7, 5);
+        Assertions.assertEquals(ByteArray.fromString("world"), unshared);
+        Assertions.assertTrue(unshared.isCompact());
+    }
+
+    @Test
+    public void testInternPool() throws Exception {
+        final ByteArrayInternPool pool = new ByteArrayInternPool(4);
+        final ByteArray big = ByteArray.fromString("0123456789ABCDEF");
+        final ByteArray first = pool.intern(big.subArray(4, 4));
+        Assertions.assertTrue(first.isCompact());
+        Assertions.assertFalse(first.shareBuffer(big));
+        Assertions.assertEquals(ByteArray.fromString("4567"), first);
+
+        final ByteArray second = pool.intern(ByteArray.fromString("4567"));
+        Assertions.assertSame(first, second);
+        final ByteArray other = ByteArray.fromString("other");
+        Assertions.assertSame(other, pool.intern(other));
+        Assertions.assertEquals(2, pool.size());
+        pool.clear();
+        Assertions.assertEquals(0, pool.size());
+    }
 }
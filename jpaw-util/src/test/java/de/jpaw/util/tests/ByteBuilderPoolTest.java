@@ -0,0 +1,59 @@
+package de.jpaw.util.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.ByteBuilderPool;
+
+public class ByteBuilderPoolTest {
+
+    @Test
+    public void testReuseAndReset() throws Exception {
+        ByteBuilderPool pool = new ByteBuilderPool(64, 1024, 4);
+        ByteBuilder b1 = pool.acquire();
+        b1.append("Hello");
+        b1.setCharset(StandardCharsets.ISO_8859_1);
+        pool.release(b1);
+        ByteBuilder b2 = pool.acquire();
+        Assertions.assertSame(b1, b2);
+        Assertions.assertEquals(0, b2.length());
+        Assertions.assertEquals(StandardCharsets.UTF_8, b2.getCharset());
+
+        // nested use gets a different instance
+        ByteBuilder b3 = pool.acquire();
+        Assertions.assertNotSame(b2, b3);
+        pool.release(b3);
+        pool.release(b2);  // slot occupied by b3
+        Assertions.assertEquals(1, pool.getHits());
+        Assertions.assertEquals(2, pool.getMisses());
+        Assertions.assertEquals(1, pool.getDiscards());
+    }
+
+    @Test
+    public void testRetentionLimit() throws Exception {
+        ByteBuilderPool pool = new ByteBuilderPool(64, 1024, 4);
+        ByteBuilder big = pool.acquire();
+        big.append(new byte[4000]);
+        pool.release(big);
+        Assertions.assertEquals(1, pool.getDiscards());
+        Assertions.assertNotSame(big, pool.acquire());
+        Assertions.assertEquals(0, pool.getHits());
+    }
+
+    @Test
+    public void testPerThread() throws Exception {
+        ByteBuilderPool pool = new ByteBuilderPool(64, 1024, 4);
+        ByteBuilder mine = pool.acquire();
+        pool.release(mine);
+        AtomicReference<ByteBuilder> other = new AtomicReference<>();
+        Thread t = new Thread(() -> other.set(pool.acquire()));
+        t.start();
+        t.join();
+        Assertions.assertNotSame(mine, other.get());
+        Assertions.assertSame(mine, pool.acquire());
+    }
+}
@@ -0,0 +1,81 @@
+package de.jpaw.util.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.DirectByteBuilder;
+
+public class DirectByteBuilderTest {
+
+    @Test
+    public void testSameContentsAsByteBuilder() throws Exception {
+        final ByteBuilder expected = new ByteBuilder();
+        BuilderFixtures.fill(expected, expected::append, expected::appendUnicode);
+        final DirectByteBuilder b = new DirectByteBuilder(0, null);
+        BuilderFixtures.fill(b, b::append, b::appendUnicode);
+        Assertions.assertEquals(expected.length(), b.length());
+        Assertions.assertArrayEquals(expected.getBytes(), b.getBytes());
+        Assertions.assertEquals(expected.byteAt(77), b.byteAt(77));
+
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        Assertions.assertEquals(expected.length(), b.writeTo(Channels.newChannel(os)));
+        Assertions.assertArrayEquals(expected.getBytes(), os.toByteArray());
+        Assertions.assertEquals(expected.length(), b.length());   // writing does not consume the contents
+    }
+
+    @Test
+    public void testFileChannelAndReuse() throws Exception {
+        final Path tmp = Files.createTempFile("directByteBuilder", ".bin");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                final DirectByteBuilder b = new DirectByteBuilder(16, null);
+                b.append("Hello, ");
+                b.writeTo(channel);
+                final int capacity = b.capacity();
+                b.reset();
+                Assertions.assertEquals(0, b.length());
+                Assertions.assertEquals(capacity, b.capacity());
+                b.append("World");
+                b.writeTo(channel);
+            }
+            Assertions.assertEquals("Hello, World", Files.readString(tmp));
+        } finally {
+            Files.delete(tmp);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testAppendOverloads() throws Exception {
+        final byte[] data = { 10, 20, 30, 40, 50 };
+        final ByteBuilder expected = new ByteBuilder();
+        final DirectByteBuilder b = new DirectByteBuilder(16, null);
+        for (int i = 0; i < 10; ++i) {
+            expected.append((byte)i);
+            b.append((byte)i);
+            expected.append((short)(i * 300));
+            b.append((short)(i * 300));
+            expected.append(i * 123456789);
+            b.append(i * 123456789);
+            expected.append(i * 0x123456789abcdefL);
+            b.append(i * 0x123456789abcdefL);
+            expected.append(data);
+            b.append(data);
+            expected.append(data, 1, 3);
+            b.append(data, 1, 3);
+            expected.appendAscii("ascii");
+            b.appendAscii("ascii");
+            expected.appendAscii(new StringBuilder("builder"));
+            b.appendAscii(new StringBuilder("builder"));
+        }
+        Assertions.assertArrayEquals(expected.getBytes(), b.getBytes());
+    }
+}
@@ -2,9 +2,11 @@ package de.jpaw.util.tests;
 
 import java.util.List;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import de.jpaw.api.iso.CurrencyData;
+import de.jpaw.api.iso.CurrencyKeyConverter;
 import de.jpaw.api.iso.impl.JavaCurrencyDataProvider;
 
 public class ISOTest {
@@ -15,4 +17,20 @@ public class ISOTest {
         System.out.println("I got " + all.size() + " currencies from standard Java (" + System.getProperty("java.version") + ")");
         assert (all.size() > 200);
     }
+
+    @Test
+    public void testCanonicalJavaCurrencies() throws Exception {
+        JavaCurrencyDataProvider dp = JavaCurrencyDataProvider.INSTANCE;
+        CurrencyData eur = dp.get("EUR");
+        Assertions.assertSame(eur, dp.get("EUR"));
+        Assertions.assertSame(eur, dp.get(CurrencyKeyConverter.currencyCodeA3ToInt("EUR")));
+        Assertions.assertSame(eur, dp.getByNumericCode(978));
+        Assertions.assertSame(dp.get("KWD"), dp.getByNumericCode(414));
+        Assertions.assertNull(dp.get("ABC"));
+        Assertions.assertNull(dp.get(0));
+        Assertions.assertNull(dp.getByNumericCode(0));
+        for (CurrencyData cd : dp.getAll()) {
+            Assertions.assertSame(cd, dp.get(cd.getCurrencyCode()));
+        }
+    }
 }
@@ -1,7 +1,9 @@
 package de.jpaw.util.tests;
 
+import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
@@ -71,4 +73,81 @@ public class KeyConverterTest {
         Assertions.assertEquals(LanguageKeyConverter.intToLanguageCode(60 + 2 * 32 + 2), "bb");
         Assertions.assertEquals(LanguageKeyConverter.intToLanguageCode(1), "xx");
     }
+
+    @Test
+    public void testCharSequenceAndBytes() throws Exception {
+        Assertions.assertEquals(CurrencyKeyConverter.currencyCodeA3ToInt("TND"), CurrencyKeyConverter.currencyCodeA3ToInt(new StringBuilder("TND")));
+        Assertions.assertEquals(2, CurrencyKeyConverter.currencyCodeA3ToInt(new StringBuilder("USD")));
+        byte[] buffer = "xxEURxxDExxzh_TWxxen".getBytes(StandardCharsets.US_ASCII);
+        Assertions.assertEquals(5, CurrencyKeyConverter.currencyCodeA3ToInt(buffer, 2, 3));
+        Assertions.assertEquals(5, CountryKeyConverter.countryCodeA2ToInt(buffer, 7, 2));
+        Assertions.assertEquals(7, LanguageKeyConverter.languageCodeToInt(buffer, 11, 5));
+        Assertions.assertEquals(3, LanguageKeyConverter.languageCodeToInt(buffer, 18, 2));
+        Assertions.assertEquals(0, CurrencyKeyConverter.currencyCodeA3ToInt(buffer, 1, 3));
+        Assertions.assertEquals(0, CountryKeyConverter.countryCodeA2ToInt(buffer, 1, 2));
+        Assertions.assertEquals(0, LanguageKeyConverter.languageCodeToInt(buffer, 10, 5));
+    }
+
+    @Test
+    public void testInvalidCodes() throws Exception {
+        for (String s : new String[] { "", "E", "EU", "EUR1", "eur", "E@R", "EU[", "\u0100UR" }) {
+            Assertions.assertEquals(0, CurrencyKeyConverter.currencyCodeA3ToInt(s), s);
+        }
+        for (String s : new String[] { "", "d", "de", "DEU", "@E", "D[" }) {
+            Assertions.assertEquals(0, CountryKeyConverter.countryCodeA2ToInt(s), s);
+        }
+        for (String s : new String[] { "", "e", "EN", "eng", "en-US", "en_us", "en_U", "`a", "e{" }) {
+            Assertions.assertEquals(0, LanguageKeyConverter.languageCodeToInt(s), s);
+        }
+    }
+
+    @Test
+    public void testRoundTripsAndCanonicalInstances() throws Exception {
+        for (int c = 1; c < CurrencyKeyConverter.CODE_LIMIT; ++c) {
+            String code = CurrencyKeyConverter.intToCurrencyCodeA3(c);
+            if (code != null) {
+                Assertions.assertSame(code, CurrencyKeyConverter.intToCurrencyCodeA3(c));
+                int back = CurrencyKeyConverter.currencyCodeA3ToInt(code);
+                Assertions.assertEquals(code, CurrencyKeyConverter.intToCurrencyCodeA3(back));
+            }
+        }
+        for (int c = 1; c < CountryKeyConverter.CODE_LIMIT; ++c) {
+            String code = CountryKeyConverter.intToCountryCodeA2(c);
+            if (code != null) {
+                Assertions.assertSame(code, CountryKeyConverter.intToCountryCodeA2(c));
+                Assertions.assertEquals(code, CountryKeyConverter.intToCountryCodeA2(CountryKeyConverter.countryCodeA2ToInt(code)));
+            }
+        }
+        for (String code : new String[] { "de", "zz", "zh_CN", "pt_BR", "en_US", "az_AZ" }) {
+            int c = LanguageKeyConverter.languageCodeToInt(code);
+            Assertions.assertEquals(code, LanguageKeyConverter.intToLanguageCode(c));
+            Assertions.assertSame(LanguageKeyConverter.intToLanguageCode(c), LanguageKeyConverter.intToLanguageCode(c));
+        }
+    }
+
+    @Test
+    public void testBulk() throws Exception {
+        CharSequence[] codes = { "EUR", null, "TND", "xyz", "USD" };
+        int[] ints = new int[codes.length];
+        String[] back = new String[codes.length];
+        CurrencyKeyConverter.currencyCodesA3ToInt(codes, ints);
+        Assertions.assertArrayEquals(new int[] { 5, 0, 100 + 19 * 676 + 13 * 26 + 3, 0, 2 }, ints);
+        CurrencyKeyConverter.intToCurrencyCodesA3(ints, back);
+        Assertions.assertArrayEquals(new String[] { "EUR", null, "TND", null, "USD" }, back);
+
+        CharSequence[] countries = { "DE", "ES", null };
+        CountryKeyConverter.countryCodesA2ToInt(countries, ints);
+        CountryKeyConverter.intToCountryCodesA2(new int[] { ints[0], ints[1], ints[2] }, back);
+        Assertions.assertEquals("DE", back[0]);
+        Assertions.assertEquals("ES", back[1]);
+        Assertions.assertNull(back[2]);
+
+        CharSequence[] languages = { "en_GB", "bb", "pt_BR" };
+        LanguageKeyConverter.languageCodesToInt(languages, ints);
+        LanguageKeyConverter.intToLanguageCodes(new int[] { ints[0], ints[1], ints[2] }, back);
+        Assertions.assertEquals("en_GB", back[0]);
+        Assertions.assertEquals("bb", back[1]);
+        Assertions.assertEquals("pt_BR", back[2]);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CurrencyKeyConverter.currencyCodesA3ToInt(codes, new int[2]));
+    }
 }
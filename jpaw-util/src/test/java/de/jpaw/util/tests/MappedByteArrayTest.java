@@ -0,0 +1,47 @@
+package de.jpaw.util.tests;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.util.ByteArray;
+import de.jpaw.util.MappedByteArray;
+
+public class MappedByteArrayTest {
+
+    @Test
+    public void testMappedFile() throws Exception {
+        final String contents = "HEADER\nline 1\nline 2 mit Ümlaut\nlast line";
+        final Path tmp = Files.createTempFile("mappedByteArray", ".txt");
+        try {
+            Files.write(tmp, contents.getBytes(StandardCharsets.UTF_8));
+            final MappedByteArray all = MappedByteArray.map(tmp);
+            final ByteArray expected = ByteArray.fromString(contents);
+            Assertions.assertEquals(expected.length(), all.length());
+            Assertions.assertTrue(all.contentEquals(expected));
+            Assertions.assertEquals(contents, all.asString());
+
+            // scan lines, as ByteArray would
+            final int firstNl = all.indexOf((byte)'\n');
+            Assertions.assertEquals(expected.indexOf((byte)'\n'), firstNl);
+            Assertions.assertEquals(expected.lastIndexOf((byte)'\n'), all.lastIndexOf((byte)'\n'));
+            final int secondNl = all.indexOf((byte)'\n', firstNl + 1);
+            final MappedByteArray line1 = all.subArray(firstNl + 1, secondNl - firstNl - 1);
+            Assertions.assertEquals("line 1", line1.asString());
+            Assertions.assertEquals((byte)'1', line1.byteAt(5));
+            Assertions.assertEquals(-1, line1.indexOf((byte)'\n'));
+            Assertions.assertEquals(expected.subArray(firstNl + 1, 6), line1.toByteArray());
+
+            // map a region only
+            final MappedByteArray region = MappedByteArray.map(tmp, 7, 6);
+            Assertions.assertEquals("line 1", region.asString());
+            Assertions.assertThrows(IllegalArgumentException.class, () -> region.byteAt(6));
+            Assertions.assertThrows(IllegalArgumentException.class, () -> region.subArray(2, 5));
+        } finally {
+            Files.delete(tmp);
+        }
+    }
+}
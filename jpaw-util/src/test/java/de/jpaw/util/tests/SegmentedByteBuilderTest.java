@@ -0,0 +1,125 @@
+package de.jpaw.util.tests;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.GatheringByteChannel;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import de.jpaw.util.ByteBuilder;
+import de.jpaw.util.SegmentedByteBuilder;
+
+public class SegmentedByteBuilderTest {
+
+    @Test
+    public void testSameContentsAsByteBuilder() throws Exception {
+        final ByteBuilder expected = new ByteBuilder();
+        BuilderFixtures.fill(expected, expected::append, expected::appendUnicode);
+        for (int segmentSize : new int[] { 16, 17, 100, 65536 }) {
+            final SegmentedByteBuilder b = new SegmentedByteBuilder(segmentSize, null);
+            BuilderFixtures.fill(b, b::append, b::appendUnicode);
+            Assertions.assertEquals(expected.length(), b.length());
+            Assertions.assertEquals((expected.length() + segmentSize - 1) / segmentSize, b.getSegmentCount());
+
+            final ByteArrayOutputStream os = new ByteArrayOutputStream();
+            b.writeTo(os);
+            Assertions.assertArrayEquals(expected.getBytes(), os.toByteArray(), "segment size " + segmentSize);
+
+            final ByteArrayOutputStream os2 = new ByteArrayOutputStream();
+            Assertions.assertEquals(expected.length(), b.writeTo(Channels.newChannel(os2)));
+            Assertions.assertArrayEquals(expected.getBytes(), os2.toByteArray());
+
+            for (int i = 0; i < expected.length(); i += 37) {
+                Assertions.assertEquals(expected.byteAt(i), b.byteAt(i));
+            }
+        }
+    }
+
+    /** A gathering channel which accepts at most 10 bytes per call. */
+    private static class SlowGatheringChannel implements GatheringByteChannel {
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+
+        @Override
+        public int write(ByteBuffer src) {
+            int n = Math.min(10, src.remaining());
+            for (int i = 0; i < n; ++i)
+                os.write(src.get());
+            return n;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) {
+            for (int i = offset; i < offset + length; ++i) {
+                if (srcs[i].hasRemaining())
+                    return write(srcs[i]);
+            }
+            return 0;
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs) {
+            return write(srcs, 0, srcs.length);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return true;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @Test
+    public void testGatheringWriteAndReset() throws Exception {
+        final byte[] data = new byte[1000];
+        for (int i = 0; i < data.length; ++i)
+            data[i] = (byte)(i * 31);
+        final SegmentedByteBuilder b = new SegmentedByteBuilder(64, null);
+        Assertions.assertEquals(data.length, b.readFromInputStream(new ByteArrayInputStream(data), 0));
+        final SlowGatheringChannel channel = new SlowGatheringChannel();
+        Assertions.assertEquals(data.length, b.writeTo(channel));
+        Assertions.assertArrayEquals(data, channel.os.toByteArray());
+
+        b.reset();
+        Assertions.assertEquals(0, b.length());
+        Assertions.assertEquals(1, b.getSegmentCount());
+        b.appendAscii("Hello");
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        b.writeTo(os);
+        Assertions.assertEquals("Hello", os.toString("UTF-8"));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testAppendOverloads() throws Exception {
+        final byte[] data = { 10, 20, 30, 40, 50 };
+        final ByteBuilder expected = new ByteBuilder();
+        final SegmentedByteBuilder b = new SegmentedByteBuilder(16, null);
+        for (int i = 0; i < 10; ++i) {
+            expected.append((byte)i);
+            b.append((byte)i);
+            expected.append((short)(i * 300));
+            b.append((short)(i * 300));
+            expected.append(i * 123456789);
+            b.append(i * 123456789);
+            expected.append(i * 0x123456789abcdefL);
+            b.append(i * 0x123456789abcdefL);
+            expected.append(data);
+            b.append(data);
+            expected.append(data, 1, 3);
+            b.append(data, 1, 3);
+            expected.appendAscii("ascii");
+            b.appendAscii("ascii");
+            expected.appendAscii(new StringBuilder("builder"));
+            b.appendAscii(new StringBuilder("builder"));
+        }
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        b.writeTo(os);
+        Assertions.assertArrayEquals(expected.getBytes(), os.toByteArray());
+    }
+}
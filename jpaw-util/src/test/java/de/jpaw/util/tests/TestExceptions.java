@@ -2,8 +2,10 @@ package de.jpaw.util.tests;
 
 import java.io.IOException;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import de.jpaw.util.ApplicationException;
 import de.jpaw.util.ExceptionUtil;
 
 public class TestExceptions {
@@ -26,4 +28,72 @@ public class TestExceptions {
             System.out.println("Caught exception: " + ExceptionUtil.causeChain(e));
         }
     }
+
+    private static final int PARSER_CODE = ApplicationException.CL_PARSER_ERROR * ApplicationException.CLASSIFICATION_FACTOR + 99001;
+    private static final int PARAMETER_CODE = ApplicationException.CL_PARAMETER_ERROR * ApplicationException.CLASSIFICATION_FACTOR + 99002;
+
+    @Test
+    public void testStackless() {
+        Assertions.assertTrue(new ApplicationException(PARSER_CODE).getStackTrace().length > 0);
+        try {
+            ApplicationException.setStackless(ApplicationException.CL_PARSER_ERROR, true);
+            ApplicationException e1 = new ApplicationException(PARSER_CODE, "bad record");
+            Assertions.assertEquals(0, e1.getStackTrace().length);
+            Assertions.assertTrue(new ApplicationException(PARAMETER_CODE).getStackTrace().length > 0);
+
+            ApplicationException.setStacklessDefault(true);
+            Assertions.assertEquals(0, new ApplicationException(PARAMETER_CODE, "x", "y", 3).getStackTrace().length);
+            ApplicationException.setStackless(ApplicationException.CL_PARSER_ERROR, false);
+            ApplicationException e2 = new ApplicationException(PARSER_CODE);
+            Assertions.assertEquals("testStackless", e2.getStackTrace()[0].getMethodName());
+            e2.initCause(new RuntimeException("cause"));
+            Assertions.assertEquals("cause", e2.getCause().getMessage());
+        } finally {
+            ApplicationException.setStacklessDefault(false);
+            ApplicationException.resetStackless(ApplicationException.CL_PARSER_ERROR);
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ApplicationException.setStackless(-1, true));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ApplicationException.setStackless(22, true));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> ApplicationException.resetStackless(100));
+    }
+
+    private static final class PreallocatedException extends ApplicationException {
+        private static final long serialVersionUID = 1L;
+        static final PreallocatedException BAD_RECORD = new PreallocatedException();
+
+        private PreallocatedException() {
+            super(PARSER_CODE, "bad record", false);
+        }
+    }
+
+    @Test
+    public void testPreallocated() {
+        for (int i = 0; i < 2; ++i) {
+            try {
+                throw PreallocatedException.BAD_RECORD;
+            } catch (ApplicationException e) {
+                e.addSuppressed(new RuntimeException());
+                Assertions.assertSame(PreallocatedException.BAD_RECORD, e);
+            }
+        }
+        Assertions.assertEquals(0, PreallocatedException.BAD_RECORD.getStackTrace().length);
+        Assertions.assertEquals(0, PreallocatedException.BAD_RECORD.getSuppressed().length);
+    }
+
+    @Test
+    public void testDescriptions() {
+        ApplicationException.registerCode(PARSER_CODE, "Test parser error");
+        ApplicationException.registerCode(PARAMETER_CODE, "Test parameter error");
+        for (int i = 1; i <= 5000; ++i) {
+            ApplicationException.registerCode(ApplicationException.CL_VALIDATION_ERROR * ApplicationException.CLASSIFICATION_FACTOR + 80000 + i, "Code " + i);
+        }
+        Assertions.assertEquals("Test parser error", ApplicationException.codeToString(PARSER_CODE));
+        Assertions.assertEquals("Test parameter error", new ApplicationException(PARAMETER_CODE).getStandardDescription());
+        Assertions.assertEquals("Code 4711", ApplicationException.codeToString(ApplicationException.CL_VALIDATION_ERROR * ApplicationException.CLASSIFICATION_FACTOR + 84711));
+        Assertions.assertEquals("unknown code", ApplicationException.codeToString(PARSER_CODE + 1));
+        Assertions.assertEquals("unknown code", ApplicationException.codeToString(0));
+        ApplicationException.registerCode(PARSER_CODE, "Replaced parser error");
+        Assertions.assertEquals("Replaced parser error", ApplicationException.codeToString(PARSER_CODE));
+        Assertions.assertEquals("Code 1", ApplicationException.codeToString(ApplicationException.CL_VALIDATION_ERROR * ApplicationException.CLASSIFICATION_FACTOR + 80001));
+    }
 }
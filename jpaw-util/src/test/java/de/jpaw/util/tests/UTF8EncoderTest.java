@@ -1,10 +1,15 @@
 package de.jpaw.util.tests;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import de.jpaw.util.ByteBuilder;
 import de.jpaw.util.Cesu8Encoder;
 
 public class UTF8EncoderTest {
@@ -20,6 +25,62 @@ public class UTF8EncoderTest {
         }
     }
 
+    private static final String[] SAMPLES = {
+        "", "A", "ASCII only, longer than 8 characters", "Gr\u00fc\u00dfe aus K\u00f6ln", "\u20ac 12,50 f\u00fcr 8 \u00c4pfel",
+        "0123456789abcdef\u4e2d\u6587", "emoji \ud83d\ude00 and more ASCII text", "\ud83d\ude00\ud83d\ude01",
+        "unpaired \ud800 high", "unpaired \udc00 low", "trailing high \ud83d", "nul \u0000 inside"
+    };
+
+    @Test
+    public void testByteBuilderUtf8() {
+        for (int i = 0; i < 0x10000; ++i) {
+            final String testString = "ABCDEFGHIJ" + Character.valueOf((char)i) + "O";
+            final ByteBuilder b = new ByteBuilder(4, StandardCharsets.UTF_8);
+            b.append(testString);
+            Assertions.assertArrayEquals(testString.getBytes(StandardCharsets.UTF_8), b.getBytes(), "for index " + i);
+        }
+        for (final String sample : SAMPLES) {
+            final ByteBuilder b = new ByteBuilder(0, StandardCharsets.UTF_8);
+            b.append(sample);
+            b.appendUtf8(new StringBuilder(sample));
+            Assertions.assertArrayEquals((sample + sample).getBytes(StandardCharsets.UTF_8), b.getBytes(), sample);
+        }
+    }
+
+    @Test
+    public void testByteBuilderCodePoints() {
+        final ByteBuilder b = new ByteBuilder(0, StandardCharsets.UTF_8);
+        final ByteBuilder other = new ByteBuilder(0, StandardCharsets.UTF_16BE);
+        for (int cp = 0; cp <= Character.MAX_CODE_POINT; cp += (cp < 0x10000 ? 1 : 97)) {
+            b.setLength(0);
+            b.appendUnicode(cp);
+            final String s = new String(Character.toChars(cp));
+            Assertions.assertArrayEquals(s.getBytes(StandardCharsets.UTF_8), b.getBytes(), "for code point " + cp);
+            if (cp > 127) {
+                // other character sets use the charset encoder (ASCII is always appended as a single byte)
+                other.setLength(0);
+                other.appendUnicode(cp);
+                Assertions.assertArrayEquals(s.getBytes(StandardCharsets.UTF_16BE), other.getBytes(), "for code point " + cp);
+            }
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> b.appendUnicode(Character.MAX_CODE_POINT + 1));
+    }
+
+    @Test
+    public void testByteBuilderDataOutput() throws IOException {
+        for (final String sample : SAMPLES) {
+            final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            final DataOutputStream dos = new DataOutputStream(bos);
+            dos.writeUTF(sample);
+            dos.writeChars(sample);
+            dos.flush();
+            final ByteBuilder b = new ByteBuilder(0, null);
+            b.writeUTF(sample);
+            b.writeChars(sample);
+            Assertions.assertArrayEquals(bos.toByteArray(), b.getBytes(), sample);
+        }
+    }
+
 //  commented out, CESU8 direct was experimental
 //    @Test
 //    public void testUnsafeEncoder() throws UnsupportedEncodingException {